@@ -0,0 +1,49 @@
+package io.github.vadimbabich.benchmarks.core;
+
+import io.github.vadimbabich.entitymetamodel.core.AttributeDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.EntityDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.EntityModel;
+import io.github.vadimbabich.entitymetamodel.core.TypeRef;
+import io.github.vadimbabich.entitymetamodel.core.TypeRefInterner;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Retained size of the 50,000-attribute {@link SyntheticModel}, whole and for its type trees
+ * alone, with fresh type trees and with interned ones. JMH reports allocation rates, not what a
+ * model keeps alive, so this walks the object graphs with JOL instead. Run with
+ * {@code java -Djdk.attach.allowAttachSelf -cp target/benchmarks.jar} and this class's name.
+ */
+public final class ModelFootprint {
+
+  private ModelFootprint() {
+  }
+
+  public static void main(String[] args) {
+    TypeRefInterner interner = new TypeRefInterner();
+    EntityModel plain = SyntheticModel.plain();
+    EntityModel interned = SyntheticModel.interned(interner);
+
+    System.out.printf("%-9s %14s %14s %12s%n", "Model", "retained (B)", "types (B)", "type trees");
+    print("plain", plain);
+    print("interned", interned);
+    System.out.printf("%d attributes, %d distinct types%n",
+        SyntheticModel.ENTITIES * SyntheticModel.ATTRIBUTES_PER_ENTITY, interner.size());
+  }
+
+  private static void print(String label, EntityModel model) {
+    Set<TypeRef> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (EntityDescriptor entity : model.entities()) {
+      for (AttributeDescriptor attribute : entity.attributes()) {
+        instances.add(attribute.declaredType());
+      }
+    }
+
+    System.out.printf("%-9s %,14d %,14d %,12d%n", label,
+        GraphLayout.parseInstance(model).totalSize(),
+        GraphLayout.parseInstance(instances.toArray()).totalSize(),
+        instances.size());
+  }
+}
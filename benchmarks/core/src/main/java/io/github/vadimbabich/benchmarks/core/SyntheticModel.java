@@ -0,0 +1,80 @@
+package io.github.vadimbabich.benchmarks.core;
+
+import io.github.vadimbabich.entitymetamodel.core.AttributeDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.EntityDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.EntityModel;
+import io.github.vadimbabich.entitymetamodel.core.TypeKind;
+import io.github.vadimbabich.entitymetamodel.core.TypeRef;
+import io.github.vadimbabich.entitymetamodel.core.TypeRefInterner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * A synthetic model of 1,000 entities with 50 attributes each, 50,000 in all, typed from a pool of
+ * the declared types real entities use. Every attribute gets a freshly parsed type tree, names
+ * included, the way a frontend reading sources produces them; the interned variant routes each
+ * tree through one {@link TypeRefInterner}.
+ */
+final class SyntheticModel {
+
+  static final int ENTITIES = 1_000;
+  static final int ATTRIBUTES_PER_ENTITY = 50;
+
+  private static final String[] SCALARS = {
+      "java.lang.Long", "java.lang.String", "java.lang.Integer", "java.math.BigDecimal",
+      "java.time.Instant", "java.time.LocalDate", "java.util.UUID", "java.lang.Boolean"};
+
+  private SyntheticModel() {
+  }
+
+  static EntityModel plain() {
+    return build(UnaryOperator.identity());
+  }
+
+  static EntityModel interned(TypeRefInterner interner) {
+    return build(interner::intern);
+  }
+
+  private static EntityModel build(UnaryOperator<TypeRef> types) {
+    List<EntityDescriptor> entities = new ArrayList<>(ENTITIES);
+    for (int e = 0; e < ENTITIES; e++) {
+      EntityDescriptor.Builder entity =
+          EntityDescriptor.builder("com.example.model.Entity" + e, TypeKind.CLASS)
+              .tableName("entity_" + e);
+      for (int a = 0; a < ATTRIBUTES_PER_ENTITY; a++) {
+        entity.attribute(AttributeDescriptor.of(
+            "attribute" + a, types.apply(parsedType(e * ATTRIBUTES_PER_ENTITY + a)), a == 0,
+            List.of()));
+      }
+      entities.add(entity.build());
+    }
+    return EntityModel.of(entities);
+  }
+
+  // Twelve distinct types: scalars mostly, some generics and arrays, as parsed from source.
+  private static TypeRef parsedType(int attribute) {
+    switch (attribute % 12) {
+      case 8:
+        return TypeRef.parameterized(name("java.util.List"), List.of(scalar(1)));
+      case 9:
+        return TypeRef.parameterized(name("java.util.Map"), List.of(scalar(1),
+            TypeRef.parameterized(name("java.util.List"), List.of(scalar(0)))));
+      case 10:
+        return TypeRef.array(TypeRef.of(name("byte")), 1);
+      case 11:
+        return TypeRef.parameterized(name("java.util.Set"), List.of(scalar(6)));
+      default:
+        return scalar(attribute % 12);
+    }
+  }
+
+  private static TypeRef scalar(int index) {
+    return TypeRef.of(name(SCALARS[index]));
+  }
+
+  // A parser hands out a new String per occurrence; literals would be shared by the JVM already.
+  private static String name(String qualifiedName) {
+    return new String(qualifiedName.toCharArray());
+  }
+}
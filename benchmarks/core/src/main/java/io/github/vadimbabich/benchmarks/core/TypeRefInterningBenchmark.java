@@ -0,0 +1,84 @@
+package io.github.vadimbabich.benchmarks.core;
+
+import io.github.vadimbabich.entitymetamodel.core.AttributeDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.EntityDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.EntityModel;
+import io.github.vadimbabich.entitymetamodel.core.TypeRefInterner;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Building the 50,000-attribute {@link SyntheticModel} with fresh type trees against interned
+ * ones, and rendering every attribute's canonical type through {@code TypeRef.canonical()} against
+ * the interner. Setup fails unless both renderings agree. Footprint is {@link ModelFootprint}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeRefInterningBenchmark {
+
+  private EntityModel plain;
+  private EntityModel interned;
+  private TypeRefInterner interner;
+
+  @Setup
+  public void setUp() {
+    plain = SyntheticModel.plain();
+    interner = new TypeRefInterner();
+    interned = SyntheticModel.interned(interner);
+
+    if (!plain.equals(interned)) {
+      throw new IllegalStateException("Interning changed the model");
+    }
+    for (EntityDescriptor entity : plain.entities()) {
+      for (AttributeDescriptor attribute : entity.attributes()) {
+        if (!attribute.declaredType().canonical()
+            .equals(interner.canonical(attribute.declaredType()))) {
+          throw new IllegalStateException("The interner renders " + attribute.declaredType()
+              + " differently");
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public EntityModel buildPlain() {
+    return SyntheticModel.plain();
+  }
+
+  @Benchmark
+  public EntityModel buildInterned() {
+    return SyntheticModel.interned(new TypeRefInterner());
+  }
+
+  @Benchmark
+  public void canonicalPlain(Blackhole blackhole) {
+    for (EntityDescriptor entity : plain.entities()) {
+      for (AttributeDescriptor attribute : entity.attributes()) {
+        blackhole.consume(attribute.declaredType().canonical());
+      }
+    }
+  }
+
+  @Benchmark
+  public void canonicalInterned(Blackhole blackhole) {
+    for (EntityDescriptor entity : interned.entities()) {
+      for (AttributeDescriptor attribute : entity.attributes()) {
+        blackhole.consume(interner.canonical(attribute.declaredType()));
+      }
+    }
+  }
+}
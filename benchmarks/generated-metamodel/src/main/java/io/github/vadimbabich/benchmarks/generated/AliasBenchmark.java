@@ -0,0 +1,73 @@
+package io.github.vadimbabich.benchmarks.generated;
+
+import com.example.typing.TypedScalars;
+import com.example.typing.TypedScalars_;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.r2dbc.config.StaticR2dbcEntityTemplateAccessor_;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+
+/**
+ * Builds a self-join of {@code TypedScalars} through the cached {@code as(prefix)} views and by
+ * aliasing the table and every column by hand, as queries did before. Setup fails unless both
+ * build the same statement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AliasBenchmark {
+
+  @Setup
+  public void setUp() {
+    DetachedTemplate.install();
+
+    String viaViews = SqlRenderer.toString(aliasedViews());
+    String byHand = SqlRenderer.toString(aliasedByHand());
+    if (!viaViews.equals(byHand)) {
+      throw new IllegalStateException(
+          "Aliased views built '" + viaViews + "' where aliasing by hand built '" + byHand + "'");
+    }
+  }
+
+  @Benchmark
+  public Select aliasedViews() {
+    TypedScalars_.Aliased current = TypedScalars_.as("current");
+    TypedScalars_.Aliased previous = TypedScalars_.as("previous");
+    return Select.builder()
+        .select(current.columns())
+        .from(current.table())
+        .join(previous.table()).on(current.HTML_URL).equals(previous.HTML_URL)
+        .build();
+  }
+
+  @Benchmark
+  public Select aliasedByHand() {
+    Table current = StaticR2dbcEntityTemplateAccessor_.getTable(TypedScalars.class, "current");
+    Table previous = StaticR2dbcEntityTemplateAccessor_.getTable(TypedScalars.class, "previous");
+    List<Column> columns = TypedScalars_.COLUMNS.stream()
+        .map(constant -> current.column(constant.name()))
+        .toList();
+    return Select.builder()
+        .select(columns)
+        .from(current)
+        .join(previous).on(current.column(TypedScalars_.HTML_URL.name()))
+        .equals(previous.column(TypedScalars_.HTML_URL.name()))
+        .build();
+  }
+}
@@ -0,0 +1,84 @@
+package io.github.vadimbabich.benchmarks.generated;
+
+import com.example.typing.Status;
+import com.example.typing.TypedScalars;
+import com.example.typing.TypedScalars_;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.query.BoundCondition;
+import org.springframework.data.r2dbc.query.QueryMapper;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.sql.Column_;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.r2dbc.core.binding.BindMarkersFactory;
+
+/**
+ * Builds {@code status = $1 AND retry_count > $2} on {@code TypedScalars} through the typed
+ * criteria and through {@code Criteria} plus {@code QueryMapper}, the path the README showed.
+ * Setup fails unless both render the same condition and bind the same values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CriteriaBenchmark {
+
+  private final BindMarkersFactory markers = PostgresDialect.INSTANCE.getBindMarkersFactory();
+
+  private QueryMapper queryMapper;
+  private RelationalPersistentEntity<?> entity;
+  private Table table;
+
+  @Setup
+  public void setUp() {
+    R2dbcEntityTemplate template = DetachedTemplate.install();
+    queryMapper = new QueryMapper(PostgresDialect.INSTANCE, template.getConverter());
+    entity = template.getConverter().getMappingContext()
+        .getRequiredPersistentEntity(TypedScalars.class);
+    table = TypedScalars_.getTable();
+
+    BoundCondition typed = typedCriteria();
+    BoundCondition mapped = queryMapperCriteria();
+    if (!typed.getCondition().toString().equals(mapped.getCondition().toString())) {
+      throw new IllegalStateException("Typed criteria rendered '" + typed.getCondition()
+          + "' where QueryMapper rendered '" + mapped.getCondition() + "'");
+    }
+    RecordingStatement typedValues = new RecordingStatement();
+    typed.getBindings().apply(typedValues.asBindTarget());
+    RecordingStatement mappedValues = new RecordingStatement();
+    mapped.getBindings().apply(mappedValues.asBindTarget());
+    if (!typedValues.rows().equals(mappedValues.rows())) {
+      throw new IllegalStateException("Typed criteria bound " + typedValues.rows()
+          + " where QueryMapper bound " + mappedValues.rows());
+    }
+  }
+
+  @Benchmark
+  public BoundCondition typedCriteria() {
+    var bindMarkers = markers.create();
+    return Column_.allOf(
+        TypedScalars_.STATUS.eq(Status.ACTIVE, bindMarkers),
+        TypedScalars_.RETRY_COUNT.gt(3, bindMarkers));
+  }
+
+  @Benchmark
+  public BoundCondition queryMapperCriteria() {
+    Criteria criteria = Criteria.where(TypedScalars_.STATUS.name()).is(Status.ACTIVE)
+        .and(TypedScalars_.RETRY_COUNT.name()).greaterThan(3);
+    return queryMapper.getMappedObject(markers.create(), criteria, table, entity);
+  }
+}
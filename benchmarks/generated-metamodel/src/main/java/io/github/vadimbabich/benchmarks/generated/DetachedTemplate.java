@@ -0,0 +1,50 @@
+package io.github.vadimbabich.benchmarks.generated;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import org.reactivestreams.Publisher;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.r2dbc.config.StaticR2dbcEntityTemplateAccessor_;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * An {@link R2dbcEntityTemplate} that never connects, registered with the generated static
+ * accessor the way a Spring context would. The benchmarks only map rows and render SQL, so a
+ * connection is never requested.
+ */
+final class DetachedTemplate {
+
+  private DetachedTemplate() {
+  }
+
+  static R2dbcEntityTemplate install() {
+    DatabaseClient client = DatabaseClient.builder()
+        .connectionFactory(new UnusedConnectionFactory())
+        .bindMarkers(PostgresDialect.INSTANCE.getBindMarkersFactory())
+        .build();
+    R2dbcEntityTemplate template = new R2dbcEntityTemplate(client, PostgresDialect.INSTANCE);
+
+    GenericApplicationContext context = new GenericApplicationContext();
+    context.registerBean(R2dbcEntityTemplate.class, () -> template);
+    context.refresh();
+    new StaticR2dbcEntityTemplateAccessor_().setApplicationContext(context);
+
+    return template;
+  }
+
+  private static final class UnusedConnectionFactory implements ConnectionFactory {
+
+    @Override
+    public Publisher<? extends Connection> create() {
+      throw new UnsupportedOperationException("Benchmarks never open a connection");
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+      return () -> "detached";
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package io.github.vadimbabich.benchmarks.generated;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.reactivestreams.Publisher;
+import org.springframework.r2dbc.core.binding.BindTarget;
+
+/**
+ * A statement that records what is bound to it, by index, one map per row of a batch. The same
+ * recording is reachable as Spring's {@link BindTarget}, so both bind paths can be compared.
+ */
+final class RecordingStatement implements Statement {
+
+  private final List<Map<Integer, Object>> rows = new ArrayList<>();
+  private Map<Integer, Object> current = new TreeMap<>();
+
+  List<Map<Integer, Object>> rows() {
+    List<Map<Integer, Object>> all = new ArrayList<>(rows);
+    all.add(current);
+    return all;
+  }
+
+  BindTarget asBindTarget() {
+    return new BindTarget() {
+      @Override
+      public void bind(String identifier, Object value) {
+        RecordingStatement.this.bind(identifier, value);
+      }
+
+      @Override
+      public void bind(int index, Object value) {
+        RecordingStatement.this.bind(index, value);
+      }
+
+      @Override
+      public void bindNull(String identifier, Class<?> type) {
+        RecordingStatement.this.bindNull(identifier, type);
+      }
+
+      @Override
+      public void bindNull(int index, Class<?> type) {
+        RecordingStatement.this.bindNull(index, type);
+      }
+    };
+  }
+
+  @Override
+  public Statement add() {
+    rows.add(current);
+    current = new TreeMap<>();
+    return this;
+  }
+
+  @Override
+  public Statement bind(int index, Object value) {
+    current.put(index, value);
+    return this;
+  }
+
+  @Override
+  public Statement bind(String name, Object value) {
+    throw new UnsupportedOperationException("Binds by index only: " + name);
+  }
+
+  @Override
+  public Statement bindNull(int index, Class<?> type) {
+    current.put(index, type);
+    return this;
+  }
+
+  @Override
+  public Statement bindNull(String name, Class<?> type) {
+    throw new UnsupportedOperationException("Binds by index only: " + name);
+  }
+
+  @Override
+  public Publisher<? extends Result> execute() {
+    throw new UnsupportedOperationException("Records bindings only");
+  }
+}
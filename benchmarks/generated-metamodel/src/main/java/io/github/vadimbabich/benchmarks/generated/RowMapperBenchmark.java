@@ -0,0 +1,75 @@
+package io.github.vadimbabich.benchmarks.generated;
+
+import com.example.typing.TypedScalars;
+import com.example.typing.TypedScalars_;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+
+/**
+ * Reads one {@code TypedScalars} row through the generated row mapper and through
+ * {@code MappingR2dbcConverter}, the reflective path it replaces. Setup fails if the two disagree,
+ * so a faster mapper that reads a different entity cannot report a result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+  private R2dbcConverter converter;
+  private StubRow row;
+
+  @Setup
+  public void setUp() {
+    converter = DetachedTemplate.install().getConverter();
+    row = typedScalarsRow();
+
+    TypedScalars viaConverter = converter.read(TypedScalars.class, row, row.getMetadata());
+    TypedScalars viaMapper = TypedScalars_.map(row);
+    if (!viaConverter.equals(viaMapper)) {
+      throw new IllegalStateException(
+          "Generated mapper read " + viaMapper + " where MappingR2dbcConverter read " + viaConverter);
+    }
+  }
+
+  @Benchmark
+  public TypedScalars generatedRowMapper() {
+    return TypedScalars_.map(row);
+  }
+
+  @Benchmark
+  public TypedScalars mappingR2dbcConverter() {
+    return converter.read(TypedScalars.class, row, row.getMetadata());
+  }
+
+  private static StubRow typedScalarsRow() {
+    LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+    values.put("id", 42L);
+    values.put("retry_count", 3);
+    values.put("active", true);
+    values.put("boxed_retry_count", 7);
+    values.put("status", "ACTIVE");
+    values.put("created_at", LocalDateTime.of(2026, 1, 2, 3, 4, 5));
+    values.put("synced_at", Instant.parse("2026-01-02T03:04:05Z"));
+    values.put("total_price", new BigDecimal("129.95"));
+    values.put("html_url", "https://example.com/orders/42");
+    values.put("source_url_path", "/orders/42");
+    return new StubRow(values);
+  }
+}
@@ -0,0 +1,90 @@
+package io.github.vadimbabich.benchmarks.generated;
+
+import com.example.typing.Status;
+import com.example.typing.TypedScalars;
+import com.example.typing.TypedScalars_;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.r2dbc.core.ReactiveDataAccessStrategy;
+import org.springframework.data.r2dbc.core.StatementMapper;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.r2dbc.core.PreparedOperation;
+
+/**
+ * Prepares the INSERT of one {@code TypedScalars} through the generated statement members and the
+ * way {@code R2dbcEntityTemplate.insert} does: outbound row, insert spec, rendered SQL, bindings.
+ * Setup fails unless both produce the same SQL and the same bound values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementBenchmark {
+
+  private ReactiveDataAccessStrategy strategy;
+  private TypedScalars entity;
+
+  @Setup
+  public void setUp() {
+    strategy = DetachedTemplate.install().getDataAccessStrategy();
+    entity = new TypedScalars(42L, 3, true, 7, Status.ACTIVE,
+        LocalDateTime.of(2026, 1, 2, 3, 4, 5), Instant.parse("2026-01-02T03:04:05Z"),
+        new BigDecimal("129.95"), "https://example.com/orders/42", "/orders/42");
+
+    RecordingStatement generated = new RecordingStatement();
+    TypedScalars_.bindInsert(generated, entity);
+    RecordingStatement viaTemplate = new RecordingStatement();
+    String templateSql = templateInsert(viaTemplate);
+
+    if (!TypedScalars_.insertSql().equals(templateSql)) {
+      throw new IllegalStateException(
+          "Generated INSERT '" + TypedScalars_.insertSql() + "' differs from '" + templateSql + "'");
+    }
+    if (!generated.rows().equals(viaTemplate.rows())) {
+      throw new IllegalStateException("Generated bindings " + generated.rows()
+          + " differ from the template's " + viaTemplate.rows());
+    }
+  }
+
+  @Benchmark
+  public RecordingStatement generatedStatement() {
+    RecordingStatement statement = new RecordingStatement();
+    TypedScalars_.insertSql();
+    TypedScalars_.bindInsert(statement, entity);
+    return statement;
+  }
+
+  @Benchmark
+  public RecordingStatement templateInsert() {
+    RecordingStatement statement = new RecordingStatement();
+    templateInsert(statement);
+    return statement;
+  }
+
+  private String templateInsert(RecordingStatement statement) {
+    OutboundRow row = strategy.getOutboundRow(entity);
+    StatementMapper mapper = strategy.getStatementMapper().forType(TypedScalars.class);
+    StatementMapper.InsertSpec insert = mapper.createInsert(
+        strategy.getTableName(TypedScalars.class));
+    for (var column : row.entrySet()) {
+      insert = insert.withColumn(column.getKey(), strategy.getBindValue(column.getValue()));
+    }
+    PreparedOperation<?> operation = mapper.getMappedObject(insert);
+    operation.bindTo(statement.asBindTarget());
+    return operation.toQuery();
+  }
+}
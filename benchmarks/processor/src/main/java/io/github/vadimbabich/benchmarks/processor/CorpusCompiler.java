@@ -0,0 +1,160 @@
+package io.github.vadimbabich.benchmarks.processor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import io.github.vadimbabich.entitymetamodel.processor.EntityMetamodelProcessor;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles a corpus in process through {@code javax.tools}, the way the processor spike's
+ * {@code SpikeCompiler} does, but with one {@link StandardJavaFileManager} held for its whole
+ * life, so that repeated compilations measure javac and the processor rather than the JDK's
+ * platform classes being opened again. The class output is always on the classpath, which is
+ * what lets a single changed source compile against the rest of an earlier build.
+ */
+final class CorpusCompiler implements AutoCloseable {
+
+  private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+  private final StandardJavaFileManager fileManager =
+      compiler.getStandardFileManager(null, null, UTF_8);
+  private final Path classOutput;
+  private final Path sourceOutput;
+
+  CorpusCompiler(Path workDir) {
+    this.classOutput = workDir.resolve("classes");
+    this.sourceOutput = workDir.resolve("generated-sources");
+    try {
+      clean();
+      fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT, List.of(classOutput));
+      fileManager.setLocationFromPaths(StandardLocation.SOURCE_OUTPUT, List.of(sourceOutput));
+      List<Path> classpath = new ArrayList<>();
+      classpath.add(classOutput);
+      for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+        classpath.add(Path.of(entry));
+      }
+      fileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, classpath);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Compiles {@code sources}, with the processor or with annotation processing off.
+   *
+   * @return the number of processing rounds, zero without the processor
+   * @throws IllegalStateException if javac reports an error
+   */
+  int compile(List<Path> sources, boolean withProcessor) {
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    List<String> options = new ArrayList<>(List.of("--release", "17", "-encoding", "UTF-8"));
+    CountingProcessor processor = new CountingProcessor(new EntityMetamodelProcessor());
+    if (!withProcessor) {
+      options.add("-proc:none");
+    }
+
+    JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options,
+        null, fileManager.getJavaFileObjectsFromPaths(sources));
+    task.setProcessors(withProcessor ? List.of(processor) : List.of());
+    if (!task.call()) {
+      for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+        if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+          throw new IllegalStateException("The corpus does not compile: " + diagnostic);
+        }
+      }
+      throw new IllegalStateException("The corpus does not compile");
+    }
+    return processor.rounds;
+  }
+
+  /** Deletes every earlier output, so the next compilation is a full build. */
+  void clean() throws IOException {
+    for (Path directory : List.of(classOutput, sourceOutput)) {
+      delete(directory);
+      Files.createDirectories(directory);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    fileManager.close();
+  }
+
+  static void delete(Path directory) throws IOException {
+    if (!Files.exists(directory)) {
+      return;
+    }
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  /** Counts the rounds javac runs the processor in; everything else is delegated. */
+  private static final class CountingProcessor implements Processor {
+
+    private final Processor delegate;
+    private int rounds;
+
+    CountingProcessor(Processor delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+      return delegate.getSupportedOptions();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+      return delegate.getSupportedAnnotationTypes();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return delegate.getSupportedSourceVersion();
+    }
+
+    @Override
+    public void init(ProcessingEnvironment processingEnvironment) {
+      delegate.init(processingEnvironment);
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+      rounds++;
+      return delegate.process(annotations, round);
+    }
+
+    @Override
+    public Iterable<? extends Completion> getCompletions(Element element,
+        AnnotationMirror annotation, ExecutableElement member, String userText) {
+      return delegate.getCompletions(element, annotation, member, userText);
+    }
+  }
+}
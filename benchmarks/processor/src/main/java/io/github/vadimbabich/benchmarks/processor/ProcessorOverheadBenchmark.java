@@ -0,0 +1,119 @@
+package io.github.vadimbabich.benchmarks.processor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * What the processor adds to javac on {@link SyntheticCorpus} corpora of 1,000, 5,000 and 20,000
+ * entities. {@code fullBuild} compiles the whole corpus into empty outputs; {@code
+ * incrementalBuild} recompiles one changed entity against an earlier full build, as an isolating
+ * incremental build does. Each runs with {@code processor=false}, javac with {@code -proc:none},
+ * and {@code processor=true}; the added cost is the difference. {@code rounds} counts processing
+ * rounds per build. Run with {@code -prof gc} for allocation.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+// JMH's default of ten minutes interrupts the full build a 20,000-entity incremental trial starts
+// from.
+@Timeout(time = 30, timeUnit = TimeUnit.MINUTES)
+public class ProcessorOverheadBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Corpus {
+
+    @Param({"1000", "5000", "20000"})
+    int entities;
+
+    @Param({"false", "true"})
+    boolean processor;
+
+    Path workDir;
+    SyntheticCorpus corpus;
+    CorpusCompiler compiler;
+
+    @Setup(Level.Trial)
+    public void write() throws IOException {
+      workDir = Files.createTempDirectory("processor-overhead");
+      corpus = SyntheticCorpus.write(workDir.resolve("src"), entities);
+      compiler = new CorpusCompiler(workDir.resolve("out"));
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+      compiler.close();
+      CorpusCompiler.delete(workDir);
+    }
+  }
+
+  /** Empties the outputs before every full build. */
+  @State(Scope.Benchmark)
+  public static class CleanOutputs {
+
+    @Setup(Level.Invocation)
+    public void clean(Corpus corpus) throws IOException {
+      corpus.compiler.clean();
+    }
+  }
+
+  /** A full build made once, then one entity changed before every incremental build. */
+  @State(Scope.Benchmark)
+  public static class OneEntityChanged {
+
+    private int variant;
+    List<Path> changed;
+
+    @Setup(Level.Trial)
+    public void build(Corpus corpus) throws IOException {
+      corpus.compiler.clean();
+      corpus.compiler.compile(corpus.corpus.sources(), corpus.processor);
+    }
+
+    @Setup(Level.Invocation)
+    public void change(Corpus corpus) {
+      changed = List.of(corpus.corpus.rewrite(corpus.entities / 2, ++variant));
+    }
+  }
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Rounds {
+
+    public long rounds;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      rounds = 0;
+    }
+  }
+
+  @Benchmark
+  public void fullBuild(Corpus corpus, CleanOutputs outputs, Rounds rounds) {
+    rounds.rounds += corpus.compiler.compile(corpus.corpus.sources(), corpus.processor);
+  }
+
+  @Benchmark
+  public void incrementalBuild(Corpus corpus, OneEntityChanged change, Rounds rounds) {
+    rounds.rounds += corpus.compiler.compile(change.changed, corpus.processor);
+  }
+}
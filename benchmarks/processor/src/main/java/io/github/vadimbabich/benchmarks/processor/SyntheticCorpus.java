@@ -0,0 +1,115 @@
+package io.github.vadimbabich.benchmarks.processor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A generated source tree of {@code @Table} entities, 500 to a package, with eight columns each
+ * typed the way real entities are: an {@code @Id}, {@code @Column}-renamed scalars, a generic and
+ * an array. Every fourth entity extends a shared mapped superclass, so the processor's supertype
+ * walk is part of what is measured. {@link #rewrite} edits one entity for incremental builds.
+ */
+final class SyntheticCorpus {
+
+  static final int ENTITIES_PER_PACKAGE = 500;
+
+  private final Path root;
+  private final List<Path> sources;
+
+  private SyntheticCorpus(Path root, List<Path> sources) {
+    this.root = root;
+    this.sources = sources;
+  }
+
+  static SyntheticCorpus write(Path root, int entities) {
+    List<Path> sources = new ArrayList<>(entities + 1);
+    sources.add(write(root, "com/example/corpus/Audited.java", auditedSource()));
+    for (int e = 0; e < entities; e++) {
+      sources.add(write(root, path(e), entitySource(e, 0)));
+    }
+    return new SyntheticCorpus(root, List.copyOf(sources));
+  }
+
+  List<Path> sources() {
+    return sources;
+  }
+
+  /** Rewrites entity {@code e} with a renamed column, a change its metamodel must reflect. */
+  Path rewrite(int e, int variant) {
+    return write(root, path(e), entitySource(e, variant));
+  }
+
+  private static String path(int e) {
+    return "com/example/corpus/p" + (e / ENTITIES_PER_PACKAGE) + "/Entity" + e + ".java";
+  }
+
+  private static String auditedSource() {
+    return """
+        package com.example.corpus;
+
+        import java.time.Instant;
+        import org.springframework.data.relational.core.mapping.Column;
+
+        public abstract class Audited {
+
+          @Column("created_at")
+          private Instant createdAt;
+
+          @Column("updated_at")
+          private Instant updatedAt;
+        }
+        """;
+  }
+
+  private static String entitySource(int e, int variant) {
+    return """
+        package com.example.corpus.p%d;
+
+        import java.math.BigDecimal;
+        import java.util.List;
+        import org.springframework.data.annotation.Id;
+        import org.springframework.data.relational.core.mapping.Column;
+        import org.springframework.data.relational.core.mapping.Table;
+
+        @Table("entity_%d")
+        public class Entity%d%s {
+
+          @Id
+          private Long id;
+
+          @Column("display_name")
+          private String displayName;
+
+          private int quantity;
+
+          private BigDecimal amount;
+
+          private boolean active;
+
+          private List<String> tags;
+
+          private byte[] payload;
+
+          @Column("note_%d")
+          private String note%d;
+        }
+        """.formatted(e / ENTITIES_PER_PACKAGE, e, e,
+        e % 4 == 0 ? " extends com.example.corpus.Audited" : "", variant, variant);
+  }
+
+  private static Path write(Path root, String relativePath, String source) {
+    try {
+      Path file = root.resolve(relativePath);
+      Files.createDirectories(file.getParent());
+      return Files.writeString(file, source, UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
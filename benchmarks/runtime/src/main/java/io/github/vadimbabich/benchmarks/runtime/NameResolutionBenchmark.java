@@ -0,0 +1,78 @@
+package io.github.vadimbabich.benchmarks.runtime;
+
+import io.github.vadimbabich.entitymetamodel.runtime.EntityRef;
+import io.github.vadimbabich.entitymetamodel.runtime.PropertyRef;
+import io.github.vadimbabich.entitymetamodel.runtime.ResolvedMetamodel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+
+/**
+ * Resolves one column and one table name through the mapping context, as every handle did before
+ * snapshots, and through a {@link ResolvedMetamodel}, by ordinal and by name. Setup fails unless
+ * all paths return the same names.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameResolutionBenchmark {
+
+  private RelationalMappingContext mappingContext;
+  private ResolvedMetamodel names;
+  private EntityRef<WideCustomer> customer;
+  private PropertyRef<WideCustomer, ?> withOrdinal;
+  private PropertyRef<WideCustomer, ?> withoutOrdinal;
+
+  @Setup
+  public void setUp() {
+    WideJoin join = new WideJoin();
+    mappingContext = join.mappingContext;
+    names = join.names;
+    customer = join.customer;
+    withOrdinal = join.customerProperties.get(9);
+    withoutOrdinal = customer.property(withOrdinal.name(), withOrdinal.declaredRawType());
+
+    String column = columnNameFromContext();
+    if (!column.equals(columnNameByOrdinal()) || !column.equals(columnNameByName())
+        || !tableNameFromContext().equals(tableNameFromSnapshot())) {
+      throw new IllegalStateException("The snapshot resolved other names than the context");
+    }
+  }
+
+  @Benchmark
+  public String columnNameFromContext() {
+    return withOrdinal.columnName(mappingContext);
+  }
+
+  @Benchmark
+  public String columnNameByOrdinal() {
+    return withOrdinal.columnName(names);
+  }
+
+  @Benchmark
+  public String columnNameByName() {
+    return withoutOrdinal.columnName(names);
+  }
+
+  @Benchmark
+  public String tableNameFromContext() {
+    return customer.tableName(mappingContext);
+  }
+
+  @Benchmark
+  public String tableNameFromSnapshot() {
+    return customer.tableName(names);
+  }
+}
@@ -0,0 +1,93 @@
+package io.github.vadimbabich.benchmarks.runtime;
+
+import io.github.vadimbabich.entitymetamodel.runtime.ProjectionDecoder;
+import io.r2dbc.spi.ColumnMetadata;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Splits one 48-column row of a three-instance join into per-instance value arrays through a
+ * {@link ProjectionDecoder} and through {@code Row.get(label)} with precomputed labels, the way
+ * hand-written mapping reads joined rows. Setup fails unless both produce the same arrays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectionDecoderBenchmark {
+
+  private StubRow row;
+  private ProjectionDecoder decoder;
+  private String[][] labelsByInstance;
+
+  @Setup
+  public void setUp() {
+    WideJoin join = new WideJoin();
+    ProjectionDecoder inSelectOrder = ProjectionDecoder.of(join.query, join.names);
+
+    List<String> labels = inSelectOrder.labels();
+    Object[] values = new Object[labels.size()];
+    for (int column = 0; column < values.length; column++) {
+      values[column] = labels.get(column).endsWith("_id") ? (Object) (long) column : "v" + column;
+    }
+    row = new StubRow(labels, values);
+    decoder = inSelectOrder.forLabels(row.getMetadata().getColumnMetadatas().stream()
+        .map(ColumnMetadata::getName)
+        .toList());
+
+    labelsByInstance = new String[decoder.instances().size()][];
+    int column = 0;
+    for (int slot = 0; slot < labelsByInstance.length; slot++) {
+      labelsByInstance[slot] = new String[decoder.properties(slot).size()];
+      for (int position = 0; position < labelsByInstance[slot].length; position++) {
+        labelsByInstance[slot][position] = labels.get(column++);
+      }
+    }
+
+    Object[][] decoded = toArrays(decoded());
+    Object[][] byLabel = rowGetByLabel();
+    if (!Arrays.deepEquals(decoded, byLabel)) {
+      throw new IllegalStateException("The decoder read " + Arrays.deepToString(decoded)
+          + " where Row.get(label) read " + Arrays.deepToString(byLabel));
+    }
+  }
+
+  @Benchmark
+  public ProjectionDecoder.DecodedRow decoded() {
+    return decoder.decode(row::get);
+  }
+
+  @Benchmark
+  public Object[][] rowGetByLabel() {
+    Object[][] values = new Object[labelsByInstance.length][];
+    for (int slot = 0; slot < labelsByInstance.length; slot++) {
+      String[] labels = labelsByInstance[slot];
+      values[slot] = new Object[labels.length];
+      for (int position = 0; position < labels.length; position++) {
+        values[slot][position] = row.get(labels[position]);
+      }
+    }
+    return values;
+  }
+
+  private Object[][] toArrays(ProjectionDecoder.DecodedRow decoded) {
+    Object[][] values = new Object[decoder.instances().size()][];
+    for (int slot = 0; slot < values.length; slot++) {
+      values[slot] = decoded.values(slot);
+    }
+    return values;
+  }
+}
@@ -0,0 +1,81 @@
+package io.github.vadimbabich.benchmarks.runtime;
+
+import io.github.vadimbabich.entitymetamodel.runtime.Filter;
+import io.github.vadimbabich.entitymetamodel.runtime.JoinPlan;
+import io.github.vadimbabich.entitymetamodel.runtime.JoinPlanner;
+import io.github.vadimbabich.entitymetamodel.runtime.PropertyRef;
+import io.github.vadimbabich.entitymetamodel.runtime.QueryRenderer;
+import io.github.vadimbabich.entitymetamodel.runtime.QueryShapeCache;
+import io.github.vadimbabich.entitymetamodel.runtime.RenderedQuery;
+import io.github.vadimbabich.entitymetamodel.runtime.SelectQuery;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The snapshot and cache APIs on a query's hot path: building a filtered 48-column join and
+ * rendering it from a warm {@link QueryShapeCache} against rendering it through Spring's statement
+ * builder every time, and a cached {@link JoinPlanner} plan. Setup fails unless the cached and the
+ * fresh text are the same.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryCacheBenchmark {
+
+  private WideJoin join;
+  private PropertyRef<WideOrder, Long> customerId;
+  private QueryRenderer cached;
+  private JoinPlanner planner;
+  private long nextCustomer;
+
+  @Setup
+  public void setUp() {
+    join = new WideJoin();
+    customerId = join.order.property("customerId", Long.class, 1);
+    cached = QueryRenderer.builder(join.names, new QueryShapeCache(16)).build();
+    planner = JoinPlanner.of(List.of(join.orderedBy), new QueryShapeCache(16));
+
+    if (!renderCached().sql().equals(renderUncached().sql())) {
+      throw new IllegalStateException("The cached text differs from a fresh rendering");
+    }
+  }
+
+  @Benchmark
+  public RenderedQuery renderCached() {
+    return cached.render(query());
+  }
+
+  @Benchmark
+  public RenderedQuery renderUncached() {
+    return QueryRenderer.builder(join.names, new QueryShapeCache(1)).build().render(query());
+  }
+
+  @Benchmark
+  public JoinPlan planCached() {
+    return planner.plan(join.order, List.of(join.customer));
+  }
+
+  private SelectQuery<WideOrder> query() {
+    SelectQuery.Builder<WideOrder> builder = SelectQuery.from(join.order)
+        .select(join.orderProperties)
+        .select(join.customerProperties)
+        .join(join.orderedBy, join.customer)
+        .join(join.billedTo, join.billing)
+        .where(Filter.eq(customerId, nextCustomer++));
+    join.customerProperties.forEach(property -> builder.select(property.of(join.billing)));
+    return builder.build();
+  }
+}
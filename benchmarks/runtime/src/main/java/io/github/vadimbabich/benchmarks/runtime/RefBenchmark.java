@@ -0,0 +1,119 @@
+package io.github.vadimbabich.benchmarks.runtime;
+
+import io.github.vadimbabich.entitymetamodel.runtime.EntityRef;
+import io.github.vadimbabich.entitymetamodel.runtime.JoinRef;
+import io.github.vadimbabich.entitymetamodel.runtime.PropertyRef;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The per-query cost of the reference types themselves: creating handles, aliasing and
+ * re-anchoring them, and comparing and hashing them as map keys do. Every comparison is between
+ * equal but distinct objects, so no result comes from an identity shortcut. Run with
+ * {@code -prof gc}: apart from construction, none of these should allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RefBenchmark {
+
+  private EntityRef<WideOrder> order;
+  private EntityRef<WideOrder> orderCopy;
+  private EntityRef<WideCustomer> billing;
+  private PropertyRef<WideCustomer, ?> customerName;
+  private PropertyRef<WideCustomer, ?> customerNameCopy;
+  private JoinRef<WideOrder, WideCustomer> orderedBy;
+  private JoinRef<WideOrder, WideCustomer> orderedByCopy;
+  private Map<PropertyRef<?, ?>, Integer> positions;
+
+  @Setup
+  public void setUp() {
+    WideJoin join = new WideJoin();
+    WideJoin copy = new WideJoin();
+
+    order = join.order;
+    orderCopy = copy.order;
+    billing = join.billing;
+    customerName = join.customerProperties.get(3);
+    customerNameCopy = copy.customerProperties.get(3);
+    orderedBy = join.orderedBy;
+    orderedByCopy = copy.orderedBy;
+
+    positions = new HashMap<>();
+    join.customerProperties.forEach(property -> positions.put(property, positions.size()));
+
+    if (order == orderCopy || !order.equals(orderCopy) || !customerName.equals(customerNameCopy)
+        || !orderedBy.equals(orderedByCopy) || positions.get(customerNameCopy) != 3) {
+      throw new IllegalStateException("The copies must be equal and distinct");
+    }
+  }
+
+  @Benchmark
+  public EntityRef<WideOrder> entityRefOf() {
+    return EntityRef.of(WideOrder.class);
+  }
+
+  @Benchmark
+  public EntityRef<WideOrder> aliased() {
+    return order.as("billing");
+  }
+
+  @Benchmark
+  public PropertyRef<WideOrder, Long> propertyRef() {
+    return order.property("customerId", Long.class, 1);
+  }
+
+  @Benchmark
+  public PropertyRef<WideCustomer, ?> reanchored() {
+    return customerName.of(billing);
+  }
+
+  @Benchmark
+  public boolean entityRefEquals() {
+    return order.equals(orderCopy);
+  }
+
+  @Benchmark
+  public boolean propertyRefEquals() {
+    return customerName.equals(customerNameCopy);
+  }
+
+  @Benchmark
+  public boolean joinRefEquals() {
+    return orderedBy.equals(orderedByCopy);
+  }
+
+  @Benchmark
+  public int entityRefHashCode() {
+    return order.hashCode();
+  }
+
+  @Benchmark
+  public int propertyRefHashCode() {
+    return customerName.hashCode();
+  }
+
+  @Benchmark
+  public int joinRefHashCode() {
+    return orderedBy.hashCode();
+  }
+
+  @Benchmark
+  public Integer propertyKeyedLookup() {
+    return positions.get(customerNameCopy);
+  }
+}
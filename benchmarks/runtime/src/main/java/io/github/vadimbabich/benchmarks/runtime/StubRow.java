@@ -0,0 +1,95 @@
+package io.github.vadimbabich.benchmarks.runtime;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A row over fixed values. Columns are found by label the way drivers find them, through a
+ * case-insensitive lookup on every access, so reading by name costs what it costs in production.
+ */
+final class StubRow implements Row, RowMetadata {
+
+  private final List<StubColumn> columns;
+  private final Object[] values;
+  private final Map<String, Integer> indexByLabel = new HashMap<>();
+
+  StubRow(List<String> labels, Object[] values) {
+    if (labels.size() != values.length) {
+      throw new IllegalArgumentException(labels.size() + " labels for " + values.length + " values");
+    }
+    this.columns = labels.stream()
+        .map(label -> new StubColumn(label, Object.class))
+        .toList();
+    this.values = values.clone();
+    for (int i = 0; i < columns.size(); i++) {
+      indexByLabel.put(columns.get(i).getName().toLowerCase(Locale.ROOT), i);
+    }
+  }
+
+  @Override
+  public <T> T get(int index, Class<T> type) {
+    return type.cast(values[index]);
+  }
+
+  @Override
+  public <T> T get(String name, Class<T> type) {
+    return get(indexOf(name), type);
+  }
+
+  @Override
+  public RowMetadata getMetadata() {
+    return this;
+  }
+
+  @Override
+  public ColumnMetadata getColumnMetadata(int index) {
+    return columns.get(index);
+  }
+
+  @Override
+  public ColumnMetadata getColumnMetadata(String name) {
+    return columns.get(indexOf(name));
+  }
+
+  @Override
+  public List<? extends ColumnMetadata> getColumnMetadatas() {
+    return columns;
+  }
+
+  @Override
+  public boolean contains(String name) {
+    return indexByLabel.containsKey(name.toLowerCase(Locale.ROOT));
+  }
+
+  private int indexOf(String name) {
+    Integer index = indexByLabel.get(name.toLowerCase(Locale.ROOT));
+    if (index == null) {
+      throw new IllegalArgumentException("No column labelled '" + name + "'");
+    }
+    return index;
+  }
+
+  private record StubColumn(String name, Class<?> javaType) implements ColumnMetadata, Type {
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public Class<?> getJavaType() {
+      return javaType;
+    }
+
+    @Override
+    public Type getType() {
+      return this;
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package io.github.vadimbabich.benchmarks.runtime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/** Sixteen columns, joined twice from {@link WideOrder}. */
+@Table("wide_customers")
+public class WideCustomer {
+
+  @Id
+  Long id;
+
+  String attribute02;
+
+  String attribute03;
+
+  String attribute04;
+
+  String attribute05;
+
+  String attribute06;
+
+  String attribute07;
+
+  String attribute08;
+
+  String attribute09;
+
+  String attribute10;
+
+  String attribute11;
+
+  String attribute12;
+
+  String attribute13;
+
+  String attribute14;
+
+  String attribute15;
+
+  String attribute16;
+}
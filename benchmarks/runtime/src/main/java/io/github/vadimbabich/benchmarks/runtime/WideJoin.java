@@ -0,0 +1,60 @@
+package io.github.vadimbabich.benchmarks.runtime;
+
+import io.github.vadimbabich.entitymetamodel.runtime.EntityRef;
+import io.github.vadimbabich.entitymetamodel.runtime.JoinRef;
+import io.github.vadimbabich.entitymetamodel.runtime.PropertyRef;
+import io.github.vadimbabich.entitymetamodel.runtime.ResolvedMetamodel;
+import io.github.vadimbabich.entitymetamodel.runtime.SelectQuery;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+
+/**
+ * {@code WideOrder} joined to its customer and to its billing customer, 48 projected columns over
+ * three instances: the handles a generated metamodel would declare, built here from the fields.
+ */
+final class WideJoin {
+
+  final EntityRef<WideOrder> order = EntityRef.of(WideOrder.class);
+  final EntityRef<WideCustomer> customer = EntityRef.of(WideCustomer.class);
+  final EntityRef<WideCustomer> billing = customer.as("billing");
+
+  final List<PropertyRef<WideOrder, ?>> orderProperties = propertiesOf(order);
+  final List<PropertyRef<WideCustomer, ?>> customerProperties = propertiesOf(customer);
+
+  final RelationalMappingContext mappingContext = new RelationalMappingContext();
+  final ResolvedMetamodel names = ResolvedMetamodel.builder(mappingContext)
+      .entity(order, orderProperties)
+      .entity(customer, customerProperties)
+      .build();
+
+  final JoinRef<WideOrder, WideCustomer> orderedBy;
+  final JoinRef<WideOrder, WideCustomer> billedTo;
+  final SelectQuery<WideOrder> query;
+
+  WideJoin() {
+    PropertyRef<WideOrder, Long> customerId = order.property("customerId", Long.class, 1);
+    PropertyRef<WideOrder, Long> billingCustomerId =
+        order.property("billingCustomerId", Long.class, 2);
+    PropertyRef<WideCustomer, Long> id = customer.property("id", Long.class, 0);
+    orderedBy = JoinRef.of(customerId, id);
+    billedTo = JoinRef.of(billingCustomerId, id);
+
+    SelectQuery.Builder<WideOrder> builder = SelectQuery.from(order)
+        .select(orderProperties)
+        .select(customerProperties)
+        .join(orderedBy, customer)
+        .join(billedTo, billing);
+    customerProperties.forEach(property -> builder.select(property.of(billing)));
+    this.query = builder.build();
+  }
+
+  private static <E> List<PropertyRef<E, ?>> propertiesOf(EntityRef<E> entity) {
+    List<PropertyRef<E, ?>> properties = new ArrayList<>();
+    for (Field field : entity.entityType().getDeclaredFields()) {
+      properties.add(entity.property(field.getName(), field.getType(), properties.size()));
+    }
+    return List.copyOf(properties);
+  }
+}
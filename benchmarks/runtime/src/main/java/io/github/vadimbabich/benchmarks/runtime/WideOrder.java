@@ -0,0 +1,42 @@
+package io.github.vadimbabich.benchmarks.runtime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/** Sixteen columns, two of them references to {@link WideCustomer}. */
+@Table("wide_orders")
+public class WideOrder {
+
+  @Id
+  Long id;
+
+  Long customerId;
+
+  Long billingCustomerId;
+
+  String attribute04;
+
+  String attribute05;
+
+  String attribute06;
+
+  String attribute07;
+
+  String attribute08;
+
+  String attribute09;
+
+  String attribute10;
+
+  String attribute11;
+
+  String attribute12;
+
+  String attribute13;
+
+  String attribute14;
+
+  String attribute15;
+
+  String attribute16;
+}
@@ -0,0 +1,167 @@
+package io.github.vadimbabich.entitymetamodel.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The entity models that upstream artifacts ship on a class loader's classpath, loaded lazily by
+ * qualified name: nothing is scanned up front, and each referenced entity costs one resource
+ * lookup, so a frontend pays for what it references rather than for the size of its dependencies.
+ * Loaded entities are kept for the lifetime of the instance. Thread-safe.
+ *
+ * <p>The Maven plugin reads supertypes it cannot find among its sources from here. The processor
+ * needs no shipped models: javac gives it upstream entities from their class files.
+ */
+public final class ClasspathEntityModels {
+
+  private final ClassLoader classLoader;
+  private final Map<String, Optional<EntityDescriptor>> topLevel = new ConcurrentHashMap<>();
+
+  private ClasspathEntityModels(ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  public static ClasspathEntityModels of(ClassLoader classLoader) {
+    return new ClasspathEntityModels(Objects.requireNonNull(classLoader, "classLoader"));
+  }
+
+  /**
+   * The shipped entity named {@code qualifiedName}, top-level or nested in a shipped entity.
+   *
+   * @throws IllegalStateException if two artifacts ship different models of the same entity
+   * @throws UncheckedIOException if a shipped resource cannot be read
+   */
+  public Optional<EntityDescriptor> find(String qualifiedName) {
+    TypeRef.requireText(qualifiedName, "qualifiedName");
+
+    EntityDescriptor owner = owner(qualifiedName);
+    return owner == null ? Optional.empty() : Optional.ofNullable(nested(owner, qualifiedName));
+  }
+
+  /**
+   * {@code local} plus the top-level entity declaring each of {@code referenced} that {@code local}
+   * does not declare itself. Local declarations win over shipped ones; names found in neither are
+   * left out, so compare against {@link #find(String)} to report them.
+   */
+  public EntityModel merge(EntityModel local, Collection<String> referenced) {
+    Set<String> declared = new HashSet<>();
+    for (EntityDescriptor entity : local.entities()) {
+      collectNames(entity, declared);
+    }
+
+    Map<String, EntityDescriptor> merged = new LinkedHashMap<>();
+    for (EntityDescriptor entity : local.entities()) {
+      merged.put(entity.qualifiedName(), entity);
+    }
+    for (String name : referenced) {
+      if (declared.contains(name)) {
+        continue;
+      }
+      EntityDescriptor owner = owner(name);
+      if (owner != null && nested(owner, name) != null) {
+        merged.putIfAbsent(owner.qualifiedName(), owner);
+      }
+    }
+    return EntityModel.of(new ArrayList<>(merged.values()));
+  }
+
+  @Override
+  public String toString() {
+    return "ClasspathEntityModels[" + classLoader + ", loaded=" + topLevel.size() + "]";
+  }
+
+  // A nested entity ships inside its top-level owner, so a miss retries with the enclosing name.
+  private EntityDescriptor owner(String qualifiedName) {
+    for (String candidate = qualifiedName; candidate != null; candidate = enclosing(candidate)) {
+      Optional<EntityDescriptor> loaded = topLevel.computeIfAbsent(candidate, this::load);
+      if (loaded.isPresent()) {
+        return loaded.get();
+      }
+    }
+    return null;
+  }
+
+  private Optional<EntityDescriptor> load(String qualifiedName) {
+    List<URL> urls;
+    try {
+      urls = Collections.list(
+          classLoader.getResources(EntityModelResources.resourceName(qualifiedName)));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot look up the shipped model of " + qualifiedName, e);
+    }
+
+    EntityDescriptor found = null;
+    URL foundAt = null;
+    for (URL url : urls) {
+      EntityDescriptor candidate = read(url, qualifiedName);
+      if (found == null) {
+        found = candidate;
+        foundAt = url;
+      } else if (!found.equals(candidate)) {
+        throw new IllegalStateException("Entity '" + qualifiedName
+            + "' is shipped with different models by " + foundAt + " and " + url);
+      }
+    }
+    return Optional.ofNullable(found);
+  }
+
+  private static EntityDescriptor read(URL url, String qualifiedName) {
+    byte[] encoded;
+    try (InputStream in = url.openStream()) {
+      encoded = in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read the shipped model at " + url, e);
+    }
+
+    List<EntityDescriptor> entities;
+    try {
+      entities = EntityModelCodec.decode(ByteBuffer.wrap(encoded)).entities();
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Cannot read the shipped model at " + url, e);
+    }
+    if (entities.size() != 1 || !entities.get(0).qualifiedName().equals(qualifiedName)) {
+      throw new IllegalStateException(
+          "The shipped model at " + url + " does not describe exactly '" + qualifiedName + "'");
+    }
+    return entities.get(0);
+  }
+
+  private static EntityDescriptor nested(EntityDescriptor owner, String qualifiedName) {
+    if (owner.qualifiedName().equals(qualifiedName)) {
+      return owner;
+    }
+    for (EntityDescriptor nested : owner.nestedEntities()) {
+      EntityDescriptor match = nested(nested, qualifiedName);
+      if (match != null) {
+        return match;
+      }
+    }
+    return null;
+  }
+
+  private static void collectNames(EntityDescriptor entity, Set<String> names) {
+    names.add(entity.qualifiedName());
+    for (EntityDescriptor nested : entity.nestedEntities()) {
+      collectNames(nested, names);
+    }
+  }
+
+  private static String enclosing(String qualifiedName) {
+    int lastDot = qualifiedName.lastIndexOf('.');
+    return lastDot < 0 ? null : qualifiedName.substring(0, lastDot);
+  }
+}
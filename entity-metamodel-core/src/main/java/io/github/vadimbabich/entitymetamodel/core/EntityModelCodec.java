@@ -0,0 +1,316 @@
+package io.github.vadimbabich.entitymetamodel.core;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A versioned binary form of an {@link EntityModel}, so parse caches, build caches and hand-off
+ * between modules load a model instead of re-deriving it from source.
+ *
+ * <p>Layout: the magic {@code EMOD}, a format version, a string table holding every distinct name
+ * once, then the entities. Counts, lengths and string references are unsigned varints; a string or
+ * type reference of 0 stands for {@code null}. Annotation values are written in key order, so
+ * equal models encode to equal bytes. {@link #decode(ByteBuffer)} reads straight from the buffer,
+ * heap, direct or memory-mapped, without copying it first.
+ */
+public final class EntityModelCodec {
+
+  /** The format this codec writes and the only one it reads. */
+  public static final int FORMAT_VERSION = 1;
+
+  private static final int MAGIC = 0x454D4F44;
+
+  private EntityModelCodec() {
+  }
+
+  public static byte[] encode(EntityModel model) {
+    Writer body = new Writer();
+    body.varint(model.entities().size());
+    for (EntityDescriptor entity : model.entities()) {
+      body.entity(entity);
+    }
+
+    Writer header = new Writer();
+    header.int32(MAGIC);
+    header.varint(FORMAT_VERSION);
+    header.varint(body.strings.size());
+    for (String string : body.strings.keySet()) {
+      byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+      header.varint(utf8.length);
+      header.bytes(utf8, utf8.length);
+    }
+    header.bytes(body.buffer, body.size);
+    return Arrays.copyOf(header.buffer, header.size);
+  }
+
+  /**
+   * Decodes one model starting at the buffer's position and leaves the position just past it, so
+   * models written back to back read in sequence.
+   *
+   * @throws IllegalArgumentException if the bytes are not an entity model, come from another
+   *     format version, or end early
+   */
+  public static EntityModel decode(ByteBuffer buffer) {
+    return decode(buffer, new TypeRefInterner());
+  }
+
+  /**
+   * Decodes one model as {@link #decode(ByteBuffer)} does, sharing its types through
+   * {@code types}, so models decoded with one interner share their type trees.
+   */
+  public static EntityModel decode(ByteBuffer buffer, TypeRefInterner types) {
+    try {
+      if (buffer.getInt() != MAGIC) {
+        throw new IllegalArgumentException("Not an entity model: the magic number is missing");
+      }
+      int version = varint(buffer);
+      if (version != FORMAT_VERSION) {
+        throw new IllegalArgumentException("Unsupported entity model format version " + version
+            + "; this reader supports version " + FORMAT_VERSION);
+      }
+      return new Reader(buffer, types).model();
+    } catch (BufferUnderflowException truncated) {
+      throw new IllegalArgumentException("Malformed entity model: the input ends early", truncated);
+    }
+  }
+
+  private static int varint(ByteBuffer buffer) {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      byte next = buffer.get();
+      value |= (next & 0x7F) << shift;
+      if (next >= 0) {
+        if (value < 0) {
+          break;
+        }
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed entity model: a number is out of range");
+  }
+
+  private static final class Writer {
+
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+    private byte[] buffer = new byte[256];
+    private int size;
+
+    private void entity(EntityDescriptor entity) {
+      string(entity.qualifiedName());
+      varint(entity.kind() == null ? 0 : entity.kind().ordinal() + 1);
+      string(entity.tableName());
+      attributes(entity.attributes());
+      varint(entity.superTypes().size());
+      for (SuperTypeContribution superType : entity.superTypes()) {
+        string(superType.qualifiedName());
+        attributes(superType.attributes());
+      }
+      varint(entity.nestedEntities().size());
+      for (EntityDescriptor nested : entity.nestedEntities()) {
+        entity(nested);
+      }
+    }
+
+    private void attributes(List<AttributeDescriptor> attributes) {
+      varint(attributes.size());
+      for (AttributeDescriptor attribute : attributes) {
+        string(attribute.name());
+        type(attribute.declaredType());
+        varint(attribute.id() ? 1 : 0);
+        varint(attribute.annotations().size());
+        for (AnnotationFact annotation : attribute.annotations()) {
+          string(annotation.qualifiedName());
+          varint(annotation.declaredValues().size());
+          for (Map.Entry<String, String> value
+              : new TreeMap<>(annotation.declaredValues()).entrySet()) {
+            string(value.getKey());
+            string(value.getValue());
+          }
+        }
+      }
+    }
+
+    private void type(TypeRef type) {
+      if (type == null) {
+        varint(0);
+        return;
+      }
+      string(type.qualifiedName());
+      varint(type.arrayDimensions());
+      varint(type.typeArguments().size());
+      for (TypeRef argument : type.typeArguments()) {
+        type(argument);
+      }
+    }
+
+    private void string(String string) {
+      if (string == null) {
+        varint(0);
+        return;
+      }
+      Integer index = strings.get(string);
+      if (index == null) {
+        index = strings.size();
+        strings.put(string, index);
+      }
+      varint(index + 1);
+    }
+
+    private void int32(int value) {
+      ensure(4);
+      buffer[size++] = (byte) (value >>> 24);
+      buffer[size++] = (byte) (value >>> 16);
+      buffer[size++] = (byte) (value >>> 8);
+      buffer[size++] = (byte) value;
+    }
+
+    private void varint(int value) {
+      ensure(5);
+      int remaining = value;
+      while ((remaining & ~0x7F) != 0) {
+        buffer[size++] = (byte) ((remaining & 0x7F) | 0x80);
+        remaining >>>= 7;
+      }
+      buffer[size++] = (byte) remaining;
+    }
+
+    private void bytes(byte[] source, int length) {
+      ensure(length);
+      System.arraycopy(source, 0, buffer, size, length);
+      size += length;
+    }
+
+    private void ensure(int additional) {
+      if (size + additional > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+      }
+    }
+  }
+
+  private static final class Reader {
+
+    private final ByteBuffer buffer;
+    private final TypeRefInterner types;
+    private final String[] strings;
+
+    private Reader(ByteBuffer buffer, TypeRefInterner types) {
+      this.buffer = buffer;
+      this.types = types;
+      this.strings = new String[count()];
+      byte[] scratch = new byte[0];
+      for (int i = 0; i < strings.length; i++) {
+        int length = count();
+        if (buffer.hasArray()) {
+          strings[i] = new String(buffer.array(), buffer.arrayOffset() + buffer.position(),
+              length, StandardCharsets.UTF_8);
+          buffer.position(buffer.position() + length);
+        } else {
+          if (scratch.length < length) {
+            scratch = new byte[Math.max(length, 64)];
+          }
+          buffer.get(scratch, 0, length);
+          strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+      }
+    }
+
+    private EntityModel model() {
+      return EntityModel.of(entities());
+    }
+
+    private List<EntityDescriptor> entities() {
+      int count = count();
+      List<EntityDescriptor> entities = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        entities.add(entity());
+      }
+      return entities;
+    }
+
+    private EntityDescriptor entity() {
+      String qualifiedName = string();
+      TypeKind kind = kind();
+      String tableName = string();
+      List<AttributeDescriptor> attributes = attributes();
+      int superTypeCount = count();
+      List<SuperTypeContribution> superTypes = new ArrayList<>(superTypeCount);
+      for (int i = 0; i < superTypeCount; i++) {
+        superTypes.add(SuperTypeContribution.of(string(), attributes()));
+      }
+      return new EntityDescriptor(
+          qualifiedName, kind, tableName, attributes, superTypes, entities());
+    }
+
+    private TypeKind kind() {
+      int encoded = varint(buffer);
+      TypeKind[] kinds = TypeKind.values();
+      if (encoded > kinds.length) {
+        throw new IllegalArgumentException("Malformed entity model: unknown type kind " + encoded);
+      }
+      return encoded == 0 ? null : kinds[encoded - 1];
+    }
+
+    private List<AttributeDescriptor> attributes() {
+      int count = count();
+      List<AttributeDescriptor> attributes = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        String name = string();
+        TypeRef declaredType = type();
+        boolean id = varint(buffer) != 0;
+        int annotationCount = count();
+        List<AnnotationFact> annotations = new ArrayList<>(annotationCount);
+        for (int j = 0; j < annotationCount; j++) {
+          String annotationName = string();
+          int valueCount = count();
+          Map<String, String> values = new HashMap<>();
+          for (int k = 0; k < valueCount; k++) {
+            values.put(string(), string());
+          }
+          annotations.add(AnnotationFact.of(annotationName, values));
+        }
+        attributes.add(AttributeDescriptor.of(name, declaredType, id, annotations));
+      }
+      return attributes;
+    }
+
+    private TypeRef type() {
+      String qualifiedName = string();
+      if (qualifiedName == null) {
+        return null;
+      }
+      int arrayDimensions = varint(buffer);
+      int argumentCount = count();
+      List<TypeRef> typeArguments = new ArrayList<>(argumentCount);
+      for (int i = 0; i < argumentCount; i++) {
+        typeArguments.add(type());
+      }
+      return types.intern(new TypeRef(qualifiedName, typeArguments, arrayDimensions));
+    }
+
+    private String string() {
+      int reference = varint(buffer);
+      if (reference > strings.length) {
+        throw new IllegalArgumentException(
+            "Malformed entity model: string " + reference + " is not in the table");
+      }
+      return reference == 0 ? null : strings[reference - 1];
+    }
+
+    /** A length or element count, which can never exceed the bytes left to read. */
+    private int count() {
+      int value = varint(buffer);
+      if (value > buffer.remaining()) {
+        throw new BufferUnderflowException();
+      }
+      return value;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package io.github.vadimbabich.entitymetamodel.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Hash lookups over an {@link EntityModel}, built once so generators stop scanning the entity list
+ * per question: entities by qualified name, by declared table name, and by the supertypes they
+ * inherit from. Nested entities are indexed like top-level ones. Every list keeps the model's
+ * qualified-name order. Immutable and thread-safe.
+ */
+public final class EntityModelIndex {
+
+  private final EntityModel model;
+  private final Map<String, EntityDescriptor> byName;
+  private final Map<String, List<EntityDescriptor>> byTable;
+  private final Map<String, List<EntityDescriptor>> bySuperType;
+
+  private EntityModelIndex(EntityModel model, Map<String, EntityDescriptor> byName,
+      Map<String, List<EntityDescriptor>> byTable,
+      Map<String, List<EntityDescriptor>> bySuperType) {
+    this.model = model;
+    this.byName = byName;
+    this.byTable = byTable;
+    this.bySuperType = bySuperType;
+  }
+
+  /**
+   * Indexes {@code model}.
+   *
+   * @throws IllegalArgumentException if two entities share a qualified name
+   */
+  public static EntityModelIndex of(EntityModel model) {
+    Objects.requireNonNull(model, "model");
+
+    List<EntityDescriptor> all = new ArrayList<>();
+    for (EntityDescriptor entity : model.entities()) {
+      collect(entity, all);
+    }
+    all.sort(Comparator.comparing(EntityDescriptor::qualifiedName));
+
+    Map<String, EntityDescriptor> byName = new HashMap<>();
+    Map<String, List<EntityDescriptor>> byTable = new HashMap<>();
+    Map<String, List<EntityDescriptor>> bySuperType = new HashMap<>();
+    for (EntityDescriptor entity : all) {
+      if (byName.putIfAbsent(entity.qualifiedName(), entity) != null) {
+        throw new IllegalArgumentException(
+            "Entity '" + entity.qualifiedName() + "' is declared more than once");
+      }
+      if (entity.tableName() != null && !entity.tableName().isEmpty()) {
+        byTable.computeIfAbsent(entity.tableName(), table -> new ArrayList<>()).add(entity);
+      }
+      for (SuperTypeContribution superType : entity.superTypes()) {
+        bySuperType.computeIfAbsent(superType.qualifiedName(), name -> new ArrayList<>())
+            .add(entity);
+      }
+    }
+    return new EntityModelIndex(model, Map.copyOf(byName), immutable(byTable),
+        immutable(bySuperType));
+  }
+
+  public EntityModel model() {
+    return model;
+  }
+
+  /** The entity, top-level or nested, named {@code qualifiedName}. */
+  public Optional<EntityDescriptor> entity(String qualifiedName) {
+    return Optional.ofNullable(byName.get(qualifiedName));
+  }
+
+  /** The entities declaring {@code tableName} verbatim, as the source spells it. */
+  public List<EntityDescriptor> mappedTo(String tableName) {
+    return byTable.getOrDefault(tableName, List.of());
+  }
+
+  /** The entities that carry a contribution from the supertype {@code qualifiedName}. */
+  public List<EntityDescriptor> subtypesOf(String qualifiedName) {
+    return bySuperType.getOrDefault(qualifiedName, List.of());
+  }
+
+  @Override
+  public String toString() {
+    return "EntityModelIndex[" + byName.size() + " entities]";
+  }
+
+  private static void collect(EntityDescriptor entity, List<EntityDescriptor> all) {
+    all.add(entity);
+    for (EntityDescriptor nested : entity.nestedEntities()) {
+      collect(nested, all);
+    }
+  }
+
+  private static Map<String, List<EntityDescriptor>> immutable(
+      Map<String, List<EntityDescriptor>> grouped) {
+    Map<String, List<EntityDescriptor>> copy = new HashMap<>();
+    grouped.forEach((key, entities) -> copy.put(key, List.copyOf(entities)));
+    return Map.copyOf(copy);
+  }
+}
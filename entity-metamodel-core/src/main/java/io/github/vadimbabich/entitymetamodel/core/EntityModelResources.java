@@ -0,0 +1,49 @@
+package io.github.vadimbabich.entitymetamodel.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How a module's {@link EntityModel} ships inside its artifact: one resource per top-level entity
+ * under {@value #DIRECTORY}, named by qualified name and holding that entity, nested entities
+ * included, in the {@link EntityModelCodec} form. One file per entity is what lets a downstream
+ * frontend load only the entities it references; see {@link ClasspathEntityModels}.
+ */
+public final class EntityModelResources {
+
+  public static final String DIRECTORY = "META-INF/entity-metamodel/";
+
+  public static final String SUFFIX = ".emod";
+
+  private EntityModelResources() {
+  }
+
+  /** The resource a top-level entity ships as, e.g. {@code .../com.example.Vendor.emod}. */
+  public static String resourceName(String qualifiedName) {
+    TypeRef.requireText(qualifiedName, "qualifiedName");
+    return DIRECTORY + qualifiedName + SUFFIX;
+  }
+
+  /** The resources of {@code model} by name, in the model's order, for writers such as a Filer. */
+  public static Map<String, byte[]> encode(EntityModel model) {
+    Map<String, byte[]> resources = new LinkedHashMap<>();
+    for (EntityDescriptor entity : model.entities()) {
+      resources.put(resourceName(entity.qualifiedName()),
+          EntityModelCodec.encode(EntityModel.of(List.of(entity))));
+    }
+    return resources;
+  }
+
+  /** Writes the resources of {@code model} below a class output directory. */
+  public static void write(EntityModel model, Path outputDirectory) throws IOException {
+    for (Map.Entry<String, byte[]> resource : encode(model).entrySet()) {
+      Path file = outputDirectory.resolve(resource.getKey());
+      Files.createDirectories(file.getParent());
+      Files.write(file, resource.getValue());
+    }
+  }
+}
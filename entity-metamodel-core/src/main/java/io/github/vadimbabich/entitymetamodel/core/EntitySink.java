@@ -0,0 +1,26 @@
+package io.github.vadimbabich.entitymetamodel.core;
+
+/**
+ * A generator consuming entities one at a time instead of a materialised {@link EntityModel}, so
+ * per-entity output can be written while the frontend is still reading sources. Top-level
+ * entities arrive once each, in ascending qualified-name order, nested entities inside their
+ * owner; {@link #complete()} follows the last one and is where cross-entity output belongs. An
+ * {@link OrderedEntityFeed} turns a frontend's discovery order into this one.
+ */
+public interface EntitySink {
+
+  /** Receives the next entity; its qualified name sorts after every entity received before. */
+  void accept(EntityDescriptor entity);
+
+  /** Called once after the last entity; nothing is accepted afterwards. */
+  default void complete() {
+  }
+
+  /** Feeds an already materialised model to {@code sink}, for callers that have one. */
+  static void replay(EntityModel model, EntitySink sink) {
+    for (EntityDescriptor entity : model.entities()) {
+      sink.accept(entity);
+    }
+    sink.complete();
+  }
+}
@@ -0,0 +1,83 @@
+package io.github.vadimbabich.entitymetamodel.core;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Delivers entities to an {@link EntitySink} in qualified-name order while a frontend offers them
+ * in whatever order it discovers them. The frontend names its entities up front, which costs a
+ * directory walk rather than a parse; an entity is passed on as soon as every name sorting before
+ * it has been, and only entities that arrive early are held. Not thread-safe: one frontend thread
+ * offers.
+ */
+public final class OrderedEntityFeed {
+
+  private final EntitySink sink;
+  private final TreeSet<String> pending;
+  private final Map<String, EntityDescriptor> early = new HashMap<>();
+  private boolean finished;
+
+  private OrderedEntityFeed(EntitySink sink, TreeSet<String> pending) {
+    this.sink = sink;
+    this.pending = pending;
+  }
+
+  /** A feed expecting exactly the top-level entities {@code qualifiedNames}. */
+  public static OrderedEntityFeed of(Collection<String> qualifiedNames, EntitySink sink) {
+    Objects.requireNonNull(sink, "sink");
+    TreeSet<String> pending = new TreeSet<>();
+    for (String qualifiedName : qualifiedNames) {
+      TypeRef.requireText(qualifiedName, "qualifiedName");
+      pending.add(qualifiedName);
+    }
+    return new OrderedEntityFeed(sink, pending);
+  }
+
+  /**
+   * Offers one entity, passing it and any held entities that now follow in order to the sink.
+   *
+   * @throws IllegalArgumentException if the entity was not named up front or was offered before
+   */
+  public void offer(EntityDescriptor entity) {
+    if (finished) {
+      throw new IllegalStateException("The feed is finished");
+    }
+    String qualifiedName = entity.qualifiedName();
+    if (!pending.contains(qualifiedName) || early.containsKey(qualifiedName)) {
+      throw new IllegalArgumentException("Entity '" + qualifiedName
+          + "' was not expected or was offered twice");
+    }
+
+    early.put(qualifiedName, entity);
+    while (!pending.isEmpty()) {
+      EntityDescriptor next = early.remove(pending.first());
+      if (next == null) {
+        return;
+      }
+      pending.pollFirst();
+      sink.accept(next);
+    }
+  }
+
+  /**
+   * Completes the sink once every named entity has been delivered.
+   *
+   * @throws IllegalStateException naming the first entity that was never offered
+   */
+  public void finish() {
+    if (finished) {
+      throw new IllegalStateException("The feed is finished");
+    }
+    if (!pending.isEmpty()) {
+      // Everything pending but not held was never offered; the first pending name is one of them.
+      int missing = pending.size() - early.size();
+      throw new IllegalStateException("Entity '" + pending.first() + "' was never offered"
+          + (missing > 1 ? ", nor " + (missing - 1) + " more" : ""));
+    }
+    finished = true;
+    sink.complete();
+  }
+}
@@ -33,7 +33,13 @@ public record TypeRef(String qualifiedName, List<TypeRef> typeArguments, int arr
 
   /** Renders the declared type as Java source text, e.g. {@code java.util.List<java.lang.String>}. */
   public String canonical() {
-    StringBuilder rendered = new StringBuilder(qualifiedName);
+    StringBuilder rendered = new StringBuilder();
+    appendCanonical(rendered);
+    return rendered.toString();
+  }
+
+  private void appendCanonical(StringBuilder rendered) {
+    rendered.append(qualifiedName);
 
     if (!typeArguments.isEmpty()) {
       rendered.append('<');
@@ -41,13 +47,14 @@ public record TypeRef(String qualifiedName, List<TypeRef> typeArguments, int arr
         if (i > 0) {
           rendered.append(", ");
         }
-        rendered.append(typeArguments.get(i).canonical());
+        typeArguments.get(i).appendCanonical(rendered);
       }
       rendered.append('>');
     }
 
-    rendered.append("[]".repeat(arrayDimensions));
-    return rendered.toString();
+    for (int i = 0; i < arrayDimensions; i++) {
+      rendered.append("[]");
+    }
   }
 
   static void requireText(String candidate, String what) {
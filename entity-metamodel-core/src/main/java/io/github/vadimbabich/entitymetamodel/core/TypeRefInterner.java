@@ -0,0 +1,78 @@
+package io.github.vadimbabich.entitymetamodel.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One shared {@link TypeRef} per distinct declared type, with its canonical text rendered once.
+ * Frontends route every type they build through one interner, so a model with tens of thousands
+ * of {@code java.lang.String} attributes holds one {@code String} type tree, and type arguments
+ * and qualified names are shared across trees as well. Thread-safe; an interner grows with the
+ * distinct types it has seen and is meant to live as long as the model it builds.
+ */
+public final class TypeRefInterner {
+
+  private final Map<TypeRef, Interned> types = new ConcurrentHashMap<>();
+  private final Map<String, String> names = new ConcurrentHashMap<>();
+
+  /** The shared instance equal to {@code type}, with its type arguments shared too. */
+  public TypeRef intern(TypeRef type) {
+    return interned(type).type();
+  }
+
+  public TypeRef of(String qualifiedName) {
+    return intern(TypeRef.of(qualifiedName));
+  }
+
+  public TypeRef parameterized(String qualifiedName, List<TypeRef> typeArguments) {
+    return intern(TypeRef.parameterized(qualifiedName, typeArguments));
+  }
+
+  public TypeRef array(TypeRef componentType, int dimensions) {
+    return intern(TypeRef.array(componentType, dimensions));
+  }
+
+  /** {@link TypeRef#canonical()}, rendered on the first call for each distinct type. */
+  public String canonical(TypeRef type) {
+    return interned(type).canonical();
+  }
+
+  /** The number of distinct types interned so far. */
+  public int size() {
+    return types.size();
+  }
+
+  private Interned interned(TypeRef type) {
+    Interned known = types.get(type);
+    if (known != null) {
+      return known;
+    }
+
+    List<TypeRef> typeArguments = new ArrayList<>(type.typeArguments().size());
+    StringBuilder canonical = new StringBuilder(type.qualifiedName());
+    if (!type.typeArguments().isEmpty()) {
+      canonical.append('<');
+      for (TypeRef argument : type.typeArguments()) {
+        Interned sharedArgument = interned(argument);
+        if (!typeArguments.isEmpty()) {
+          canonical.append(", ");
+        }
+        typeArguments.add(sharedArgument.type());
+        canonical.append(sharedArgument.canonical());
+      }
+      canonical.append('>');
+    }
+    canonical.append("[]".repeat(type.arrayDimensions()));
+
+    String qualifiedName = names.computeIfAbsent(type.qualifiedName(), name -> name);
+    Interned created = new Interned(
+        new TypeRef(qualifiedName, typeArguments, type.arrayDimensions()), canonical.toString());
+    Interned raced = types.putIfAbsent(created.type(), created);
+    return raced != null ? raced : created;
+  }
+
+  private record Interned(TypeRef type, String canonical) {
+  }
+}
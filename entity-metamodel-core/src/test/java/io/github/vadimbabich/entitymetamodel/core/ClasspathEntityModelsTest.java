@@ -0,0 +1,143 @@
+package io.github.vadimbabich.entitymetamodel.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Upstream models shipped as resources load one entity at a time, on demand, and merge under the
+ * module's own declarations.
+ */
+class ClasspathEntityModelsTest {
+
+  @TempDir
+  Path upstream;
+
+  @Test
+  void writesOneResourcePerTopLevelEntity() throws IOException {
+    EntityModelResources.write(upstreamModel(), upstream);
+
+    assertThat(upstream.resolve("META-INF/entity-metamodel/com.example.Vendor.emod")).exists();
+    assertThat(upstream.resolve("META-INF/entity-metamodel/com.example.Contract.emod")).exists();
+    try (var files = Files.list(upstream.resolve("META-INF/entity-metamodel"))) {
+      assertThat(files).hasSize(2);
+    }
+  }
+
+  @Test
+  void findsShippedEntitiesAndTheirNestedEntities() throws IOException {
+    EntityModelResources.write(upstreamModel(), upstream);
+
+    try (URLClassLoader loader = loaderOf(upstream)) {
+      ClasspathEntityModels models = ClasspathEntityModels.of(loader);
+
+      assertThat(models.find("com.example.Vendor")).contains(vendor());
+      assertThat(models.find("com.example.Vendor.PermissionView"))
+          .contains(vendor().nestedEntities().get(0));
+      assertThat(models.find("com.example.Missing")).isEmpty();
+    }
+  }
+
+  @Test
+  void looksUpOnlyWhatIsReferenced() throws IOException {
+    EntityModelResources.write(upstreamModel(), upstream);
+
+    try (URLClassLoader loader = loaderOf(upstream)) {
+      RecordingLoader recording = new RecordingLoader(loader);
+      ClasspathEntityModels models = ClasspathEntityModels.of(recording);
+
+      models.find("com.example.Vendor");
+      models.find("com.example.Vendor");
+
+      assertThat(recording.requested)
+          .containsExactly("META-INF/entity-metamodel/com.example.Vendor.emod");
+    }
+  }
+
+  @Test
+  void mergesReferencedEntitiesUnderLocalDeclarations() throws IOException {
+    EntityModelResources.write(upstreamModel(), upstream);
+    EntityDescriptor localContract = EntityDescriptor.builder("com.example.Contract",
+            TypeKind.RECORD)
+        .tableName("local_contracts")
+        .build();
+    EntityDescriptor invoice = entity("com.example.Invoice", "invoices");
+
+    try (URLClassLoader loader = loaderOf(upstream)) {
+      EntityModel merged = ClasspathEntityModels.of(loader).merge(
+          EntityModel.of(List.of(invoice, localContract)),
+          List.of("com.example.Contract", "com.example.Vendor.PermissionView",
+              "com.example.Missing"));
+
+      assertThat(merged.entities()).containsExactly(localContract, invoice, vendor());
+    }
+  }
+
+  @Test
+  void rejectsDifferentModelsOfOneEntity(@TempDir Path other) throws IOException {
+    EntityModelResources.write(upstreamModel(), upstream);
+    EntityModelResources.write(
+        EntityModel.of(List.of(entity("com.example.Contract", "agreements"))), other);
+
+    try (URLClassLoader loader = loaderOf(upstream, other)) {
+      ClasspathEntityModels models = ClasspathEntityModels.of(loader);
+
+      assertThatIllegalStateException()
+          .isThrownBy(() -> models.find("com.example.Contract"))
+          .withMessageContaining("'com.example.Contract' is shipped with different models");
+    }
+  }
+
+  private static EntityModel upstreamModel() {
+    return EntityModel.of(List.of(vendor(), entity("com.example.Contract", "contracts")));
+  }
+
+  private static EntityDescriptor vendor() {
+    return EntityDescriptor.builder("com.example.Vendor", TypeKind.CLASS)
+        .tableName("vendors")
+        .attribute(AttributeDescriptor.of("id", TypeRef.of("java.lang.Long"), true, List.of()))
+        .nestedEntity(entity("com.example.Vendor.PermissionView", "vendor_permissions"))
+        .build();
+  }
+
+  private static EntityDescriptor entity(String qualifiedName, String tableName) {
+    return EntityDescriptor.builder(qualifiedName, TypeKind.CLASS)
+        .tableName(tableName)
+        .build();
+  }
+
+  private static URLClassLoader loaderOf(Path... directories) throws IOException {
+    URL[] urls = new URL[directories.length];
+    for (int i = 0; i < directories.length; i++) {
+      urls[i] = directories[i].toUri().toURL();
+    }
+    return new URLClassLoader(urls, null);
+  }
+
+  private static final class RecordingLoader extends ClassLoader {
+
+    private final List<String> requested = new ArrayList<>();
+    private final ClassLoader delegate;
+
+    private RecordingLoader(ClassLoader delegate) {
+      super(null);
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Enumeration<URL> getResources(String name) throws IOException {
+      requested.add(name);
+      return delegate.getResources(name);
+    }
+  }
+}
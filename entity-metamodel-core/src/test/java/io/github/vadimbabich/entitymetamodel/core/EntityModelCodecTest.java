@@ -0,0 +1,162 @@
+package io.github.vadimbabich.entitymetamodel.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * A model survives the binary form unchanged from every kind of buffer, stores each name once,
+ * encodes deterministically, and refuses bytes it cannot vouch for.
+ */
+class EntityModelCodecTest {
+
+  private static final String LONG = "java.lang.Long";
+  private static final String COLUMN = "org.springframework.data.relational.core.mapping.Column";
+
+  @Test
+  void roundTripsEveryPartOfTheModel() {
+    EntityModel model = model();
+
+    assertThat(EntityModelCodec.decode(ByteBuffer.wrap(EntityModelCodec.encode(model))))
+        .isEqualTo(model);
+  }
+
+  @Test
+  void readsFromDirectAndReadOnlyBuffers() {
+    byte[] encoded = EntityModelCodec.encode(model());
+    ByteBuffer direct = ByteBuffer.allocateDirect(encoded.length).put(encoded).flip();
+
+    assertThat(EntityModelCodec.decode(direct)).isEqualTo(model());
+    assertThat(EntityModelCodec.decode(ByteBuffer.wrap(encoded).asReadOnlyBuffer()))
+        .isEqualTo(model());
+  }
+
+  @Test
+  void readsModelsWrittenBackToBackFromAMappedFile(@TempDir Path directory) throws IOException {
+    EntityModel other = EntityModel.of(List.of(EntityDescriptor.builder(
+        "com.example.Zebra", TypeKind.RECORD).build()));
+    Path file = directory.resolve("models.bin");
+    Files.write(file, concat(EntityModelCodec.encode(model()), EntityModelCodec.encode(other)));
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      assertThat(EntityModelCodec.decode(mapped)).isEqualTo(model());
+      assertThat(EntityModelCodec.decode(mapped)).isEqualTo(other);
+      assertThat(mapped.hasRemaining()).isFalse();
+    }
+  }
+
+  @Test
+  void writesEachSharedNameOnce() {
+    String encoded = new String(EntityModelCodec.encode(model()), StandardCharsets.ISO_8859_1);
+
+    assertThat(encoded.split(LONG.replace(".", "\\."), -1)).hasSize(2);
+    assertThat(encoded.split(COLUMN.replace(".", "\\."), -1)).hasSize(2);
+  }
+
+  @Test
+  void equalModelsEncodeToEqualBytes() {
+    Map<String, String> forward = new LinkedHashMap<>();
+    forward.put("value", "\"amount\"");
+    forward.put("name", "\"amount\"");
+    Map<String, String> backward = new LinkedHashMap<>();
+    backward.put("name", "\"amount\"");
+    backward.put("value", "\"amount\"");
+
+    assertThat(EntityModelCodec.encode(withColumnValues(forward)))
+        .isEqualTo(EntityModelCodec.encode(withColumnValues(backward)));
+  }
+
+  @Test
+  void rejectsForeignBytes() {
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> EntityModelCodec.decode(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5})))
+        .withMessageContaining("Not an entity model");
+  }
+
+  @Test
+  void rejectsAnotherFormatVersion() {
+    byte[] encoded = EntityModelCodec.encode(model());
+    encoded[4] = (byte) (EntityModelCodec.FORMAT_VERSION + 1);
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> EntityModelCodec.decode(ByteBuffer.wrap(encoded)))
+        .withMessageContaining("format version " + (EntityModelCodec.FORMAT_VERSION + 1));
+  }
+
+  @Test
+  void rejectsTruncatedInput() {
+    byte[] encoded = EntityModelCodec.encode(model());
+
+    for (int length : new int[] {3, 6, encoded.length / 2, encoded.length - 1}) {
+      ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(encoded, length));
+
+      assertThatIllegalArgumentException()
+          .isThrownBy(() -> EntityModelCodec.decode(truncated))
+          .withMessageContaining("Malformed entity model");
+    }
+  }
+
+  private static EntityModel model() {
+    AttributeDescriptor id = AttributeDescriptor.of("id", TypeRef.of(LONG), true,
+        List.of(AnnotationFact.of("org.springframework.data.annotation.Id", Map.of())));
+    AttributeDescriptor vendorId = AttributeDescriptor.of("vendorId", TypeRef.of(LONG), false,
+        List.of(AnnotationFact.of(COLUMN, Map.of("value", "\"vendor_id\""))));
+    AttributeDescriptor tags = AttributeDescriptor.of("tags",
+        TypeRef.parameterized("java.util.Map", List.of(TypeRef.of("java.lang.String"),
+            TypeRef.array(TypeRef.of("int"), 2))), false, List.of());
+    AttributeDescriptor untyped = AttributeDescriptor.of("légacy", null, false, List.of());
+
+    EntityDescriptor permissions =
+        EntityDescriptor.builder("com.example.Vendor.PermissionView", TypeKind.RECORD)
+            .tableName("vendor_permissions")
+            .attribute(AttributeDescriptor.of("vendorId", TypeRef.of(LONG), false,
+                List.of(AnnotationFact.of(COLUMN, Map.of("value", "\"vendor_id\"")))))
+            .build();
+    EntityDescriptor vendor = EntityDescriptor.builder("com.example.Vendor", TypeKind.CLASS)
+        .tableName("vendors")
+        .attribute(id)
+        .attribute(tags)
+        .attribute(untyped)
+        .superType(SuperTypeContribution.of("com.example.Audited", List.of(
+            AttributeDescriptor.of("createdBy", TypeRef.of("java.lang.String"), false,
+                List.of()))))
+        .nestedEntity(permissions)
+        .build();
+    EntityDescriptor contract = EntityDescriptor.builder("com.example.Contract", TypeKind.CLASS)
+        .tableName(null)
+        .attribute(id)
+        .attribute(vendorId)
+        .build();
+
+    return EntityModel.of(List.of(vendor, contract));
+  }
+
+  private static EntityModel withColumnValues(Map<String, String> values) {
+    return EntityModel.of(List.of(EntityDescriptor.builder("com.example.Payment", TypeKind.RECORD)
+        .attribute(AttributeDescriptor.of("amount", TypeRef.of("java.math.BigDecimal"), false,
+            List.of(AnnotationFact.of(COLUMN, values))))
+        .build()));
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    byte[] both = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, both, first.length, second.length);
+    return both;
+  }
+}
@@ -0,0 +1,87 @@
+package io.github.vadimbabich.entitymetamodel.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Lookups by name, table and supertype answer what a scan of the model would, nested entities
+ * included, in the model's order.
+ */
+class EntityModelIndexTest {
+
+  private final SuperTypeContribution auditable =
+      SuperTypeContribution.of("com.example.Auditable", List.of());
+  private final SuperTypeContribution document =
+      SuperTypeContribution.of("com.example.Document", List.of());
+
+  private final EntityDescriptor permissions = entity("com.example.Vendor.PermissionView",
+      "vendor_permissions");
+  private final EntityDescriptor vendor = EntityDescriptor.builder("com.example.Vendor",
+          TypeKind.CLASS)
+      .tableName("vendors")
+      .superType(auditable)
+      .nestedEntity(permissions)
+      .build();
+  private final EntityDescriptor invoice = EntityDescriptor.builder("com.example.Invoice",
+          TypeKind.CLASS)
+      .tableName("documents")
+      .superType(document)
+      .superType(auditable)
+      .build();
+  private final EntityDescriptor receipt = EntityDescriptor.builder("com.example.Receipt",
+          TypeKind.RECORD)
+      .tableName("documents")
+      .superType(document)
+      .build();
+
+  private final EntityModelIndex index =
+      EntityModelIndex.of(EntityModel.of(List.of(vendor, receipt, invoice)));
+
+  @Test
+  void findsTopLevelAndNestedEntitiesByQualifiedName() {
+    assertThat(index.entity("com.example.Vendor")).contains(vendor);
+    assertThat(index.entity("com.example.Vendor.PermissionView")).contains(permissions);
+    assertThat(index.entity("com.example.Missing")).isEmpty();
+  }
+
+  @Test
+  void groupsEntitiesByDeclaredTable() {
+    assertThat(index.mappedTo("documents")).containsExactly(invoice, receipt);
+    assertThat(index.mappedTo("vendor_permissions")).containsExactly(permissions);
+    assertThat(index.mappedTo("DOCUMENTS")).isEmpty();
+  }
+
+  @Test
+  void reverseIndexesSupertypes() {
+    assertThat(index.subtypesOf("com.example.Auditable")).containsExactly(invoice, vendor);
+    assertThat(index.subtypesOf("com.example.Document")).containsExactly(invoice, receipt);
+    assertThat(index.subtypesOf("com.example.Vendor")).isEmpty();
+  }
+
+  @Test
+  void entitiesWithoutATableAreNotIndexedByTable() {
+    EntityModelIndex untabled = EntityModelIndex.of(EntityModel.of(List.of(
+        EntityDescriptor.builder("com.example.Draft", TypeKind.CLASS).build())));
+
+    assertThat(untabled.mappedTo("")).isEmpty();
+    assertThat(untabled.entity("com.example.Draft")).isPresent();
+  }
+
+  @Test
+  void rejectsDuplicateQualifiedNames() {
+    EntityModel duplicated = EntityModel.of(List.of(vendor, entity("com.example.Vendor", "v2")));
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> EntityModelIndex.of(duplicated))
+        .withMessageContaining("'com.example.Vendor' is declared more than once");
+  }
+
+  private static EntityDescriptor entity(String qualifiedName, String tableName) {
+    return EntityDescriptor.builder(qualifiedName, TypeKind.CLASS)
+        .tableName(tableName)
+        .build();
+  }
+}
@@ -0,0 +1,88 @@
+package io.github.vadimbabich.entitymetamodel.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Sinks see entities in qualified-name order whatever the discovery order, each as soon as its
+ * predecessors have gone, and the final phase only after the last one.
+ */
+class OrderedEntityFeedTest {
+
+  private final RecordingSink sink = new RecordingSink();
+
+  @Test
+  void deliversInNameOrderAsSoonAsThePredecessorsArrive() {
+    OrderedEntityFeed feed = OrderedEntityFeed.of(
+        List.of("com.example.Apple", "com.example.Mango", "com.example.Zebra"), sink);
+
+    feed.offer(entity("com.example.Mango"));
+    assertThat(sink.events).isEmpty();
+
+    feed.offer(entity("com.example.Apple"));
+    assertThat(sink.events).containsExactly("com.example.Apple", "com.example.Mango");
+
+    feed.offer(entity("com.example.Zebra"));
+    feed.finish();
+    assertThat(sink.events)
+        .containsExactly("com.example.Apple", "com.example.Mango", "com.example.Zebra", "complete");
+  }
+
+  @Test
+  void replayFeedsAMaterialisedModelTheSameWay() {
+    EntitySink.replay(EntityModel.of(List.of(entity("com.example.Zebra"),
+        entity("com.example.Apple"))), sink);
+
+    assertThat(sink.events).containsExactly("com.example.Apple", "com.example.Zebra", "complete");
+  }
+
+  @Test
+  void rejectsEntitiesThatWereNotNamedOrAreOfferedTwice() {
+    OrderedEntityFeed feed = OrderedEntityFeed.of(
+        List.of("com.example.Apple", "com.example.Mango"), sink);
+    feed.offer(entity("com.example.Mango"));
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> feed.offer(entity("com.example.Kiwi")))
+        .withMessageContaining("'com.example.Kiwi' was not expected");
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> feed.offer(entity("com.example.Mango")))
+        .withMessageContaining("offered twice");
+  }
+
+  @Test
+  void refusesToCompleteWhileEntitiesAreMissing() {
+    OrderedEntityFeed feed = OrderedEntityFeed.of(
+        List.of("com.example.Apple", "com.example.Mango", "com.example.Zebra"), sink);
+    feed.offer(entity("com.example.Zebra"));
+
+    assertThatIllegalStateException()
+        .isThrownBy(feed::finish)
+        .withMessage("Entity 'com.example.Apple' was never offered, nor 1 more");
+    assertThat(sink.events).isEmpty();
+  }
+
+  private static EntityDescriptor entity(String qualifiedName) {
+    return EntityDescriptor.builder(qualifiedName, TypeKind.CLASS).build();
+  }
+
+  private static final class RecordingSink implements EntitySink {
+
+    private final List<String> events = new ArrayList<>();
+
+    @Override
+    public void accept(EntityDescriptor entity) {
+      events.add(entity.qualifiedName());
+    }
+
+    @Override
+    public void complete() {
+      events.add("complete");
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package io.github.vadimbabich.entitymetamodel.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Equal declared types collapse to one instance, down to their type arguments and names, and
+ * render the same canonical text as {@link TypeRef#canonical()}.
+ */
+class TypeRefInternerTest {
+
+  private final TypeRefInterner interner = new TypeRefInterner();
+
+  @Test
+  void equalTypesShareOneInstance() {
+    TypeRef first = interner.of(new String("java.lang.String"));
+    TypeRef second = interner.of(new String("java.lang.String"));
+
+    assertThat(second).isSameAs(first);
+    assertThat(interner.size()).isEqualTo(1);
+  }
+
+  @Test
+  void typeArgumentsAreSharedAcrossTrees() {
+    TypeRef listOfString = interner.parameterized("java.util.List",
+        List.of(TypeRef.of("java.lang.String")));
+    TypeRef mapOfStringToLong = interner.parameterized("java.util.Map",
+        List.of(TypeRef.of("java.lang.String"), TypeRef.of("java.lang.Long")));
+
+    assertThat(mapOfStringToLong.typeArguments().get(0))
+        .isSameAs(listOfString.typeArguments().get(0))
+        .isSameAs(interner.of("java.lang.String"));
+    assertThat(interner.size()).isEqualTo(4);
+  }
+
+  @Test
+  void canonicalTextMatchesTheRecordsRendering() {
+    TypeRef nested = TypeRef.array(TypeRef.parameterized("java.util.Map", List.of(
+        TypeRef.of("java.lang.String"),
+        TypeRef.parameterized("java.util.List", List.of(TypeRef.array(TypeRef.of("int"), 2))))),
+        1);
+
+    assertThat(interner.canonical(nested))
+        .isEqualTo(nested.canonical())
+        .isEqualTo("java.util.Map<java.lang.String, java.util.List<int[][]>>[]")
+        .isSameAs(interner.canonical(nested));
+  }
+
+  @Test
+  void modelsDecodedWithOneInternerShareTheirTypes() {
+    EntityModel model = EntityModel.of(List.of(
+        EntityDescriptor.builder("com.example.Account", TypeKind.CLASS)
+            .attribute(AttributeDescriptor.of("id", TypeRef.of("java.lang.Long"), true, List.of()))
+            .build(),
+        EntityDescriptor.builder("com.example.Payment", TypeKind.RECORD)
+            .attribute(AttributeDescriptor.of("accountId", TypeRef.of("java.lang.Long"), false,
+                List.of()))
+            .build()));
+    byte[] encoded = EntityModelCodec.encode(model);
+
+    EntityModel first = EntityModelCodec.decode(ByteBuffer.wrap(encoded), interner);
+    EntityModel second = EntityModelCodec.decode(ByteBuffer.wrap(encoded), interner);
+
+    assertThat(second.entities().get(1).attributes().get(0).declaredType())
+        .isSameAs(first.entities().get(0).attributes().get(0).declaredType());
+  }
+}
@@ -0,0 +1,9 @@
+package com.example.crm;
+
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("customers")
+public class Customer extends AuditedEntity {
+
+  private String name;
+}
@@ -0,0 +1,13 @@
+package com.example.crm;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("suppliers")
+public class Supplier {
+
+  @Id
+  private Long id;
+
+  private String name;
+}
@@ -0,0 +1,21 @@
+package com.example.library;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+
+public abstract class VersionedEntity {
+
+  @Id
+  private Long id;
+
+  @Column("row_version")
+  private long version;
+
+  public Long getId() {
+    return id;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+}
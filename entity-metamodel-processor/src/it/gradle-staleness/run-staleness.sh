@@ -0,0 +1,136 @@
+#!/usr/bin/env bash
+# Staleness experiment for the production processor under its shipped isolating registration.
+# Executes the pre-registered scenario from expected-outcomes.md: a control run plus three
+# mutations of the supertypes of Customer, each from a pristine fixture state, with the
+# incremental rebuild never preceded by a clean.
+#
+# Prerequisite: `mvn -B install -pl entity-metamodel-processor -am` from the repository root, so
+# that mavenLocal holds the processor and runtime under test.
+#
+# Environment:
+#   GRADLE_BIN  path to a gradle launcher (default: gradle on PATH)
+set -uo pipefail
+cd "$(dirname "$0")"
+
+GRADLE_BIN="${GRADLE_BIN:-gradle}"
+GRADLE_ARGS=(--console=plain --info --offline)
+
+RESULTS_DIR="results"
+mkdir -p "${RESULTS_DIR}"
+OUT="${RESULTS_DIR}/isolating.txt"
+
+generated() {
+  find app/build/generated -name "$1_.java" 2>/dev/null | head -1
+}
+
+restore_pristine() {
+  rm -rf library/src app/src
+  mkdir -p library/src/main/java app/src/main/java
+  cp -R pristine/library/. library/src/main/java/
+  cp -R pristine/app/. app/src/main/java/
+}
+
+# Portable in-place edit: GNU and BSD sed disagree on -i.
+edit() {
+  local expression="$1" file="$2"
+  sed -e "${expression}" "${file}" >"${file}.edited" && mv "${file}.edited" "${file}"
+}
+
+full_build() {
+  "${GRADLE_BIN}" "${GRADLE_ARGS[@]}" clean :app:compileJava >"$1" 2>&1
+}
+
+incremental_build() {
+  # Gradle compares file hashes, but a marker older than every output tells rewritten files apart.
+  touch "${RESULTS_DIR}/.marker"
+  sleep 1
+  "${GRADLE_BIN}" "${GRADLE_ARGS[@]}" :app:compileJava >"$1" 2>&1
+}
+
+rewritten() {
+  local file; file=$(generated "$1")
+  if [[ -z "${file}" ]]; then
+    echo "ABSENT"
+  elif [[ -n "$(find "${file}" -newer "${RESULTS_DIR}/.marker")" ]]; then
+    echo "yes"
+  else
+    echo "no"
+  fi
+}
+
+# label, exit code, log, then the grep pattern Customer_ must contain if it is up to date.
+record() {
+  local label="$1" exit_code="$2" log="$3" expected="$4"
+  local customer content notes=""
+
+  customer=$(generated Customer)
+  if [[ -z "${customer}" ]]; then
+    content="Customer_ ABSENT"
+  elif grep -q -- "${expected}" "${customer}"; then
+    content="Customer_ current"
+  else
+    content="Customer_ STALE"
+  fi
+
+  if grep -q "not incremental" "${log}"; then
+    notes=" [processor flagged NOT incremental]"
+  fi
+  if grep -q "Full recompilation is required" "${log}"; then
+    notes="${notes} [full recompilation]"
+  fi
+
+  echo "${label} | exit=${exit_code} | Customer_ rewritten=$(rewritten Customer)" \
+    "| Supplier_ rewritten=$(rewritten Supplier) | ${content}${notes}"
+}
+
+: >"${OUT}"
+echo "### category=isolating · gradle=$("${GRADLE_BIN}" --version 2>/dev/null \
+  | awk '/^Gradle/{print $2}')" >>"${OUT}"
+
+# Control (validity guard): a comment-only change to Supplier must reprocess Supplier alone.
+restore_pristine
+full_build "${RESULTS_DIR}/control-full.log"
+echo "// control touch" >> app/src/main/java/com/example/crm/Supplier.java
+incremental_build "${RESULTS_DIR}/control-incr.log"; rc=$?
+record "control(touch Supplier)" "${rc}" "${RESULTS_DIR}/control-incr.log" "VERSION =" >>"${OUT}"
+if grep -q "Incremental compilation of" "${RESULTS_DIR}/control-incr.log"; then
+  echo "control: incremental compilation ENGAGED" >>"${OUT}"
+else
+  echo "control: incremental compilation NOT CONFIRMED — check log" >>"${OUT}"
+fi
+
+# Mutation (a): add a column to AuditedEntity, a supertype compiled from source in :app.
+restore_pristine
+full_build "${RESULTS_DIR}/a-full.log"
+edit 's/  private Instant createdAt;/  private Instant createdAt;\
+\
+  @Column("updated_at")\
+  private Instant updatedAt;/' app/src/main/java/com/example/crm/AuditedEntity.java
+incremental_build "${RESULTS_DIR}/a-incr.log"; rc=$?
+record "(a) add column to source supertype" "${rc}" "${RESULTS_DIR}/a-incr.log" "UPDATED_AT =" \
+  >>"${OUT}"
+
+# Mutation (b): change a column type in VersionedEntity, a supertype :app sees as a class file,
+# together with its accessor, as a real change to a mapped superclass would.
+restore_pristine
+full_build "${RESULTS_DIR}/b-full.log"
+edit 's/long version/int version/; s/public long getVersion/public int getVersion/' \
+  library/src/main/java/com/example/library/VersionedEntity.java
+incremental_build "${RESULTS_DIR}/b-incr.log"; rc=$?
+record "(b) class-file supertype long->int" "${rc}" "${RESULTS_DIR}/b-incr.log" \
+  '"version", int.class' >>"${OUT}"
+
+# Mutation (c): rename the private @Id field of the class-file supertype, accessor untouched.
+restore_pristine
+full_build "${RESULTS_DIR}/c-full.log"
+edit 's/private Long id;/private Long key;/; s/return id;/return key;/' \
+  library/src/main/java/com/example/library/VersionedEntity.java
+incremental_build "${RESULTS_DIR}/c-incr.log"; rc=$?
+record "(c) rename private field of class-file supertype" "${rc}" "${RESULTS_DIR}/c-incr.log" \
+  '"key", java.lang.Long.class' >>"${OUT}"
+if grep -q "Task :app:compileJava UP-TO-DATE" "${RESULTS_DIR}/c-incr.log"; then
+  echo "(c): :app:compileJava UP-TO-DATE — the change is outside the library's ABI" >>"${OUT}"
+fi
+
+echo "--- done; results in ${OUT}"
+cat "${OUT}"
@@ -0,0 +1,294 @@
+package io.github.vadimbabich.entitymetamodel.processor;
+
+import io.github.vadimbabich.entitymetamodel.core.AnnotationFact;
+import io.github.vadimbabich.entitymetamodel.core.AttributeDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.EntityDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.SuperTypeContribution;
+import io.github.vadimbabich.entitymetamodel.core.TypeKind;
+import io.github.vadimbabich.entitymetamodel.core.TypeRef;
+import io.github.vadimbabich.entitymetamodel.core.TypeRefInterner;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+
+/**
+ * Builds an {@link EntityDescriptor} from javac's elements, the processor's frontend. It records
+ * what the source declares and decides nothing: every persistent field becomes an attribute with
+ * its exact declared type and annotation literals, and which ones a metamodel exposes is the
+ * renderer's call.
+ *
+ * <p>Supertypes are read through the type hierarchy javac already resolved, whether a supertype
+ * was compiled from source in this round or loaded from a class file on the classpath, and each
+ * is recorded as a {@link SuperTypeContribution}. Nothing outside the entity's own hierarchy is
+ * consulted, which is what keeps the processor isolating: a build tool that recompiles a subclass
+ * when its superclass changes, as Gradle does, reprocesses exactly the entities affected.
+ */
+final class ElementModelReader {
+
+  static final String TABLE = "org.springframework.data.relational.core.mapping.Table";
+  static final String ID = "org.springframework.data.annotation.Id";
+
+  private final Types typeUtils;
+  private final TypeRefInterner types;
+
+  ElementModelReader(Types typeUtils, TypeRefInterner types) {
+    this.typeUtils = typeUtils;
+    this.types = types;
+  }
+
+  /**
+   * The entity with its attributes in declaration order, one contribution per superclass nearest
+   * first, and its nested {@code @Table} types. Superclasses are read up to the first that does not
+   * resolve, so a broken hierarchy costs the inherited attributes beyond it and nothing else.
+   */
+  EntityDescriptor read(TypeElement entity) {
+    TypeKind kind = entity.getKind() == ElementKind.RECORD ? TypeKind.RECORD : TypeKind.CLASS;
+    EntityDescriptor.Builder descriptor =
+        EntityDescriptor.builder(entity.getQualifiedName().toString(), kind)
+            .tableName(tableName(entity));
+
+    for (VariableElement field : persistentFields(entity)) {
+      descriptor.attribute(attribute(field, entity, field.asType()));
+    }
+    for (SuperTypeContribution contribution : hierarchy(entity).resolved()) {
+      descriptor.superType(contribution);
+    }
+    for (TypeElement nested : ElementFilter.typesIn(entity.getEnclosedElements())) {
+      if (isEntity(nested)) {
+        descriptor.nestedEntity(read(nested));
+      }
+    }
+    return descriptor.build();
+  }
+
+  static boolean isEntity(Element element) {
+    return (element.getKind() == ElementKind.CLASS || element.getKind() == ElementKind.RECORD)
+        && annotation(element, TABLE) != null;
+  }
+
+  static AnnotationMirror annotation(Element element, String qualifiedName) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      if (annotationName(mirror).equals(qualifiedName)) {
+        return mirror;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Whether every persistent attribute the entity and its nested entities declare has a resolved
+   * type. Inside an IDE, sources are routinely broken; an attribute javac could not resolve is an
+   * {@code ERROR} type, and a metamodel constant typed from it would not compile.
+   */
+  boolean ownAttributesResolve(TypeElement entity) {
+    for (VariableElement field : persistentFields(entity)) {
+      if (!resolves(field.asType())) {
+        return false;
+      }
+    }
+    for (TypeElement nested : ElementFilter.typesIn(entity.getEnclosedElements())) {
+      if (isEntity(nested) && !ownAttributesResolve(nested)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Whether the superclasses of the entity and its nested entities, attributes too, resolve. */
+  boolean hierarchyResolves(TypeElement entity) {
+    if (!hierarchy(entity).complete()) {
+      return false;
+    }
+    for (TypeElement nested : ElementFilter.typesIn(entity.getEnclosedElements())) {
+      if (isEntity(nested) && !hierarchyResolves(nested)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private record Hierarchy(List<SuperTypeContribution> resolved, boolean complete) {
+  }
+
+  // directSupertypes, unlike TypeElement.getSuperclass(), substitutes the subtype's type arguments
+  // all the way up, so Base<T> seen from Account extends Base<Long> has Long fields.
+  private Hierarchy hierarchy(TypeElement entity) {
+    List<SuperTypeContribution> contributions = new ArrayList<>();
+    TypeElement type = entity;
+    TypeMirror current = entity.asType();
+    while (true) {
+      if (type.getSuperclass().getKind() == javax.lang.model.type.TypeKind.ERROR) {
+        return new Hierarchy(contributions, false);
+      }
+      List<? extends TypeMirror> supertypes = typeUtils.directSupertypes(current);
+      if (supertypes.isEmpty()
+          || supertypes.get(0).getKind() != javax.lang.model.type.TypeKind.DECLARED) {
+        return new Hierarchy(contributions, true);
+      }
+      DeclaredType superclass = (DeclaredType) supertypes.get(0);
+      type = (TypeElement) superclass.asElement();
+      if (type.getKind() != ElementKind.CLASS
+          || type.getQualifiedName().contentEquals("java.lang.Object")) {
+        return new Hierarchy(contributions, true);
+      }
+
+      List<AttributeDescriptor> attributes = new ArrayList<>();
+      for (VariableElement field : persistentFields(type)) {
+        TypeMirror fieldType = typeUtils.asMemberOf(superclass, field);
+        if (!resolves(fieldType)) {
+          return new Hierarchy(contributions, false);
+        }
+        attributes.add(attribute(field, type, fieldType));
+      }
+      contributions.add(SuperTypeContribution.of(type.getQualifiedName().toString(), attributes));
+      current = superclass;
+    }
+  }
+
+  private static boolean resolves(TypeMirror type) {
+    switch (type.getKind()) {
+      case ERROR:
+        return false;
+      case ARRAY:
+        return resolves(((ArrayType) type).getComponentType());
+      case DECLARED:
+        for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+          if (!resolves(argument)) {
+            return false;
+          }
+        }
+        return true;
+      case WILDCARD: {
+        WildcardType wildcard = (WildcardType) type;
+        return (wildcard.getExtendsBound() == null || resolves(wildcard.getExtendsBound()))
+            && (wildcard.getSuperBound() == null || resolves(wildcard.getSuperBound()));
+      }
+      default:
+        return true;
+    }
+  }
+
+  // A record's state is its components, in component order. Spring's mapping annotations target
+  // fields, so javac propagates them from the component to the private field read here.
+  private static List<VariableElement> persistentFields(TypeElement entity) {
+    Map<String, VariableElement> fields = new LinkedHashMap<>();
+    for (VariableElement field : ElementFilter.fieldsIn(entity.getEnclosedElements())) {
+      if (!field.getModifiers().contains(Modifier.STATIC)
+          && !field.getModifiers().contains(Modifier.TRANSIENT)) {
+        fields.put(field.getSimpleName().toString(), field);
+      }
+    }
+    if (entity.getKind() != ElementKind.RECORD) {
+      return List.copyOf(fields.values());
+    }
+
+    List<VariableElement> components = new ArrayList<>();
+    for (RecordComponentElement component : entity.getRecordComponents()) {
+      VariableElement field = fields.get(component.getSimpleName().toString());
+      if (field != null) {
+        components.add(field);
+      }
+    }
+    return components;
+  }
+
+  private AttributeDescriptor attribute(VariableElement field, TypeElement owner, TypeMirror type) {
+    List<AnnotationFact> annotations = new ArrayList<>();
+    for (AnnotationMirror mirror : annotationsOf(field, owner)) {
+      annotations.add(AnnotationFact.of(annotationName(mirror), declaredValues(mirror)));
+    }
+    return AttributeDescriptor.of(field.getSimpleName().toString(), type(type),
+        annotation(field, ID) != null, annotations);
+  }
+
+  // Annotations that target record components only stay on the component; the rest are on the
+  // field. Both are declared once in source, so both count, the field's first.
+  private static List<AnnotationMirror> annotationsOf(VariableElement field, TypeElement entity) {
+    List<AnnotationMirror> mirrors = new ArrayList<>(field.getAnnotationMirrors());
+    if (entity.getKind() == ElementKind.RECORD) {
+      for (RecordComponentElement component : entity.getRecordComponents()) {
+        if (component.getSimpleName().equals(field.getSimpleName())) {
+          for (AnnotationMirror mirror : component.getAnnotationMirrors()) {
+            if (annotation(field, annotationName(mirror)) == null) {
+              mirrors.add(mirror);
+            }
+          }
+        }
+      }
+    }
+    return mirrors;
+  }
+
+  private TypeRef type(TypeMirror mirror) {
+    switch (mirror.getKind()) {
+      case ARRAY: {
+        int dimensions = 0;
+        TypeMirror component = mirror;
+        while (component.getKind() == javax.lang.model.type.TypeKind.ARRAY) {
+          dimensions++;
+          component = ((ArrayType) component).getComponentType();
+        }
+        return types.array(type(component), dimensions);
+      }
+      case DECLARED: {
+        DeclaredType declared = (DeclaredType) mirror;
+        List<TypeRef> typeArguments = new ArrayList<>();
+        for (TypeMirror argument : declared.getTypeArguments()) {
+          typeArguments.add(type(argument));
+        }
+        String qualifiedName =
+            ((TypeElement) declared.asElement()).getQualifiedName().toString();
+        return types.parameterized(qualifiedName, typeArguments);
+      }
+      case TYPEVAR:
+        // A metamodel is static; an entity's type variable can only be named by its erasure.
+        return type(typeUtils.erasure(mirror));
+      default:
+        // Primitives and wildcards, whose source text is their name.
+        return types.of(mirror.toString());
+    }
+  }
+
+  private static String tableName(TypeElement entity) {
+    AnnotationMirror table = annotation(entity, TABLE);
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+        : table.getElementValues().entrySet()) {
+      String attribute = value.getKey().getSimpleName().toString();
+      if ((attribute.equals("value") || attribute.equals("name"))
+          && value.getValue().getValue() instanceof String declared && !declared.isEmpty()) {
+        return declared;
+      }
+    }
+    return "";
+  }
+
+  private static Map<String, String> declaredValues(AnnotationMirror mirror) {
+    Map<String, String> values = new HashMap<>();
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+        : mirror.getElementValues().entrySet()) {
+      values.put(value.getKey().getSimpleName().toString(), value.getValue().toString());
+    }
+    return values;
+  }
+
+  private static String annotationName(AnnotationMirror mirror) {
+    return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+  }
+}
@@ -0,0 +1,294 @@
+package io.github.vadimbabich.entitymetamodel.processor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import io.github.vadimbabich.entitymetamodel.core.EntityDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.EntityModel;
+import io.github.vadimbabich.entitymetamodel.core.EntityModelResources;
+import io.github.vadimbabich.entitymetamodel.core.TypeRefInterner;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates entity metamodels from javac's own view of the sources, so nothing is parsed twice.
+ * For every {@code @Table} type not directly nested in another, with the entities nested in it, it
+ * writes the metamodel source {@code <Entity>_} and the entity's shipped model resource (see
+ * {@link EntityModelResources}). By default a Gradle isolating processor: each output names
+ * as its only originating element the one type it describes, and is derived from that type and
+ * its superclasses alone. A subclass's class file references its superclass, so an incremental
+ * build reprocesses exactly the entities that changed and the subclasses of those that did.
+ *
+ * <p>Inside an IDE the sources are usually broken somewhere. An entity whose attributes and
+ * superclasses resolve gets its metamodel in the round it is first seen, whatever else fails to
+ * compile, so its constants keep up with the editor. An entity that depends on an unresolved type
+ * waits at most {@value #MAX_DEFERRED_ROUNDS} later rounds, all within the same compilation, for
+ * another processor to generate it, and only while other processors keep generating: a round that
+ * brings nothing but this processor's own metamodels ends the wait. If its own attributes resolve
+ * by then, it still gets a metamodel, without the inherited columns the processor could not read,
+ * and a note says so; its model is not shipped, as it would describe the entity wrongly to other
+ * builds. No source is written in the last round, which javac would not compile: an entity still
+ * waiting then gets a note only, and the compilation fails on its unresolved type anyway.
+ *
+ * <p>With {@code -A}{@value #REGISTRY_OPTION}{@code =true} the processor also writes
+ * {@value #REGISTRY}, the binary names of every entity compiled, nested ones included, which the
+ * runtime's {@code EntityRegistry} hands to a mapping context instead of scanning for entities.
+ * One file lists the whole compilation, so the option makes the processor Gradle aggregating; the
+ * registration is {@code dynamic} and reports isolating unless the option is set.
+ *
+ * @since 2.0.0
+ */
+@SupportedAnnotationTypes(ElementModelReader.TABLE)
+public class EntityMetamodelProcessor extends AbstractProcessor {
+
+  /** How many later rounds an output waits for its types before the processor gives up on it. */
+  static final int MAX_DEFERRED_ROUNDS = 2;
+
+  /** The option that turns the entity registry on. */
+  static final String REGISTRY_OPTION = "entitymetamodel.registry";
+
+  /** The entity registry resource, the runtime's {@code EntityRegistry.RESOURCE}. */
+  static final String REGISTRY = "META-INF/entity-metamodel/entities";
+
+  private static final String ISOLATING = "org.gradle.annotation.processing.isolating";
+  private static final String AGGREGATING = "org.gradle.annotation.processing.aggregating";
+
+  // Qualified name to the number of rounds waited. Elements are looked up again by name each
+  // round, as javac does not promise that an element outlives its round.
+  private final Map<String, Integer> deferredEntities = new HashMap<>();
+  // Qualified names of the metamodels written, to tell them from what other processors generate.
+  private final Set<String> generatedMetamodels = new HashSet<>();
+  // Qualified names of the top-level entities the registry lists; it lists their nested ones too.
+  private final Set<String> registered = new TreeSet<>();
+  private ElementModelReader reader;
+  private MetamodelRenderer renderer;
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnvironment) {
+    super.init(processingEnvironment);
+    TypeRefInterner types = new TypeRefInterner();
+    this.reader = new ElementModelReader(processingEnvironment.getTypeUtils(), types);
+    this.renderer = new MetamodelRenderer(types);
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  // Gradle reads a dynamic processor's category from its supported options once it is initialized.
+  @Override
+  public Set<String> getSupportedOptions() {
+    return Set.of(REGISTRY_OPTION, registryEnabled() ? AGGREGATING : ISOLATING);
+  }
+
+  // @Table is not claimed: other processors may read it too.
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+    Set<String> roots = new TreeSet<>(deferredEntities.keySet());
+    for (TypeElement annotation : annotations) {
+      for (Element annotated : round.getElementsAnnotatedWith(annotation)) {
+        if (ElementModelReader.isEntity(annotated)) {
+          roots.add(root((TypeElement) annotated).getQualifiedName().toString());
+        }
+      }
+    }
+    if (registryEnabled()) {
+      registered.addAll(roots);
+    }
+
+    boolean othersGenerate = othersGenerate(round);
+    for (String qualifiedName : roots) {
+      TypeElement root = processingEnv.getElementUtils().getTypeElement(qualifiedName);
+      if (root == null || !reader.ownAttributesResolve(root)) {
+        if (!waits(qualifiedName, othersGenerate) && root != null) {
+          note(root, "Metamodel of " + qualifiedName
+              + " not generated: an attribute type does not resolve");
+        }
+        continue;
+      }
+      boolean hierarchyResolves = reader.hierarchyResolves(root);
+      if (hierarchyResolves) {
+        deferredEntities.remove(qualifiedName);
+      } else if (waits(qualifiedName, othersGenerate)) {
+        continue;
+      } else if (round.processingOver()) {
+        note(root, "Metamodel of " + qualifiedName + " not generated: a superclass or an inherited"
+            + " attribute type does not resolve");
+        continue;
+      }
+      generate(root, hierarchyResolves);
+    }
+    if (round.processingOver() && !registered.isEmpty()) {
+      writeRegistry();
+    }
+    return false;
+  }
+
+  // A nested entity is generated inside its enclosing entity, mirroring the source. One nested in a
+  // plain class is a root of its own, Outer_Holder_Inner_, as only directly nested entities are
+  // read along with their enclosing entity.
+  private static TypeElement root(TypeElement entity) {
+    TypeElement root = entity;
+    while (root.getEnclosingElement() instanceof TypeElement enclosing
+        && ElementModelReader.isEntity(enclosing)) {
+      root = enclosing;
+    }
+    return root;
+  }
+
+  // Once waiting is over, an unresolved hierarchy still leaves a usable metamodel: the entity's
+  // own attributes come first, so their constants and ordinals are the ones a complete metamodel
+  // would have. The shipped model describes the whole hierarchy to other builds, so it is held
+  // back.
+  private void generate(TypeElement root, boolean hierarchyResolves) {
+    String packageName = packageOf(root).getQualifiedName().toString();
+    String qualifiedName = root.getQualifiedName().toString();
+    String metamodelName = MetamodelRenderer.metamodelName(packageName.isEmpty()
+        ? qualifiedName
+        : qualifiedName.substring(packageName.length() + 1));
+
+    EntityDescriptor entity = reader.read(root);
+    String metamodelQualifiedName =
+        packageName.isEmpty() ? metamodelName : packageName + "." + metamodelName;
+    try {
+      String source = renderer.render(packageName, metamodelName, entity);
+      generatedMetamodels.add(metamodelQualifiedName);
+      write(processingEnv.getFiler().createSourceFile(metamodelQualifiedName, root),
+          source.getBytes(UTF_8));
+    } catch (IllegalArgumentException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), root);
+      return;
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "Cannot write the metamodel of " + qualifiedName + ": " + e.getMessage(), root);
+      return;
+    }
+
+    if (hierarchyResolves) {
+      writeModel(root, entity);
+    } else {
+      note(root, "Metamodel of " + qualifiedName + " generated without inherited columns and its"
+          + " entity model not shipped: a superclass or an inherited attribute type does not"
+          + " resolve");
+    }
+  }
+
+  private void writeModel(TypeElement root, EntityDescriptor entity) {
+    try {
+      for (Map.Entry<String, byte[]> resource
+          : EntityModelResources.encode(EntityModel.of(List.of(entity))).entrySet()) {
+        write(processingEnv.getFiler().createResource(
+            StandardLocation.CLASS_OUTPUT, "", resource.getKey(), root), resource.getValue());
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "Cannot write the entity model of " + root.getQualifiedName() + ": " + e.getMessage(),
+          root);
+    }
+  }
+
+  // Written once, in the last round, naming every entity it lists as an originating element. Nested
+  // entities are listed by binary name, which is what Class.forName reads.
+  private void writeRegistry() {
+    List<TypeElement> roots = new ArrayList<>();
+    List<String> binaryNames = new ArrayList<>();
+    for (String qualifiedName : registered) {
+      TypeElement root = processingEnv.getElementUtils().getTypeElement(qualifiedName);
+      if (root != null) {
+        roots.add(root);
+        addBinaryNames(root, binaryNames);
+      }
+    }
+    binaryNames.sort(null);
+
+    StringBuilder registry =
+        new StringBuilder("# Generated by " + MetamodelRenderer.GENERATOR + "\n");
+    for (String binaryName : binaryNames) {
+      registry.append(binaryName).append('\n');
+    }
+    try {
+      write(processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", REGISTRY,
+          roots.toArray(new Element[0])), registry.toString().getBytes(UTF_8));
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "Cannot write the entity registry: " + e.getMessage());
+    }
+  }
+
+  private void addBinaryNames(TypeElement entity, List<String> binaryNames) {
+    binaryNames.add(processingEnv.getElementUtils().getBinaryName(entity).toString());
+    for (TypeElement nested : ElementFilter.typesIn(entity.getEnclosedElements())) {
+      if (ElementModelReader.isEntity(nested)) {
+        addBinaryNames(nested, binaryNames);
+      }
+    }
+  }
+
+  private boolean registryEnabled() {
+    return isInitialized()
+        && Boolean.parseBoolean(processingEnv.getOptions().get(REGISTRY_OPTION));
+  }
+
+  // Whether the types of this round come from anywhere but this processor: the sources in the
+  // first round, which other processors may be generating from right now, and what other
+  // processors generated in the previous round later on. A round of nothing but this processor's
+  // metamodels may well be the last with sources to compile.
+  private boolean othersGenerate(RoundEnvironment round) {
+    if (round.processingOver()) {
+      return false;
+    }
+    for (Element element : round.getRootElements()) {
+      if (!(element instanceof TypeElement type)
+          || !generatedMetamodels.contains(type.getQualifiedName().toString())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Whether an entity waits another round for a type another processor may generate. Not for
+  // long: inside an IDE the unresolved type is usually being typed, and javac already reports it.
+  // The rounds all run within one compilation, so waiting delays no output past it.
+  private boolean waits(String qualifiedName, boolean othersGenerate) {
+    Integer waited = deferredEntities.get(qualifiedName);
+    if (!othersGenerate || (waited != null && waited >= MAX_DEFERRED_ROUNDS)) {
+      deferredEntities.remove(qualifiedName);
+      return false;
+    }
+    deferredEntities.put(qualifiedName, waited == null ? 1 : waited + 1);
+    return true;
+  }
+
+  private void note(TypeElement root, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, root);
+  }
+
+  private static void write(FileObject file, byte[] content) throws IOException {
+    try (OutputStream out = file.openOutputStream()) {
+      out.write(content);
+    }
+  }
+
+  private PackageElement packageOf(TypeElement type) {
+    return processingEnv.getElementUtils().getPackageOf(type);
+  }
+}
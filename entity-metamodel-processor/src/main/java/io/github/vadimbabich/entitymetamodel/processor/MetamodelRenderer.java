@@ -0,0 +1,161 @@
+package io.github.vadimbabich.entitymetamodel.processor;
+
+import io.github.vadimbabich.entitymetamodel.core.AnnotationFact;
+import io.github.vadimbabich.entitymetamodel.core.AttributeDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.EntityDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.SuperTypeContribution;
+import io.github.vadimbabich.entitymetamodel.core.TypeRef;
+import io.github.vadimbabich.entitymetamodel.core.TypeRefInterner;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Renders the metamodel of one top-level entity as source text: an {@code ENTITY} handle and one
+ * {@code PropertyRef} constant per persistent attribute, inherited ones after the entity's own,
+ * with dense ordinals in that order, and one static nested class per nested entity. Entity and
+ * attribute types are written fully qualified, so nothing the entity's package declares can shadow
+ * them. Output is a pure function of the descriptor, so regenerating unchanged sources is
+ * byte-identical.
+ */
+final class MetamodelRenderer {
+
+  static final String GENERATOR = "io.github.vadimbabich.entitymetamodel.processor";
+
+  private static final String TRANSIENT = "org.springframework.data.annotation.Transient";
+
+  private final TypeRefInterner types;
+
+  MetamodelRenderer(TypeRefInterner types) {
+    this.types = types;
+  }
+
+  /**
+   * @throws IllegalArgumentException if two attributes map to one constant name, or one maps to
+   *     {@code ENTITY}
+   */
+  String render(String packageName, String metamodelName, EntityDescriptor entity) {
+    List<String> lines = new ArrayList<>();
+    if (!packageName.isEmpty()) {
+      lines.add("package " + packageName + ";");
+      lines.add("");
+    }
+    lines.add("import io.github.vadimbabich.entitymetamodel.runtime.EntityRef;");
+    lines.add("import io.github.vadimbabich.entitymetamodel.runtime.Generated;");
+    lines.add("import io.github.vadimbabich.entitymetamodel.runtime.PropertyRef;");
+    lines.add("");
+    renderClass(lines, "", "public final class " + metamodelName, metamodelName, entity);
+    return String.join("\n", lines) + "\n";
+  }
+
+  /** The simple name of a top-level entity's metamodel: enclosing names joined, then {@code _}. */
+  static String metamodelName(String binaryNameWithoutPackage) {
+    return binaryNameWithoutPackage.replace('.', '_') + "_";
+  }
+
+  /** The constant a property is exposed as, {@code ownerEmail} as {@code OWNER_EMAIL}. */
+  static String constantName(String propertyName) {
+    return propertyName
+        .replaceAll("([a-z0-9])([A-Z])", "$1_$2")
+        .replaceAll("([A-Z])([A-Z][a-z])", "$1_$2")
+        .toUpperCase(Locale.ROOT);
+  }
+
+  private void renderClass(List<String> lines, String indent, String declaration,
+      String metamodelName, EntityDescriptor entity) {
+    String entityType = entity.qualifiedName();
+
+    lines.add(indent + "@Generated(\"" + GENERATOR + "\")");
+    lines.add(indent + declaration + " {");
+    lines.add("");
+    lines.add(indent + "  public static final EntityRef<" + entityType + "> ENTITY =");
+    lines.add(indent + "      EntityRef.of(" + entityType + ".class);");
+
+    Set<String> constants = new HashSet<>(Set.of("ENTITY"));
+    Set<String> names = new HashSet<>();
+    int ordinal = 0;
+    for (AttributeDescriptor attribute : flattened(entity)) {
+      if (isTransient(attribute) || !names.add(attribute.name())) {
+        continue;
+      }
+      String constant = constantName(attribute.name());
+      if (!constants.add(constant)) {
+        throw new IllegalArgumentException("Property '" + attribute.name() + "' of "
+            + entityType + " maps to the constant " + constant + ", which is already taken");
+      }
+      lines.add("");
+      lines.add(indent + "  public static final PropertyRef<" + entityType + ", "
+          + typeArgument(attribute.declaredType()) + "> " + constant + " =");
+      lines.add(indent + "      ENTITY.property(\"" + attribute.name() + "\", "
+          + classLiteral(attribute.declaredType()) + ", " + ordinal++ + ");");
+    }
+
+    lines.add("");
+    lines.add(indent + "  private " + metamodelName + "() {");
+    lines.add(indent + "  }");
+
+    for (EntityDescriptor nested : entity.nestedEntities()) {
+      String nestedName = nested.qualifiedName()
+          .substring(nested.qualifiedName().lastIndexOf('.') + 1) + "_";
+      lines.add("");
+      renderClass(lines, indent + "  ", "public static final class " + nestedName, nestedName,
+          nested);
+    }
+    lines.add(indent + "}");
+  }
+
+  // The 1.x order: the entity's own attributes, then each superclass's, nearest first. A field a
+  // subclass redeclares hides the inherited one.
+  private static List<AttributeDescriptor> flattened(EntityDescriptor entity) {
+    List<AttributeDescriptor> attributes = new ArrayList<>(entity.attributes());
+    for (SuperTypeContribution superType : entity.superTypes()) {
+      attributes.addAll(superType.attributes());
+    }
+    return attributes;
+  }
+
+  private String typeArgument(TypeRef type) {
+    if (type.arrayDimensions() == 0 && type.typeArguments().isEmpty()) {
+      return boxed(type.qualifiedName());
+    }
+    return types.canonical(type);
+  }
+
+  private static String classLiteral(TypeRef type) {
+    return type.qualifiedName() + "[]".repeat(type.arrayDimensions()) + ".class";
+  }
+
+  private static boolean isTransient(AttributeDescriptor attribute) {
+    for (AnnotationFact annotation : attribute.annotations()) {
+      if (annotation.qualifiedName().equals(TRANSIENT)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String boxed(String typeName) {
+    switch (typeName) {
+      case "boolean":
+        return "java.lang.Boolean";
+      case "byte":
+        return "java.lang.Byte";
+      case "short":
+        return "java.lang.Short";
+      case "int":
+        return "java.lang.Integer";
+      case "long":
+        return "java.lang.Long";
+      case "char":
+        return "java.lang.Character";
+      case "float":
+        return "java.lang.Float";
+      case "double":
+        return "java.lang.Double";
+      default:
+        return typeName;
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package io.github.vadimbabich.entitymetamodel.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.vadimbabich.entitymetamodel.core.AttributeDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.ClasspathEntityModels;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * What an IDE build over broken sources gets: metamodels for every entity whose types resolve, in
+ * the first round, and bounded waiting only for the entities that depend on an unresolved type.
+ */
+class BrokenSourceTest {
+
+  private static final String MODELS = "META-INF/entity-metamodel/";
+
+  @TempDir
+  Path workDir;
+
+  @Test
+  void entitiesWhoseOwnAttributesResolveGetMetamodelsWhileTheBuildFails() {
+    ProcessorCompiler.Outcome outcome = compileBroken(List.of(new EntityMetamodelProcessor()));
+
+    assertThat(outcome.succeeded()).isFalse();
+    assertThat(outcome.sourceOutput().resolve("com/example/broken/Order_.java")).exists();
+    assertThat(outcome.classOutput().resolve(MODELS + "com.example.broken.Order.emod")).exists();
+
+    assertThat(outcome.sourceOutput().resolve("com/example/broken/Invoice_.java")).doesNotExist();
+    assertThat(outcome.diagnostics()).contains("NOTE: Metamodel of com.example.broken.Invoice not"
+        + " generated: an attribute type does not resolve");
+  }
+
+  @Test
+  void anUnresolvedSuperclassLeavesAMetamodelOfTheOwnAttributesOnceWaitingEnds() {
+    ProcessorCompiler.Outcome outcome = compileBroken(List.of(new EntityMetamodelProcessor()));
+
+    assertThat(outcome.generatedSource("com/example/broken/Shipment_.java"))
+        .contains("ENTITY.property(\"id\", java.lang.Long.class, 0);")
+        .contains("ENTITY.property(\"carrier\", java.lang.String.class, 1);");
+    assertThat(outcome.classOutput().resolve(MODELS + "com.example.broken.Shipment.emod"))
+        .doesNotExist();
+    assertThat(outcome.diagnostics()).contains("NOTE: Metamodel of com.example.broken.Shipment"
+        + " generated without inherited columns and its entity model not shipped: a superclass"
+        + " or an inherited attribute type does not resolve");
+    assertThat(outcome.diagnostics()).noneMatch(diagnostic -> diagnostic.startsWith("WARNING"));
+  }
+
+  @Test
+  void aSuperclassAnotherProcessorGeneratesContributesItsColumns() throws Exception {
+    ProcessorCompiler.Outcome outcome = new ProcessorCompiler(workDir).compile("supertype",
+        ProcessorCompiler.fixtures("supertype"),
+        List.of(new TypeGenerator(1, "com.example.generated.TrackedEntity",
+                "  protected String createdBy;\n"),
+            new EntityMetamodelProcessor()));
+
+    assertThat(outcome.succeeded()).isTrue();
+    assertThat(outcome.diagnostics()).containsExactly("NOTE: round 1");
+    assertThat(outcome.generatedSource("com/example/supertype/Parcel_.java"))
+        .contains("ENTITY.property(\"id\", java.lang.Long.class, 0);")
+        .contains("ENTITY.property(\"createdBy\", java.lang.String.class, 1);");
+    try (URLClassLoader loader = new URLClassLoader(
+        new URL[] {outcome.classOutput().toUri().toURL()}, getClass().getClassLoader())) {
+      assertThat(ClasspathEntityModels.of(loader).find("com.example.supertype.Parcel")
+          .orElseThrow().superTypes()).singleElement()
+          .satisfies(superType -> assertThat(superType.attributes())
+              .extracting(AttributeDescriptor::name).containsExactly("createdBy"));
+    }
+  }
+
+  @Test
+  void aDeferredEntityIsGeneratedOnceAnotherProcessorSuppliesItsType() {
+    ProcessorCompiler.Outcome outcome = new ProcessorCompiler(workDir).compile("deferred",
+        ProcessorCompiler.fixtures("deferred"),
+        List.of(new TypeGenerator(1, "com.example.generated.Money", ""),
+            new EntityMetamodelProcessor()));
+
+    assertThat(outcome.succeeded()).isTrue();
+    assertThat(outcome.diagnostics()).containsExactly("NOTE: round 1");
+    assertThat(outcome.generatedSource("com/example/deferred/Ledger_.java"))
+        .contains("PropertyRef<com.example.deferred.Ledger, com.example.generated.Money> BALANCE");
+  }
+
+  @Test
+  void waitingForATypeIsBoundedWhileOtherProcessorsKeepGenerating() {
+    ProcessorCompiler.Outcome outcome = compileBroken(List.of(
+        new TypeGenerator(10, "com.example.generated.Filler", ""),
+        new EntityMetamodelProcessor()));
+
+    List<String> diagnostics = outcome.diagnostics();
+    int gaveUp = diagnostics.indexOf("NOTE: Metamodel of com.example.broken.Invoice not"
+        + " generated: an attribute type does not resolve");
+    int lastRound = 1 + EntityMetamodelProcessor.MAX_DEFERRED_ROUNDS;
+
+    assertThat(gaveUp).isGreaterThan(diagnostics.indexOf("NOTE: round " + lastRound));
+    assertThat(gaveUp).isLessThan(diagnostics.indexOf("NOTE: round " + (lastRound + 1)));
+  }
+
+  private ProcessorCompiler.Outcome compileBroken(List<AbstractProcessor> processors) {
+    return new ProcessorCompiler(workDir)
+        .compile("broken", ProcessorCompiler.fixtures("broken"), processors);
+  }
+
+  /**
+   * Another processor: in each of its first {@code rounds} rounds it notes the round and generates
+   * one class with {@code body} as its members, the first named {@code firstName} and the rest
+   * numbered after it.
+   */
+  private static final class TypeGenerator extends AbstractProcessor {
+
+    private final int rounds;
+    private final String firstName;
+    private final String body;
+    private int round;
+
+    TypeGenerator(int rounds, String firstName, String body) {
+      this.rounds = rounds;
+      this.firstName = firstName;
+      this.body = body;
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+      return Set.of("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      if (roundEnv.processingOver() || ++round > rounds) {
+        return false;
+      }
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "round " + round);
+
+      String name = round == 1 ? firstName : firstName + round;
+      String simpleName = name.substring(name.lastIndexOf('.') + 1);
+      try (Writer source = processingEnv.getFiler().createSourceFile(name).openWriter()) {
+        source.write("package " + name.substring(0, name.lastIndexOf('.')) + ";\n\n"
+            + "public class " + simpleName + " {\n" + body + "}\n");
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package io.github.vadimbabich.entitymetamodel.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.vadimbabich.entitymetamodel.core.AttributeDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.ClasspathEntityModels;
+import io.github.vadimbabich.entitymetamodel.core.EntityDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.SuperTypeContribution;
+import io.github.vadimbabich.entitymetamodel.core.TypeRef;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Supertypes are read from javac's resolved hierarchy: {@code AuditedEntity} from source in the
+ * same compilation, {@code VersionedEntity} from a class file on the classpath, with the
+ * subclass's type arguments substituted into inherited fields.
+ */
+class InheritedAttributesTest {
+
+  @TempDir
+  Path workDir;
+
+  private ProcessorCompiler.Outcome outcome;
+
+  @BeforeEach
+  void compileAgainstACompiledLibrary() {
+    ProcessorCompiler compiler = new ProcessorCompiler(workDir);
+    ProcessorCompiler.Outcome library = compiler.compile("library",
+        ProcessorCompiler.fixtures("library"), new EntityMetamodelProcessor());
+    assertThat(library.succeeded()).isTrue();
+
+    outcome = compiler.compile("inheritance", ProcessorCompiler.fixtures("inheritance"),
+        new EntityMetamodelProcessor(), library.classOutput());
+    assertThat(outcome.succeeded()).isTrue();
+    assertThat(outcome.diagnostics()).isEmpty();
+  }
+
+  @Test
+  void rendersInheritedAttributesAfterTheEntitysOwnNearestSuperclassFirst() {
+    String customer = outcome.generatedSource("com/example/crm/Customer_.java");
+
+    assertThat(customer)
+        .contains("PropertyRef<com.example.crm.Customer, java.lang.String> NAME =\n"
+            + "      ENTITY.property(\"name\", java.lang.String.class, 0);")
+        .contains("PropertyRef<com.example.crm.Customer, java.time.Instant> CREATED_AT =\n"
+            + "      ENTITY.property(\"createdAt\", java.time.Instant.class, 1);")
+        .contains("PropertyRef<com.example.crm.Customer, java.lang.Long> ID =\n"
+            + "      ENTITY.property(\"id\", java.lang.Long.class, 2);")
+        .contains("PropertyRef<com.example.crm.Customer, java.lang.Long> VERSION =\n"
+            + "      ENTITY.property(\"version\", long.class, 3);");
+  }
+
+  @Test
+  void aRedeclaredFieldHidesTheInheritedOne() {
+    String prospect = outcome.generatedSource("com/example/crm/Prospect_.java");
+
+    assertThat(prospect)
+        .contains("ENTITY.property(\"version\", java.lang.Long.class, 0);")
+        .contains("ENTITY.property(\"id\", java.lang.String.class, 2);")
+        .doesNotContain("long.class");
+  }
+
+  @Test
+  void shipsEachSupertypeAsAContributionWithSubstitutedTypes() throws Exception {
+    try (URLClassLoader loader = new URLClassLoader(
+        new URL[] {outcome.classOutput().toUri().toURL()}, getClass().getClassLoader())) {
+      EntityDescriptor customer =
+          ClasspathEntityModels.of(loader).find("com.example.crm.Customer").orElseThrow();
+
+      assertThat(customer.attributes()).extracting(AttributeDescriptor::name)
+          .containsExactly("name");
+      assertThat(customer.superTypes()).extracting(SuperTypeContribution::qualifiedName)
+          .containsExactly("com.example.crm.AuditedEntity", "com.example.library.VersionedEntity");
+
+      AttributeDescriptor id = customer.superTypes().get(1).attributes().get(0);
+      assertThat(id.name()).isEqualTo("id");
+      assertThat(id.id()).isTrue();
+      assertThat(id.declaredType()).isEqualTo(TypeRef.of("java.lang.Long"));
+      assertThat(customer.superTypes().get(1).attributes().get(1).annotations())
+          .extracting(fact -> fact.declaredValues().get("value"))
+          .containsExactly("\"row_version\"");
+    }
+  }
+}
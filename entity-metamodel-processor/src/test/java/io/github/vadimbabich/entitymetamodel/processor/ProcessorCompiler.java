@@ -0,0 +1,118 @@
+package io.github.vadimbabich.entitymetamodel.processor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles fixture sources with one processor through {@code javax.tools}, against the test
+ * classpath, so generated metamodels are compiled against the real runtime. Lint runs in full;
+ * only the warning that no processor claims the mapping annotations is left out of the outcome.
+ */
+final class ProcessorCompiler {
+
+  private static final String UNCLAIMED_ANNOTATIONS =
+      "compiler.warn.proc.annotations.without.processors";
+
+  private final Path workDir;
+  private final List<String> processorOptions;
+
+  ProcessorCompiler(Path workDir) {
+    this(workDir, List.of());
+  }
+
+  private ProcessorCompiler(Path workDir, List<String> processorOptions) {
+    this.workDir = workDir;
+    this.processorOptions = processorOptions;
+  }
+
+  /** A compiler passing {@code key=value} pairs to the processors as {@code -A} options. */
+  ProcessorCompiler withOptions(String... options) {
+    List<String> all = new ArrayList<>(processorOptions);
+    for (String option : options) {
+      all.add("-A" + option);
+    }
+    return new ProcessorCompiler(workDir, List.copyOf(all));
+  }
+
+  static List<Path> fixtures(String directory) {
+    try (Stream<Path> files = Files.walk(Path.of("src/test/resources/fixtures", directory))) {
+      return files.filter(file -> file.toString().endsWith(".java")).sorted().toList();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Compiles into {@code <workDir>/<name>}, with {@code classpath} ahead of the test classpath. */
+  Outcome compile(String name, List<Path> sources, Processor processor, Path... classpath) {
+    return compile(name, sources, List.of(processor), classpath);
+  }
+
+  /** As {@link #compile(String, List, Processor, Path...)}, running {@code processors} in order. */
+  Outcome compile(String name, List<Path> sources, List<? extends Processor> processors,
+      Path... classpath) {
+    Path classOutput = workDir.resolve(name).resolve("classes");
+    Path sourceOutput = workDir.resolve(name).resolve("generated-sources");
+    List<String> entries = new ArrayList<>();
+    for (Path entry : classpath) {
+      entries.add(entry.toString());
+    }
+    entries.add(System.getProperty("java.class.path"));
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+    try (StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(diagnostics, null, UTF_8)) {
+      Files.createDirectories(classOutput);
+      Files.createDirectories(sourceOutput);
+
+      List<String> options = new ArrayList<>(List.of("--release", "17", "-encoding", "UTF-8",
+          "-Xlint:all", "-classpath", String.join(File.pathSeparator, entries),
+          "-d", classOutput.toString(), "-s", sourceOutput.toString()));
+      options.addAll(processorOptions);
+      JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+          options, null, fileManager.getJavaFileObjectsFromPaths(sources));
+      task.setProcessors(processors);
+      boolean succeeded = task.call();
+
+      List<String> messages = new ArrayList<>();
+      for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+        // Every mapping annotation goes unclaimed, as the processor claims none; that says
+        // nothing about what it did, unlike the other warnings of the processing category.
+        if (UNCLAIMED_ANNOTATIONS.equals(diagnostic.getCode())) {
+          continue;
+        }
+        messages.add(diagnostic.getKind() + ": " + diagnostic.getMessage(null));
+      }
+      return new Outcome(succeeded, List.copyOf(messages), classOutput, sourceOutput);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Compilation could not be run", e);
+    }
+  }
+
+  record Outcome(boolean succeeded, List<String> diagnostics, Path classOutput,
+      Path sourceOutput) {
+
+    String generatedSource(String relativePath) {
+      try {
+        return Files.readString(sourceOutput.resolve(relativePath), UTF_8);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.example.broken;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("invoices")
+public class Invoice {
+
+  @Id
+  private Long id;
+
+  // Half-typed, as mid-edit in an IDE.
+  private Amoun total;
+}
@@ -0,0 +1,13 @@
+package com.example.broken;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("orders")
+public class Order {
+
+  @Id
+  private Long id;
+
+  private String reference;
+}
@@ -0,0 +1,13 @@
+package com.example.broken;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("shipments")
+public class Shipment extends TrackedEntit {
+
+  @Id
+  private Long id;
+
+  private String carrier;
+}
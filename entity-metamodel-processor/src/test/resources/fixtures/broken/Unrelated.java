@@ -0,0 +1,8 @@
+package com.example.broken;
+
+public class Unrelated {
+
+  int count() {
+    return "not a number";
+  }
+}
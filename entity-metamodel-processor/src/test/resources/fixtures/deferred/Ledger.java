@@ -0,0 +1,15 @@
+package com.example.deferred;
+
+import com.example.generated.Money;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("ledgers")
+public class Ledger {
+
+  @Id
+  private Long id;
+
+  // Generated by another processor in the first round.
+  private Money balance;
+}
@@ -0,0 +1,11 @@
+package com.example.crm;
+
+import com.example.library.VersionedEntity;
+import java.time.Instant;
+import org.springframework.data.relational.core.mapping.Column;
+
+public abstract class AuditedEntity<K> extends VersionedEntity<K> {
+
+  @Column("created_at")
+  private Instant createdAt;
+}
@@ -0,0 +1,10 @@
+package com.example.crm;
+
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("prospects")
+public class Prospect extends AuditedEntity<String> {
+
+  // Redeclares the inherited version; the subclass field is the one that maps.
+  private Long version;
+}
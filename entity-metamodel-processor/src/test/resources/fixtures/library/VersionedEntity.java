@@ -0,0 +1,13 @@
+package com.example.library;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+
+public abstract class VersionedEntity<K> {
+
+  @Id
+  private K id;
+
+  @Column("row_version")
+  private long version;
+}
@@ -0,0 +1,31 @@
+package com.example.shop;
+
+import java.util.List;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("accounts")
+public class Account {
+
+  static final int PAGE_SIZE = 50;
+
+  @Id
+  @Column("account_id")
+  private Long id;
+
+  @Column("owner_email")
+  private String ownerEmail;
+
+  private int loginCount;
+
+  private List<String> tags;
+
+  private byte[] avatar;
+
+  @Transient
+  private String displayName;
+
+  private transient Object cache;
+}
@@ -0,0 +1,23 @@
+package com.example.shop;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("catalogs")
+public class Catalog {
+
+  @Id
+  private Long id;
+
+  public static class Sections {
+
+    @Table("catalog_sections")
+    public static class Section {
+
+      @Id
+      private Long id;
+
+      private String title;
+    }
+  }
+}
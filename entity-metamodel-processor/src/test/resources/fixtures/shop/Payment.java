@@ -0,0 +1,14 @@
+package com.example.shop;
+
+import java.math.BigDecimal;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table(name = "payments")
+public record Payment(@Id Long id, BigDecimal amount, Status status) {
+
+  public enum Status {
+    OPEN,
+    SETTLED
+  }
+}
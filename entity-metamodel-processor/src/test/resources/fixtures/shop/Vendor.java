@@ -0,0 +1,18 @@
+package com.example.shop;
+
+import java.util.Map;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("vendors")
+public class Vendor {
+
+  @Id
+  private Long id;
+
+  private Map<String, Long> ratings;
+
+  @Table("vendor_permissions")
+  public record PermissionView(Long vendorId, String permission) {
+  }
+}
@@ -0,0 +1,13 @@
+package com.example.supertype;
+
+import com.example.generated.TrackedEntity;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+// The superclass is generated by another processor in the first round.
+@Table("parcels")
+public class Parcel extends TrackedEntity {
+
+  @Id
+  private Long id;
+}
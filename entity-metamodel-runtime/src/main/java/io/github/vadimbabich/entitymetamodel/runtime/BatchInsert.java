@@ -0,0 +1,180 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable description of a multi-row {@code INSERT} into one entity's table: the columns in bind
+ * order, the rows per statement, and an optional {@code ON CONFLICT} clause for upserts. A
+ * {@link QueryRenderer} splits a batch of rows into statements of this shape, rendering each
+ * statement size once. {@code ON CONFLICT} is PostgreSQL and SQLite syntax.
+ */
+public final class BatchInsert<E> {
+
+  static final String NO_CONFLICT_CLAUSE = "";
+  static final String DO_NOTHING = "DO NOTHING";
+  static final String DO_UPDATE = "DO UPDATE";
+
+  private static final int DEFAULT_CHUNK_SIZE = 500;
+
+  private final EntityRef<E> entity;
+  private final List<PropertyRef<E, ?>> columns;
+  private final int chunkSize;
+  private final String conflictAction;
+  private final List<PropertyRef<E, ?>> conflictColumns;
+  private final int hash;
+
+  private BatchInsert(Builder<E> builder) {
+    this.entity = builder.entity;
+    this.columns = List.copyOf(builder.columns);
+    this.chunkSize = builder.chunkSize;
+    this.conflictAction = builder.conflictAction;
+    this.conflictColumns = List.copyOf(builder.conflictColumns);
+    // A renderer hashes the insert on every batch to find its statement texts.
+    this.hash = Objects.hash(entity, columns, chunkSize, conflictAction, conflictColumns);
+  }
+
+  /** Starts an insert into {@code entity}'s table. */
+  public static <E> Builder<E> into(EntityRef<E> entity) {
+    Objects.requireNonNull(entity, "entity");
+
+    return new Builder<>(entity);
+  }
+
+  public EntityRef<E> entity() {
+    return entity;
+  }
+
+  /** The inserted columns; every row lists its values in this order. */
+  public List<PropertyRef<E, ?>> columns() {
+    return columns;
+  }
+
+  /** The most rows one statement carries, before the renderer's bind-marker limit applies. */
+  public int chunkSize() {
+    return chunkSize;
+  }
+
+  String conflictAction() {
+    return conflictAction;
+  }
+
+  List<PropertyRef<E, ?>> conflictColumns() {
+    return conflictColumns;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof BatchInsert<?> otherInsert)) {
+      return false;
+    }
+
+    return hash == otherInsert.hash
+        && entity.equals(otherInsert.entity) && columns.equals(otherInsert.columns)
+        && chunkSize == otherInsert.chunkSize
+        && conflictAction.equals(otherInsert.conflictAction)
+        && conflictColumns.equals(otherInsert.conflictColumns);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return "BatchInsert[" + entity + ", " + columns.size() + " columns, chunks of " + chunkSize
+        + (conflictAction.isEmpty() ? "" : ", on conflict " + conflictAction) + "]";
+  }
+
+  /** Collects the columns and options; {@link #build()} validates them. */
+  public static final class Builder<E> {
+
+    private final EntityRef<E> entity;
+    private final List<PropertyRef<E, ?>> columns = new ArrayList<>();
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private String conflictAction = NO_CONFLICT_CLAUSE;
+    private final List<PropertyRef<E, ?>> conflictColumns = new ArrayList<>();
+
+    private Builder(EntityRef<E> entity) {
+      this.entity = entity;
+    }
+
+    /** Appends columns in iteration order, such as a {@link PropertySet} in declaration order. */
+    public Builder<E> columns(Iterable<? extends PropertyRef<E, ?>> properties) {
+      for (PropertyRef<E, ?> property : properties) {
+        columns.add(Objects.requireNonNull(property, "property"));
+      }
+      return this;
+    }
+
+    /** Rows per statement; 500 when not set. The renderer lowers it to fit its marker limit. */
+    public Builder<E> chunkSize(int chunkSize) {
+      if (chunkSize < 1) {
+        throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+      }
+      this.chunkSize = chunkSize;
+      return this;
+    }
+
+    /** Skips rows that conflict on {@code conflictColumns}, a unique key of the table. */
+    public Builder<E> onConflictDoNothing(List<? extends PropertyRef<E, ?>> conflictColumns) {
+      return onConflict(DO_NOTHING, conflictColumns);
+    }
+
+    /**
+     * Upserts: a row that conflicts on {@code conflictColumns} overwrites every other inserted
+     * column of the existing row with its own value.
+     */
+    public Builder<E> onConflictDoUpdate(List<? extends PropertyRef<E, ?>> conflictColumns) {
+      return onConflict(DO_UPDATE, conflictColumns);
+    }
+
+    public BatchInsert<E> build() {
+      if (columns.isEmpty()) {
+        throw new IllegalStateException("No columns to insert into " + entity);
+      }
+      for (PropertyRef<E, ?> column : columns) {
+        if (!column.entity().equals(entity)) {
+          throw new IllegalStateException(column + " is not a property of " + entity);
+        }
+      }
+      if (columns.stream().map(PropertyRef::name).distinct().count() != columns.size()) {
+        throw new IllegalStateException("A column is inserted twice: " + columns);
+      }
+      if (!conflictColumns.isEmpty()) {
+        List<String> inserted = columns.stream().map(PropertyRef::name).toList();
+        for (PropertyRef<E, ?> conflictColumn : conflictColumns) {
+          if (!inserted.contains(conflictColumn.name())) {
+            throw new IllegalStateException(
+                "Conflict column " + conflictColumn + " is not one of the inserted columns");
+          }
+        }
+        if (conflictAction.equals(DO_UPDATE) && conflictColumns.size() == columns.size()) {
+          throw new IllegalStateException(
+              "Every inserted column is a conflict column, so an upsert has nothing to update");
+        }
+      }
+
+      return new BatchInsert<>(this);
+    }
+
+    private Builder<E> onConflict(String action,
+        List<? extends PropertyRef<E, ?>> conflictColumns) {
+      Objects.requireNonNull(conflictColumns, "conflictColumns");
+      if (conflictColumns.isEmpty()) {
+        throw new IllegalArgumentException("An ON CONFLICT clause needs at least one column");
+      }
+
+      this.conflictAction = action;
+      this.conflictColumns.clear();
+      conflictColumns.forEach(column ->
+          this.conflictColumns.add(Objects.requireNonNull(column, "conflictColumn")));
+      return this;
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import java.util.Objects;
+
+/**
+ * How a {@link QueryRenderer} writes the bind marker at a zero-based position in a statement. The
+ * runtime is relational-only and cannot ask the R2DBC dialect, so the caller picks the style its
+ * driver expects once, when it builds the renderer.
+ */
+@FunctionalInterface
+public interface BindMarkerStyle {
+
+  String marker(int index);
+
+  /** Numbered markers such as PostgreSQL's {@code $1, $2, ...}. */
+  static BindMarkerStyle indexed(String prefix, int firstIndex) {
+    Objects.requireNonNull(prefix, "prefix");
+
+    return index -> prefix + (firstIndex + index);
+  }
+
+  /** The same marker at every position, such as JDBC-style {@code ?}. */
+  static BindMarkerStyle anonymous(String marker) {
+    Objects.requireNonNull(marker, "marker");
+
+    return index -> marker;
+  }
+}
@@ -3,6 +3,7 @@ package io.github.vadimbabich.entitymetamodel.runtime;
 import java.util.Locale;
 import java.util.Objects;
 import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
 
 /**
  * Immutable, instance-scoped handle to an entity type. The default instance and any
@@ -56,13 +57,25 @@ public final class EntityRef<E> {
    * carried for diagnostics only.
    */
   public <T> PropertyRef<E, T> property(String propertyName, Class<?> declaredRawType) {
-    Objects.requireNonNull(propertyName, "propertyName");
-    if (propertyName.isBlank()) {
-      throw new IllegalArgumentException("Property name must not be blank");
+    requireProperty(propertyName, declaredRawType);
+
+    return new PropertyRef<>(this, propertyName, declaredRawType, PropertyRef.NO_ORDINAL);
+  }
+
+  /**
+   * A typed property handle carrying its dense per-entity ordinal, its position in the entity's
+   * declaration order. Generated metamodels use this form, so sets and snapshots can index by
+   * ordinal instead of hashing names.
+   */
+  public <T> PropertyRef<E, T> property(String propertyName, Class<?> declaredRawType,
+      int ordinal) {
+    requireProperty(propertyName, declaredRawType);
+    if (ordinal < 0) {
+      throw new IllegalArgumentException(
+          "Ordinal of property '" + propertyName + "' must not be negative: " + ordinal);
     }
-    Objects.requireNonNull(declaredRawType, "declaredRawType");
 
-    return new PropertyRef<>(this, propertyName, declaredRawType);
+    return new PropertyRef<>(this, propertyName, declaredRawType, ordinal);
   }
 
   public Class<E> entityType() {
@@ -75,9 +88,21 @@ public final class EntityRef<E> {
 
   /** Resolves the table name through the context — never re-implemented or cached here. */
   public String tableName(RelationalMappingContext mappingContext) {
+    return tableIdentifier(mappingContext).getReference();
+  }
+
+  /** The table identifier as the context declares it, quoted or not. */
+  SqlIdentifier tableIdentifier(RelationalMappingContext mappingContext) {
     Objects.requireNonNull(mappingContext, "mappingContext");
 
-    return mappingContext.getRequiredPersistentEntity(entityType).getTableName().getReference();
+    return mappingContext.getRequiredPersistentEntity(entityType).getTableName();
+  }
+
+  /** Reads the table name from a snapshot the caller resolved earlier; no context lookup. */
+  public String tableName(ResolvedMetamodel resolvedMetamodel) {
+    Objects.requireNonNull(resolvedMetamodel, "resolvedMetamodel");
+
+    return resolvedMetamodel.tableName(entityType);
   }
 
   @Override
@@ -94,7 +119,7 @@ public final class EntityRef<E> {
 
   @Override
   public int hashCode() {
-    return Objects.hash(entityType, alias);
+    return 31 * entityType.hashCode() + alias.hashCode();
   }
 
   @Override
@@ -102,6 +127,14 @@ public final class EntityRef<E> {
     return "EntityRef[" + entityType.getSimpleName() + " as " + alias + "]";
   }
 
+  private static void requireProperty(String propertyName, Class<?> declaredRawType) {
+    Objects.requireNonNull(propertyName, "propertyName");
+    if (propertyName.isBlank()) {
+      throw new IllegalArgumentException("Property name must not be blank");
+    }
+    Objects.requireNonNull(declaredRawType, "declaredRawType");
+  }
+
   private static String defaultAliasOf(Class<?> entityType) {
     return entityType.getSimpleName().toLowerCase(Locale.ROOT);
   }
@@ -0,0 +1,114 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+
+/**
+ * The entity types the processor listed at compile time, so a mapping context can be handed its
+ * entities up front instead of finding them by classpath scanning or on first use. Every artifact
+ * built with the processor's {@code entitymetamodel.registry} option ships a {@value #RESOURCE}
+ * resource; {@link #load} reads all of them, so one registry covers a multi-module application.
+ *
+ * <p>With Spring Data R2DBC, return {@link #entityTypes()} from
+ * {@code AbstractR2dbcConfiguration.getInitialEntitySet()}; for a context built by hand,
+ * {@link #initialize} sets the initial entity set and builds every persistent entity before the
+ * first query needs one.
+ *
+ * @since 2.0.0
+ */
+public final class EntityRegistry {
+
+  /**
+   * The registry resource: one binary class name per line, {@code #} starting a comment, the
+   * format of a {@code ServiceLoader} provider file.
+   */
+  public static final String RESOURCE = "META-INF/entity-metamodel/entities";
+
+  private final Set<Class<?>> entityTypes;
+
+  private EntityRegistry(Set<Class<?>> entityTypes) {
+    this.entityTypes = entityTypes;
+  }
+
+  /**
+   * Reads every {@value #RESOURCE} visible to {@code classLoader} and loads the types they list,
+   * without initializing them.
+   *
+   * @throws IllegalStateException if a listed type cannot be loaded
+   * @throws UncheckedIOException if a registry cannot be read
+   */
+  public static EntityRegistry load(ClassLoader classLoader) {
+    Objects.requireNonNull(classLoader, "classLoader");
+
+    Set<String> names = new TreeSet<>();
+    Set<Class<?>> entityTypes = new LinkedHashSet<>();
+    try {
+      for (URL registry : Collections.list(classLoader.getResources(RESOURCE))) {
+        for (String name : read(registry)) {
+          if (names.add(name)) {
+            entityTypes.add(loadClass(name, registry, classLoader));
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot look up the entity registries", e);
+    }
+    return new EntityRegistry(Collections.unmodifiableSet(entityTypes));
+  }
+
+  /** The listed entity types, in registry order. */
+  public Set<Class<?>> entityTypes() {
+    return entityTypes;
+  }
+
+  /**
+   * Sets the listed types as {@code mappingContext}'s initial entity set and initializes it, so
+   * every persistent entity is built now rather than on first use.
+   *
+   * @return {@code mappingContext}
+   */
+  public <C extends RelationalMappingContext> C initialize(C mappingContext) {
+    Objects.requireNonNull(mappingContext, "mappingContext");
+
+    mappingContext.setInitialEntitySet(entityTypes);
+    mappingContext.afterPropertiesSet();
+    return mappingContext;
+  }
+
+  private static Set<String> read(URL registry) {
+    Set<String> names = new LinkedHashSet<>();
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(registry.openStream(), UTF_8))) {
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        int comment = line.indexOf('#');
+        String name = (comment < 0 ? line : line.substring(0, comment)).strip();
+        if (!name.isEmpty()) {
+          names.add(name);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read the entity registry at " + registry, e);
+    }
+    return names;
+  }
+
+  private static Class<?> loadClass(String name, URL registry, ClassLoader classLoader) {
+    try {
+      return Class.forName(name, false, classLoader);
+    } catch (ClassNotFoundException | LinkageError e) {
+      throw new IllegalStateException("Entity '" + name + "' is listed in " + registry
+          + " but cannot be loaded", e);
+    }
+  }
+}
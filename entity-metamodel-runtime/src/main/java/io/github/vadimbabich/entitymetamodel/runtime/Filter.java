@@ -0,0 +1,198 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable, typed {@code WHERE} predicate over {@link PropertyRef}s. A comparison's value is
+ * typed by its property and always travels as a bind value, never as SQL text, so two filters that
+ * differ only in their values have the same shape and render to the same statement.
+ */
+public final class Filter {
+
+  static final String EQ = "=";
+  static final String NE = "<>";
+  static final String LT = "<";
+  static final String LE = "<=";
+  static final String GT = ">";
+  static final String GE = ">=";
+  static final String IN = "IN";
+  static final String IS_NULL = "IS NULL";
+  static final String IS_NOT_NULL = "IS NOT NULL";
+  static final String AND = "AND";
+  static final String OR = "OR";
+
+  private final String operator;
+  private final PropertyRef<?, ?> property;
+  private final Object value;
+  private final List<Filter> operands;
+
+  private Filter(String operator, PropertyRef<?, ?> property, Object value,
+      List<Filter> operands) {
+    this.operator = operator;
+    this.property = property;
+    this.value = value;
+    this.operands = operands;
+  }
+
+  public static <T> Filter eq(PropertyRef<?, T> property, T value) {
+    return comparison(EQ, property, value);
+  }
+
+  public static <T> Filter ne(PropertyRef<?, T> property, T value) {
+    return comparison(NE, property, value);
+  }
+
+  public static <T> Filter lt(PropertyRef<?, T> property, T value) {
+    return comparison(LT, property, value);
+  }
+
+  public static <T> Filter le(PropertyRef<?, T> property, T value) {
+    return comparison(LE, property, value);
+  }
+
+  public static <T> Filter gt(PropertyRef<?, T> property, T value) {
+    return comparison(GT, property, value);
+  }
+
+  public static <T> Filter ge(PropertyRef<?, T> property, T value) {
+    return comparison(GE, property, value);
+  }
+
+  /**
+   * The property equals one of {@code values}. However many values there are, the rendered text
+   * stays one of a few: a single array marker where the renderer binds arrays, otherwise a marker
+   * list padded to the next power of two.
+   */
+  public static <T> Filter in(PropertyRef<?, T> property, Collection<? extends T> values) {
+    Objects.requireNonNull(property, "property");
+    Objects.requireNonNull(values, "values");
+    if (values.isEmpty()) {
+      throw new IllegalArgumentException("Cannot match '" + property.name()
+          + "' against an empty list; an empty IN is not valid SQL");
+    }
+
+    return new Filter(IN, property, List.copyOf(values), List.of());
+  }
+
+  public static Filter isNull(PropertyRef<?, ?> property) {
+    return new Filter(IS_NULL, Objects.requireNonNull(property, "property"), null, List.of());
+  }
+
+  public static Filter isNotNull(PropertyRef<?, ?> property) {
+    return new Filter(IS_NOT_NULL, Objects.requireNonNull(property, "property"), null, List.of());
+  }
+
+  /** Both this filter and {@code other}; chained {@code and} calls flatten into one group. */
+  public Filter and(Filter other) {
+    return combine(AND, other);
+  }
+
+  /** This filter or {@code other}; chained {@code or} calls flatten into one group. */
+  public Filter or(Filter other) {
+    return combine(OR, other);
+  }
+
+  String operator() {
+    return operator;
+  }
+
+  PropertyRef<?, ?> property() {
+    return property;
+  }
+
+  Object value() {
+    return value;
+  }
+
+  List<Filter> operands() {
+    return operands;
+  }
+
+  boolean isGroup() {
+    return !operands.isEmpty();
+  }
+
+  boolean bindsValue() {
+    return !isGroup() && value != null;
+  }
+
+  boolean isIn() {
+    return operator.equals(IN);
+  }
+
+  /** Whether this filter or any operand is an {@link #in} filter. */
+  boolean containsIn() {
+    return isGroup() ? operands.stream().anyMatch(Filter::containsIn) : isIn();
+  }
+
+  /** Appends the value-free structure of this filter: operators, properties and group sizes. */
+  void appendShape(List<Object> shape) {
+    shape.add(operator);
+    if (isGroup()) {
+      shape.add(operands.size());
+      operands.forEach(operand -> operand.appendShape(shape));
+    } else {
+      shape.add(property);
+    }
+  }
+
+  /**
+   * Appends the bind values depth-first, left to right: the order their markers render in. An
+   * {@link #in} filter appends its values as one list, which the renderer binds or expands.
+   */
+  void appendValues(List<Object> values) {
+    if (isGroup()) {
+      operands.forEach(operand -> operand.appendValues(values));
+    } else if (bindsValue()) {
+      values.add(value);
+    }
+  }
+
+  void appendProperties(List<PropertyRef<?, ?>> properties) {
+    if (isGroup()) {
+      operands.forEach(operand -> operand.appendProperties(properties));
+    } else {
+      properties.add(property);
+    }
+  }
+
+  @Override
+  public String toString() {
+    if (isGroup()) {
+      List<String> rendered = new ArrayList<>(operands.size());
+      operands.forEach(operand -> rendered.add(operand.toString()));
+      return "(" + String.join(" " + operator + " ", rendered) + ")";
+    }
+    return property.name() + " " + operator + (bindsValue() ? " " + value : "");
+  }
+
+  private static Filter comparison(String operator, PropertyRef<?, ?> property, Object value) {
+    Objects.requireNonNull(property, "property");
+    if (value == null) {
+      throw new IllegalArgumentException("Cannot compare '" + property.name() + "' " + operator
+          + " null; use Filter.isNull or Filter.isNotNull");
+    }
+
+    return new Filter(operator, property, value, List.of());
+  }
+
+  private Filter combine(String groupOperator, Filter other) {
+    Objects.requireNonNull(other, "other");
+
+    List<Filter> combined = new ArrayList<>();
+    addFlattened(groupOperator, this, combined);
+    addFlattened(groupOperator, other, combined);
+    return new Filter(groupOperator, null, null, List.copyOf(combined));
+  }
+
+  private static void addFlattened(String groupOperator, Filter filter, List<Filter> combined) {
+    if (filter.isGroup() && filter.operator.equals(groupOperator)) {
+      combined.addAll(filter.operands);
+    } else {
+      combined.add(filter);
+    }
+  }
+}
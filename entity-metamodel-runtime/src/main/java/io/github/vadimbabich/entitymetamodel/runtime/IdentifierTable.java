@@ -0,0 +1,133 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+
+/**
+ * Table and column identifiers of a {@link ResolvedMetamodel}, rendered once for one dialect's
+ * {@link IdentifierProcessing}: quoted where the mapping context declares them quoted, with the
+ * dialect's quote character and letter casing, exactly as Spring's renderer would write them.
+ * Aliased forms are prepared once per instance, so statement text is assembled by concatenation.
+ * Immutable and thread-safe; build one per dialect, as {@link QueryRenderer} does.
+ */
+public final class IdentifierTable {
+
+  private final ResolvedMetamodel names;
+  private final IdentifierProcessing processing;
+  private final Map<Class<?>, RenderedEntity> entities;
+  private final Map<EntityRef<?>, RenderedInstance> instances = new ConcurrentHashMap<>();
+
+  private IdentifierTable(ResolvedMetamodel names, IdentifierProcessing processing,
+      Map<Class<?>, RenderedEntity> entities) {
+    this.names = names;
+    this.processing = processing;
+    this.entities = entities;
+  }
+
+  /**
+   * Renders every identifier of {@code names} for {@code processing}, typically
+   * {@code dialect.getIdentifierProcessing()}.
+   */
+  public static IdentifierTable of(ResolvedMetamodel names, IdentifierProcessing processing) {
+    Objects.requireNonNull(names, "names");
+    Objects.requireNonNull(processing, "processing");
+
+    Map<Class<?>, RenderedEntity> entities = new HashMap<>();
+    for (Class<?> entityType : names.entityTypes()) {
+      SqlIdentifier[] columnIdentifiers = names.columnIdentifiers(entityType);
+      String[] columns = new String[columnIdentifiers.length];
+      for (int slot = 0; slot < columns.length; slot++) {
+        columns[slot] = columnIdentifiers[slot] == null
+            ? null
+            : columnIdentifiers[slot].toSql(processing);
+      }
+      entities.put(entityType,
+          new RenderedEntity(names.tableIdentifier(entityType).toSql(processing), columns));
+    }
+    return new IdentifierTable(names, processing, Map.copyOf(entities));
+  }
+
+  /** The table identifier, such as {@code "accounts"}. */
+  public String table(EntityRef<?> entity) {
+    return entity(entity.entityType()).table;
+  }
+
+  /** The table with its instance alias, as a {@code FROM} or {@code JOIN} names it. */
+  public String aliasedTable(EntityRef<?> instance) {
+    return instance(instance).aliasedTable;
+  }
+
+  /** The column identifier, unqualified, such as {@code "owner_email"}. */
+  public String column(PropertyRef<?, ?> property) {
+    return entity(property.entity().entityType()).columns[slot(property)];
+  }
+
+  /** The column qualified by its instance alias, such as {@code account."owner_email"}. */
+  public String qualifiedColumn(PropertyRef<?, ?> property) {
+    return instance(property.entity()).qualifiedColumns[slot(property)];
+  }
+
+  @Override
+  public String toString() {
+    return "IdentifierTable[" + names + ", " + processing + "]";
+  }
+
+  private int slot(PropertyRef<?, ?> property) {
+    return names.slot(property.entity().entityType(), property.name(), property.ordinal());
+  }
+
+  private RenderedEntity entity(Class<?> entityType) {
+    RenderedEntity entity = entities.get(entityType);
+
+    if (entity == null) {
+      throw new IllegalArgumentException(
+          "Entity '" + entityType.getSimpleName() + "' is not part of this identifier table");
+    }
+    return entity;
+  }
+
+  private RenderedInstance instance(EntityRef<?> instance) {
+    RenderedInstance rendered = instances.get(instance);
+    if (rendered != null) {
+      return rendered;
+    }
+
+    RenderedEntity entity = entity(instance.entityType());
+    String alias = SqlIdentifier.unquoted(instance.alias()).toSql(processing);
+    String[] qualifiedColumns = new String[entity.columns.length];
+    for (int slot = 0; slot < qualifiedColumns.length; slot++) {
+      qualifiedColumns[slot] = entity.columns[slot] == null
+          ? null
+          : alias + "." + entity.columns[slot];
+    }
+    RenderedInstance created = new RenderedInstance(entity.table + " " + alias, qualifiedColumns);
+    RenderedInstance raced = instances.putIfAbsent(instance, created);
+    return raced != null ? raced : created;
+  }
+
+  private static final class RenderedEntity {
+
+    private final String table;
+    private final String[] columns;
+
+    private RenderedEntity(String table, String[] columns) {
+      this.table = table;
+      this.columns = columns;
+    }
+  }
+
+  private static final class RenderedInstance {
+
+    private final String aliasedTable;
+    private final String[] qualifiedColumns;
+
+    private RenderedInstance(String aliasedTable, String[] qualifiedColumns) {
+      this.aliasedTable = aliasedTable;
+      this.qualifiedColumns = qualifiedColumns;
+    }
+  }
+}
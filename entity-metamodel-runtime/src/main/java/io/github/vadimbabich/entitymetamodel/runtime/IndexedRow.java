@@ -0,0 +1,12 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+/**
+ * Positional read access to one result row. The runtime stays free of driver types, so callers
+ * adapt their row once: an R2DBC {@code Row} becomes {@code row::get}.
+ */
+@FunctionalInterface
+public interface IndexedRow {
+
+  /** The value of the column at the zero-based {@code index}, or {@code null}. */
+  Object get(int index);
+}
@@ -0,0 +1,57 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable join tree from a root instance to target instances, as a {@link JoinPlanner} derives
+ * it: one hop per joined instance, parents before children. Apply it to a query whose
+ * {@code FROM} or joins already include the root with {@link SelectQuery.Builder#join(JoinPlan)}.
+ */
+public final class JoinPlan {
+
+  private final EntityRef<?> root;
+  private final List<Hop> hops;
+  private final List<EntityRef<?>> instances;
+
+  JoinPlan(EntityRef<?> root, List<Hop> hops) {
+    this.root = root;
+    this.hops = List.copyOf(hops);
+
+    List<EntityRef<?>> joined = new ArrayList<>(hops.size());
+    hops.forEach(hop -> joined.add(hop.to.entity()));
+    this.instances = List.copyOf(joined);
+  }
+
+  public EntityRef<?> root() {
+    return root;
+  }
+
+  /** The joined instances in join order: every target, plus the intermediates leading to them. */
+  public List<EntityRef<?>> instances() {
+    return instances;
+  }
+
+  List<Hop> hops() {
+    return hops;
+  }
+
+  @Override
+  public String toString() {
+    List<String> rendered = new ArrayList<>(hops.size());
+    hops.forEach(hop -> rendered.add(hop.from + " = " + hop.to));
+    return "JoinPlan[" + root + ": " + String.join(", ", rendered) + "]";
+  }
+
+  /** One join: the property on an instance already joined, and the one on the instance it adds. */
+  static final class Hop {
+
+    final PropertyRef<?, ?> from;
+    final PropertyRef<?, ?> to;
+
+    Hop(PropertyRef<?, ?> from, PropertyRef<?, ?> to) {
+      this.from = from;
+      this.to = to;
+    }
+  }
+}
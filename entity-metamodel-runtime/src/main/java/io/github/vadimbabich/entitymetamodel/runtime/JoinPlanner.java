@@ -0,0 +1,193 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Derives {@link JoinPlan}s over a fixed set of {@link JoinRef} relationships, each traversable in
+ * either direction. A target is reached along the shortest chain of relationships from the root's
+ * entity type; intermediate entities join as their default instances and the last hop lands on the
+ * target instance itself. A target reachable by two equally short chains is rejected rather than
+ * guessed at. Plans are memoized by (root, targets) in a caller-supplied {@link QueryShapeCache},
+ * so assembling a query of a known shape does not search again. Immutable and thread-safe.
+ */
+public final class JoinPlanner {
+
+  private final Map<Class<?>, List<Edge>> edges;
+  private final QueryShapeCache cache;
+
+  private JoinPlanner(Map<Class<?>, List<Edge>> edges, QueryShapeCache cache) {
+    this.edges = edges;
+    this.cache = cache;
+  }
+
+  /** A planner over {@code relationships}, memoizing its plans in {@code cache}. */
+  public static JoinPlanner of(Collection<? extends JoinRef<?, ?>> relationships,
+      QueryShapeCache cache) {
+    Objects.requireNonNull(relationships, "relationships");
+    Objects.requireNonNull(cache, "cache");
+
+    Set<JoinRef<?, ?>> unique = new LinkedHashSet<>();
+    relationships.forEach(via -> unique.add(Objects.requireNonNull(via, "relationship")));
+
+    Map<Class<?>, List<Edge>> edges = new LinkedHashMap<>();
+    for (JoinRef<?, ?> via : unique) {
+      edges.computeIfAbsent(via.source().entity().entityType(), type -> new ArrayList<>())
+          .add(new Edge(via, via.source(), via.target()));
+      edges.computeIfAbsent(via.target().entity().entityType(), type -> new ArrayList<>())
+          .add(new Edge(via, via.target(), via.source()));
+    }
+    Map<Class<?>, List<Edge>> frozen = new LinkedHashMap<>();
+    edges.forEach((type, outgoing) -> frozen.put(type, List.copyOf(outgoing)));
+
+    return new JoinPlanner(Collections.unmodifiableMap(frozen), cache);
+  }
+
+  /**
+   * The join tree from {@code root} to every target, parents before children. Fails when a target
+   * has the root's entity type (join it explicitly), is unreachable, or is reachable by two
+   * equally short chains; narrow the relationship set or join by hand in those cases.
+   */
+  public JoinPlan plan(EntityRef<?> root, List<? extends EntityRef<?>> targets) {
+    Objects.requireNonNull(root, "root");
+    Objects.requireNonNull(targets, "targets");
+    if (targets.isEmpty()) {
+      throw new IllegalArgumentException("No targets to join to " + root);
+    }
+    List<EntityRef<?>> frozenTargets = List.copyOf(targets);
+    if (new HashSet<>(frozenTargets).size() != frozenTargets.size()) {
+      throw new IllegalArgumentException("A target is listed twice: " + frozenTargets);
+    }
+
+    return cache.get(this, List.of(root, frozenTargets), JoinPlan.class,
+        () -> derive(root, frozenTargets));
+  }
+
+  @Override
+  public String toString() {
+    return "JoinPlanner" + edges.keySet();
+  }
+
+  private JoinPlan derive(EntityRef<?> root, List<EntityRef<?>> targets) {
+    Search search = search(root.entityType());
+    Map<EntityRef<?>, JoinPlan.Hop> joined = new LinkedHashMap<>();
+
+    for (EntityRef<?> target : targets) {
+      if (target.entityType() == root.entityType()) {
+        throw new IllegalArgumentException(target + " has the root's entity type; self-joins "
+            + "need an explicit SelectQuery.Builder.join");
+      }
+      List<Edge> path = search.pathTo(target);
+
+      EntityRef<?> current = root;
+      for (int hop = 0; hop < path.size(); hop++) {
+        Edge edge = path.get(hop);
+        EntityRef<?> next = hop == path.size() - 1
+            ? target
+            : EntityRef.of(edge.far.entity().entityType());
+        if (!joined.containsKey(next)) {
+          joined.put(next, new JoinPlan.Hop(anchor(edge.near, current), anchor(edge.far, next)));
+        }
+        current = next;
+      }
+    }
+
+    return new JoinPlan(root, new ArrayList<>(joined.values()));
+  }
+
+  /** Breadth-first over entity types, recording each type's first edge and any tie. */
+  private Search search(Class<?> rootType) {
+    Map<Class<?>, Integer> distance = new HashMap<>();
+    Map<Class<?>, Edge> reachedBy = new HashMap<>();
+    Map<Class<?>, Edge[]> tiedAt = new HashMap<>();
+    Queue<Class<?>> pending = new ArrayDeque<>();
+    distance.put(rootType, 0);
+    pending.add(rootType);
+
+    while (!pending.isEmpty()) {
+      Class<?> type = pending.remove();
+      int nextDistance = distance.get(type) + 1;
+      for (Edge edge : edges.getOrDefault(type, List.of())) {
+        Class<?> next = edge.far.entity().entityType();
+        Integer known = distance.get(next);
+        if (known == null) {
+          distance.put(next, nextDistance);
+          reachedBy.put(next, edge);
+          if (tiedAt.containsKey(type)) {
+            tiedAt.put(next, tiedAt.get(type));
+          }
+          pending.add(next);
+        } else if (known == nextDistance && !tiedAt.containsKey(next)) {
+          tiedAt.put(next, new Edge[] {reachedBy.get(next), edge});
+        }
+      }
+    }
+    return new Search(rootType, reachedBy, tiedAt);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E> PropertyRef<E, ?> anchor(PropertyRef<E, ?> property, EntityRef<?> instance) {
+    return property.of((EntityRef<E>) instance);
+  }
+
+  /** One direction of a relationship: {@code near} is on the type walked from. */
+  private static final class Edge {
+
+    private final JoinRef<?, ?> via;
+    private final PropertyRef<?, ?> near;
+    private final PropertyRef<?, ?> far;
+
+    private Edge(JoinRef<?, ?> via, PropertyRef<?, ?> near, PropertyRef<?, ?> far) {
+      this.via = via;
+      this.near = near;
+      this.far = far;
+    }
+  }
+
+  private static final class Search {
+
+    private final Class<?> rootType;
+    private final Map<Class<?>, Edge> reachedBy;
+    private final Map<Class<?>, Edge[]> tiedAt;
+
+    private Search(Class<?> rootType, Map<Class<?>, Edge> reachedBy,
+        Map<Class<?>, Edge[]> tiedAt) {
+      this.rootType = rootType;
+      this.reachedBy = reachedBy;
+      this.tiedAt = tiedAt;
+    }
+
+    private List<Edge> pathTo(EntityRef<?> target) {
+      Class<?> type = target.entityType();
+      if (!reachedBy.containsKey(type)) {
+        throw new IllegalArgumentException("No relationship path from " + rootType.getSimpleName()
+            + " to " + target);
+      }
+      Edge[] tie = tiedAt.get(type);
+      if (tie != null) {
+        throw new IllegalArgumentException("The path to " + target + " is ambiguous: "
+            + tie[0].far.entity().entityType().getSimpleName() + " is reached both through "
+            + tie[0].via + " and through " + tie[1].via);
+      }
+
+      List<Edge> path = new ArrayList<>();
+      for (Class<?> step = type; step != rootType; ) {
+        Edge edge = reachedBy.get(step);
+        path.add(0, edge);
+        step = edge.near.entity().entityType();
+      }
+      return path;
+    }
+  }
+}
@@ -47,7 +47,7 @@ public final class JoinRef<S, T> {
 
   @Override
   public int hashCode() {
-    return Objects.hash(source, target);
+    return 31 * source.hashCode() + target.hashCode();
   }
 
   @Override
@@ -0,0 +1,264 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Immutable keyset (seek) ordering for {@link SelectQuery}: one or more properties of one instance,
+ * ending in its entity's identifier, so every row has a unique position. A page after the first
+ * starts with the row-value predicate {@code (k1, ..., id) > (?, ..., ?)} instead of an
+ * {@code OFFSET}, so with an index over the keyset a deep page costs what the first one does.
+ * All properties sort in one direction, which is what a row-value comparison expresses.
+ *
+ * <p>Continuation tokens are opaque URL-safe strings carrying the last row's key values and a
+ * fingerprint of the ordering; a token from another ordering is rejected. Tokens are not signed:
+ * they only hold values the client has already seen.
+ */
+public final class Keyset<E> {
+
+  private final EntityRef<E> entity;
+  private final List<PropertyRef<E, ?>> properties;
+  private final boolean descending;
+  private final int fingerprint;
+
+  private Keyset(List<PropertyRef<E, ?>> properties, boolean descending) {
+    this.entity = properties.get(0).entity();
+    this.properties = properties;
+    this.descending = descending;
+
+    StringBuilder canonical = new StringBuilder(entity.entityType().getName());
+    properties.forEach(property -> canonical.append(',').append(property.name()));
+    this.fingerprint = canonical.append(descending ? ",desc" : ",asc").toString().hashCode();
+  }
+
+  /** Smallest key first; {@code properties} must end in the identifier. */
+  public static <E> Keyset<E> ascending(ResolvedMetamodel names,
+      List<? extends PropertyRef<E, ?>> properties) {
+    return of(names, properties, false);
+  }
+
+  /** Largest key first, such as newest first; {@code properties} must end in the identifier. */
+  public static <E> Keyset<E> descending(ResolvedMetamodel names,
+      List<? extends PropertyRef<E, ?>> properties) {
+    return of(names, properties, true);
+  }
+
+  public EntityRef<E> entity() {
+    return entity;
+  }
+
+  /** The ordering, most significant first; the last one is the identifier. */
+  public List<PropertyRef<E, ?>> properties() {
+    return properties;
+  }
+
+  public boolean descending() {
+    return descending;
+  }
+
+  /** The token continuing after a row with these key values, in {@link #properties()} order. */
+  public String tokenAfter(List<?> keyValues) {
+    Objects.requireNonNull(keyValues, "keyValues");
+    if (keyValues.size() != properties.size()) {
+      throw new IllegalArgumentException("Expected " + properties.size() + " key values for "
+          + this + ", got " + keyValues.size());
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(fingerprint);
+      for (int index = 0; index < properties.size(); index++) {
+        out.writeUTF(format(properties.get(index), keyValues.get(index)));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+  }
+
+  /** The token that continues after {@code lastRow}, which must project every keyset property. */
+  public String tokenAfter(ProjectionDecoder.DecodedRow lastRow) {
+    Objects.requireNonNull(lastRow, "lastRow");
+
+    List<Object> keyValues = new ArrayList<>(properties.size());
+    properties.forEach(property -> keyValues.add(lastRow.get(property)));
+    return tokenAfter(keyValues);
+  }
+
+  /** The key values a token carries, typed by the properties' declared types. */
+  List<Object> keyValues(String token) {
+    Objects.requireNonNull(token, "token");
+
+    int tokenFingerprint;
+    List<String> texts = new ArrayList<>(properties.size());
+    try (DataInputStream in = new DataInputStream(
+        new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+      tokenFingerprint = in.readInt();
+      while (in.available() > 0) {
+        texts.add(in.readUTF());
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      throw new IllegalArgumentException("Malformed continuation token", e);
+    }
+    if (tokenFingerprint != fingerprint) {
+      throw new IllegalArgumentException(
+          "The continuation token belongs to another ordering than " + this);
+    }
+    if (texts.size() != properties.size()) {
+      throw new IllegalArgumentException("Malformed continuation token");
+    }
+
+    List<Object> values = new ArrayList<>(properties.size());
+    for (int index = 0; index < properties.size(); index++) {
+      try {
+        values.add(parse(properties.get(index), texts.get(index)));
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Malformed continuation token", e);
+      }
+    }
+    return values;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof Keyset<?> otherKeyset)) {
+      return false;
+    }
+
+    return descending == otherKeyset.descending && properties.equals(otherKeyset.properties);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * properties.hashCode() + (descending ? 1 : 0);
+  }
+
+  @Override
+  public String toString() {
+    List<String> names = new ArrayList<>(properties.size());
+    properties.forEach(property -> names.add(property.name()));
+    return "Keyset[" + entity + " by " + String.join(", ", names)
+        + (descending ? " descending" : " ascending") + "]";
+  }
+
+  private static <E> Keyset<E> of(ResolvedMetamodel names,
+      List<? extends PropertyRef<E, ?>> properties, boolean descending) {
+    Objects.requireNonNull(names, "names");
+    Objects.requireNonNull(properties, "properties");
+    if (properties.isEmpty()) {
+      throw new IllegalArgumentException("A keyset needs at least the identifier");
+    }
+    List<PropertyRef<E, ?>> ordering = List.copyOf(properties);
+
+    EntityRef<E> entity = ordering.get(0).entity();
+    for (PropertyRef<E, ?> property : ordering) {
+      if (!property.entity().equals(entity)) {
+        throw new IllegalArgumentException("Keyset properties must share one instance: "
+            + property + " is not on " + entity);
+      }
+      if (!supported(QueryRenderer.boxed(property.declaredRawType()))) {
+        throw new IllegalArgumentException("'" + property.name() + "' of type "
+            + property.declaredRawType().getSimpleName() + " cannot be carried in a continuation "
+            + "token; use scalar, temporal, UUID or enum properties");
+      }
+    }
+    if (new HashSet<>(ordering).size() != ordering.size()) {
+      throw new IllegalArgumentException("A keyset property is listed twice: " + ordering);
+    }
+
+    String idName = names.idPropertyName(entity.entityType());
+    String last = ordering.get(ordering.size() - 1).name();
+    if (idName == null || !idName.equals(last)) {
+      throw new IllegalArgumentException("A keyset must end in the identifier of "
+          + entity.entityType().getSimpleName() + " so row positions are unique, not in '"
+          + last + "'");
+    }
+
+    return new Keyset<>(ordering, descending);
+  }
+
+  private static boolean supported(Class<?> type) {
+    return type == String.class || type == Long.class || type == Integer.class
+        || type == Short.class || type == Byte.class || type == Boolean.class
+        || type == Double.class || type == Float.class || type == BigDecimal.class
+        || type == BigInteger.class || type == UUID.class || type == Instant.class
+        || type == LocalDate.class || type == LocalDateTime.class || type == LocalTime.class
+        || type == OffsetDateTime.class || type.isEnum();
+  }
+
+  private static String format(PropertyRef<?, ?> property, Object value) {
+    Class<?> type = QueryRenderer.boxed(property.declaredRawType());
+    if (value == null) {
+      throw new IllegalArgumentException("Key value for '" + property.name() + "' is null; keyset "
+          + "paging needs non-null keys");
+    }
+    if (!type.isInstance(value)) {
+      throw new IllegalArgumentException("Key value " + value + " for '" + property.name()
+          + "' is not a " + type.getSimpleName());
+    }
+    return type.isEnum() ? ((Enum<?>) value).name() : value.toString();
+  }
+
+  private static Object parse(PropertyRef<?, ?> property, String text) {
+    Class<?> type = QueryRenderer.boxed(property.declaredRawType());
+    if (type == String.class) {
+      return text;
+    } else if (type == Long.class) {
+      return Long.valueOf(text);
+    } else if (type == Integer.class) {
+      return Integer.valueOf(text);
+    } else if (type == Short.class) {
+      return Short.valueOf(text);
+    } else if (type == Byte.class) {
+      return Byte.valueOf(text);
+    } else if (type == Boolean.class) {
+      return Boolean.valueOf(text);
+    } else if (type == Double.class) {
+      return Double.valueOf(text);
+    } else if (type == Float.class) {
+      return Float.valueOf(text);
+    } else if (type == BigDecimal.class) {
+      return new BigDecimal(text);
+    } else if (type == BigInteger.class) {
+      return new BigInteger(text);
+    } else if (type == UUID.class) {
+      return UUID.fromString(text);
+    } else if (type == Instant.class) {
+      return Instant.parse(text);
+    } else if (type == LocalDate.class) {
+      return LocalDate.parse(text);
+    } else if (type == LocalDateTime.class) {
+      return LocalDateTime.parse(text);
+    } else if (type == LocalTime.class) {
+      return LocalTime.parse(text);
+    } else if (type == OffsetDateTime.class) {
+      return OffsetDateTime.parse(text);
+    }
+    for (Object constant : type.getEnumConstants()) {
+      if (((Enum<?>) constant).name().equals(text)) {
+        return constant;
+      }
+    }
+    throw new IllegalArgumentException(type.getSimpleName() + " has no constant " + text);
+  }
+}
@@ -0,0 +1,194 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Splits the rows of one {@link SelectQuery} shape into per-instance value arrays. Every
+ * {@code <tableAlias>__<column>} label is matched to its column position once, when the decoder is
+ * built; decoding a row is then an indexed read per column with no label comparison, however
+ * many instances the query joins. Immutable and thread-safe: build one per query shape and keep
+ * it next to the query.
+ */
+public final class ProjectionDecoder {
+
+  private final ResolvedMetamodel names;
+  private final List<EntityRef<?>> instances;
+  private final List<List<PropertyRef<?, ?>>> properties;
+  private final List<String> labels;
+  private final int[] rowIndex;
+  private final int[] instanceSlot;
+  private final int[] valuePosition;
+  private final int[] widths;
+
+  private ProjectionDecoder(ResolvedMetamodel names, List<EntityRef<?>> instances,
+      List<List<PropertyRef<?, ?>>> properties, List<String> labels, int[] rowIndex,
+      int[] instanceSlot, int[] valuePosition, int[] widths) {
+    this.names = names;
+    this.instances = instances;
+    this.properties = properties;
+    this.labels = labels;
+    this.rowIndex = rowIndex;
+    this.instanceSlot = instanceSlot;
+    this.valuePosition = valuePosition;
+    this.widths = widths;
+  }
+
+  /**
+   * A decoder reading each projected column at its select-list position, as the SQL of a
+   * {@link QueryRenderer} returns them.
+   */
+  public static ProjectionDecoder of(SelectQuery<?> query, ResolvedMetamodel names) {
+    Objects.requireNonNull(query, "query");
+    Objects.requireNonNull(names, "names");
+
+    List<EntityRef<?>> instances = new ArrayList<>();
+    List<List<PropertyRef<?, ?>>> properties = new ArrayList<>();
+    List<String> labels = new ArrayList<>();
+    int columns = query.projection().size();
+    int[] instanceSlot = new int[columns];
+    int[] valuePosition = new int[columns];
+
+    for (int column = 0; column < columns; column++) {
+      PropertyRef<?, ?> property = query.projection().get(column);
+      int slot = instances.indexOf(property.entity());
+      if (slot < 0) {
+        slot = instances.size();
+        instances.add(property.entity());
+        properties.add(new ArrayList<>());
+      }
+      instanceSlot[column] = slot;
+      valuePosition[column] = properties.get(slot).size();
+      properties.get(slot).add(property);
+      labels.add(SelectQuery.label(property, names));
+    }
+
+    int[] widths = properties.stream().mapToInt(List::size).toArray();
+    List<List<PropertyRef<?, ?>>> frozen = new ArrayList<>(properties.size());
+    properties.forEach(group -> frozen.add(List.copyOf(group)));
+    int[] selectOrder = new int[columns];
+    for (int column = 0; column < columns; column++) {
+      selectOrder[column] = column;
+    }
+
+    return new ProjectionDecoder(names, List.copyOf(instances), List.copyOf(frozen),
+        List.copyOf(labels), selectOrder, instanceSlot, valuePosition, widths);
+  }
+
+  /**
+   * This decoder reading each label where {@code rowLabels}, the column names of the actual
+   * result, puts it — for results whose column order differs from the select list. Labels match
+   * case-insensitively, as databases may fold unquoted labels; a missing or ambiguous label fails
+   * here rather than per row.
+   */
+  public ProjectionDecoder forLabels(List<String> rowLabels) {
+    Objects.requireNonNull(rowLabels, "rowLabels");
+
+    Map<String, Integer> positions = new HashMap<>();
+    for (int index = 0; index < rowLabels.size(); index++) {
+      String label = rowLabels.get(index).toLowerCase(Locale.ROOT);
+      if (positions.putIfAbsent(label, index) != null) {
+        throw new IllegalArgumentException("The row label '" + rowLabels.get(index)
+            + "' appears more than once; projected columns must be distinguishable");
+      }
+    }
+
+    int[] remapped = new int[labels.size()];
+    for (int column = 0; column < labels.size(); column++) {
+      Integer index = positions.get(labels.get(column).toLowerCase(Locale.ROOT));
+      if (index == null) {
+        throw new IllegalArgumentException(
+            "The row has no column labelled '" + labels.get(column) + "': " + rowLabels);
+      }
+      remapped[column] = index;
+    }
+
+    return new ProjectionDecoder(names, instances, properties, labels, remapped, instanceSlot,
+        valuePosition, widths);
+  }
+
+  /** The projected labels, in select-list order. */
+  public List<String> labels() {
+    return labels;
+  }
+
+  /** The entity instances of the projection, in order of their first projected column. */
+  public List<EntityRef<?>> instances() {
+    return instances;
+  }
+
+  /** The slot of {@code instance}'s values in every {@link DecodedRow}; resolve once, reuse. */
+  public int slotOf(EntityRef<?> instance) {
+    int slot = instances.indexOf(instance);
+    if (slot < 0) {
+      throw new IllegalArgumentException(instance + " is not projected by this query");
+    }
+    return slot;
+  }
+
+  /** The position of {@code property} within its instance's value array; resolve once, reuse. */
+  public int positionOf(PropertyRef<?, ?> property) {
+    int position = properties.get(slotOf(property.entity())).indexOf(property);
+    if (position < 0) {
+      throw new IllegalArgumentException(property + " is not projected by this query");
+    }
+    return position;
+  }
+
+  /** The projected properties of the instance in {@code slot}, in value-array order. */
+  public List<PropertyRef<?, ?>> properties(int slot) {
+    return properties.get(slot);
+  }
+
+  /** Reads every projected column of {@code row} once, by position, into per-instance arrays. */
+  public DecodedRow decode(IndexedRow row) {
+    Object[][] values = new Object[widths.length][];
+    for (int slot = 0; slot < widths.length; slot++) {
+      values[slot] = new Object[widths[slot]];
+    }
+    for (int column = 0; column < rowIndex.length; column++) {
+      values[instanceSlot[column]][valuePosition[column]] = row.get(rowIndex[column]);
+    }
+    return new DecodedRow(this, values);
+  }
+
+  @Override
+  public String toString() {
+    return "ProjectionDecoder" + labels;
+  }
+
+  /** One decoded row: a value array per projected instance, in the decoder's slot order. */
+  public static final class DecodedRow {
+
+    private final ProjectionDecoder decoder;
+    private final Object[][] values;
+
+    private DecodedRow(ProjectionDecoder decoder, Object[][] values) {
+      this.decoder = decoder;
+      this.values = values;
+    }
+
+    /** The values of the instance in {@code slot}, in {@link #properties(int)} order. */
+    public Object[] values(int slot) {
+      return values[slot];
+    }
+
+    public Object[] values(EntityRef<?> instance) {
+      return values[decoder.slotOf(instance)];
+    }
+
+    /** The value of one property; prefer {@link #values(int)} with precomputed positions. */
+    @SuppressWarnings("unchecked")
+    public <T> T get(PropertyRef<?, T> property) {
+      return (T) values[decoder.slotOf(property.entity())][decoder.positionOf(property)];
+    }
+
+    public List<PropertyRef<?, ?>> properties(int slot) {
+      return decoder.properties(slot);
+    }
+  }
+}
@@ -4,22 +4,29 @@ import java.util.Objects;
 import org.springframework.data.relational.core.mapping.RelationalMappingContext;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
 import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
 
 /**
  * Immutable, typed handle to one entity property on one {@link EntityRef table instance}. Equality
  * is value identity over {@code (entityType, propertyName, alias)}; SQL names resolve on demand
- * through a mapping context and are never cached here.
+ * through a mapping context, or through a {@link ResolvedMetamodel} the caller built, and are never
+ * cached here. The optional ordinal is derived from the entity and takes no part in equality.
  */
 public final class PropertyRef<E, T> {
 
+  /** The {@link #ordinal()} of a handle created without one. */
+  public static final int NO_ORDINAL = -1;
+
   private final EntityRef<E> entity;
   private final String propertyName;
   private final Class<?> declaredRawType;
+  private final int ordinal;
 
-  PropertyRef(EntityRef<E> entity, String propertyName, Class<?> declaredRawType) {
+  PropertyRef(EntityRef<E> entity, String propertyName, Class<?> declaredRawType, int ordinal) {
     this.entity = entity;
     this.propertyName = propertyName;
     this.declaredRawType = declaredRawType;
+    this.ordinal = ordinal;
   }
 
   /** The Java property name — the drop-in replacement for every {@code nameOf(...)} argument. */
@@ -35,11 +42,23 @@ public final class PropertyRef<E, T> {
     return declaredRawType;
   }
 
+  /**
+   * The dense per-entity position of this property in declaration order, or {@link #NO_ORDINAL}
+   * when the handle was created without one.
+   */
+  public int ordinal() {
+    return ordinal;
+  }
+
+  public boolean hasOrdinal() {
+    return ordinal != NO_ORDINAL;
+  }
+
   /** Re-anchors this property to another instance of the same entity (self-join reads). */
   public PropertyRef<E, T> of(EntityRef<E> instance) {
     Objects.requireNonNull(instance, "instance");
 
-    return new PropertyRef<>(instance, propertyName, declaredRawType);
+    return new PropertyRef<>(instance, propertyName, declaredRawType, ordinal);
   }
 
   /**
@@ -47,6 +66,11 @@ public final class PropertyRef<E, T> {
    * persistent there.
    */
   public String columnName(RelationalMappingContext mappingContext) {
+    return columnIdentifier(mappingContext).getReference();
+  }
+
+  /** The column identifier as the context declares it, quoted or not. */
+  SqlIdentifier columnIdentifier(RelationalMappingContext mappingContext) {
     Objects.requireNonNull(mappingContext, "mappingContext");
 
     RelationalPersistentEntity<?> persistentEntity =
@@ -60,7 +84,17 @@ public final class PropertyRef<E, T> {
               + "' is not persistent in this mapping context");
     }
 
-    return persistentProperty.getColumnName().getReference();
+    return persistentProperty.getColumnName();
+  }
+
+  /**
+   * Reads the column name from a snapshot the caller resolved earlier, failing when the snapshot
+   * does not hold this property.
+   */
+  public String columnName(ResolvedMetamodel resolvedMetamodel) {
+    Objects.requireNonNull(resolvedMetamodel, "resolvedMetamodel");
+
+    return resolvedMetamodel.columnName(entity.entityType(), propertyName, ordinal);
   }
 
   @Override
@@ -77,7 +111,7 @@ public final class PropertyRef<E, T> {
 
   @Override
   public int hashCode() {
-    return Objects.hash(entity, propertyName);
+    return 31 * entity.hashCode() + propertyName.hashCode();
   }
 
   @Override
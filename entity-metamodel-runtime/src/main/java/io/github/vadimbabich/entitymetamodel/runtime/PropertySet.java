@@ -0,0 +1,265 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable set of properties of one entity, held as a bitset over their ordinals — for projection
+ * masks, dirty sets and column subsets without hashing or boxing. A set is bound to the entity's
+ * declared properties, the list whose index is each property's ordinal, and iterates in that
+ * declaration order. Membership is per entity type: handles on aliased instances of the entity
+ * count as the same property.
+ */
+public final class PropertySet<E> implements Iterable<PropertyRef<E, ?>> {
+
+  private static final int WORD_BITS = 64;
+
+  private final List<PropertyRef<E, ?>> declared;
+  private final long[] words;
+
+  private PropertySet(List<PropertyRef<E, ?>> declared, long[] words) {
+    this.declared = declared;
+    this.words = words;
+  }
+
+  /**
+   * The empty set over {@code declared}, the entity's properties in declaration order with
+   * ordinals {@code 0..n-1}, such as the {@code PropertyRef} constants of a generated metamodel in
+   * the order they are declared.
+   */
+  public static <E> PropertySet<E> noneOf(List<? extends PropertyRef<E, ?>> declared) {
+    List<PropertyRef<E, ?>> properties = List.copyOf(declared);
+    requireDenseOrdinals(properties);
+
+    return new PropertySet<>(properties, new long[wordsFor(properties.size())]);
+  }
+
+  /** The set of every property in {@code declared}. */
+  public static <E> PropertySet<E> allOf(List<? extends PropertyRef<E, ?>> declared) {
+    PropertySet<E> none = noneOf(declared);
+    long[] words = new long[none.words.length];
+    int size = none.declared.size();
+
+    for (int word = 0; word < words.length; word++) {
+      int bitsInWord = Math.min(WORD_BITS, size - word * WORD_BITS);
+      words[word] = bitsInWord == WORD_BITS ? -1L : (1L << bitsInWord) - 1;
+    }
+    return new PropertySet<>(none.declared, words);
+  }
+
+  /** This set plus {@code property}; this set itself when it already contains it. */
+  public PropertySet<E> with(PropertyRef<E, ?> property) {
+    int ordinal = ordinalOf(property);
+    if (containsOrdinal(ordinal)) {
+      return this;
+    }
+
+    long[] result = words.clone();
+    result[ordinal / WORD_BITS] |= 1L << ordinal;
+    return new PropertySet<>(declared, result);
+  }
+
+  /** This set minus {@code property}; this set itself when it does not contain it. */
+  public PropertySet<E> without(PropertyRef<E, ?> property) {
+    int ordinal = ordinalOf(property);
+    if (!containsOrdinal(ordinal)) {
+      return this;
+    }
+
+    long[] result = words.clone();
+    result[ordinal / WORD_BITS] &= ~(1L << ordinal);
+    return new PropertySet<>(declared, result);
+  }
+
+  public PropertySet<E> union(PropertySet<E> other) {
+    requireSameEntity(other);
+
+    long[] result = new long[words.length];
+    for (int word = 0; word < words.length; word++) {
+      result[word] = words[word] | other.words[word];
+    }
+    return new PropertySet<>(declared, result);
+  }
+
+  public PropertySet<E> intersection(PropertySet<E> other) {
+    requireSameEntity(other);
+
+    long[] result = new long[words.length];
+    for (int word = 0; word < words.length; word++) {
+      result[word] = words[word] & other.words[word];
+    }
+    return new PropertySet<>(declared, result);
+  }
+
+  /** The properties of this set that {@code other} does not hold, such as the unchanged ones. */
+  public PropertySet<E> minus(PropertySet<E> other) {
+    requireSameEntity(other);
+
+    long[] result = new long[words.length];
+    for (int word = 0; word < words.length; word++) {
+      result[word] = words[word] & ~other.words[word];
+    }
+    return new PropertySet<>(declared, result);
+  }
+
+  public boolean contains(PropertyRef<E, ?> property) {
+    return containsOrdinal(ordinalOf(property));
+  }
+
+  public int size() {
+    int size = 0;
+    for (long word : words) {
+      size += Long.bitCount(word);
+    }
+    return size;
+  }
+
+  public boolean isEmpty() {
+    for (long word : words) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Passes the ordinal of every member to {@code action} in declaration order, without boxing. */
+  public void forEachOrdinal(IntConsumer action) {
+    Objects.requireNonNull(action, "action");
+
+    for (int word = 0; word < words.length; word++) {
+      long remaining = words[word];
+      while (remaining != 0) {
+        action.accept(word * WORD_BITS + Long.numberOfTrailingZeros(remaining));
+        remaining &= remaining - 1;
+      }
+    }
+  }
+
+  /** The members in declaration order, as the handles of the declared list. */
+  @Override
+  public Iterator<PropertyRef<E, ?>> iterator() {
+    return new Iterator<>() {
+      private int next = nextOrdinal(0);
+
+      @Override
+      public boolean hasNext() {
+        return next >= 0;
+      }
+
+      @Override
+      public PropertyRef<E, ?> next() {
+        if (next < 0) {
+          throw new NoSuchElementException();
+        }
+        PropertyRef<E, ?> property = declared.get(next);
+        next = nextOrdinal(next + 1);
+        return property;
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof PropertySet<?> otherSet)) {
+      return false;
+    }
+
+    return Arrays.equals(words, otherSet.words) && sameEntity(otherSet);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(words);
+  }
+
+  @Override
+  public String toString() {
+    StringJoiner names = new StringJoiner(", ", "PropertySet[", "]");
+    forEachOrdinal(ordinal -> names.add(declared.get(ordinal).name()));
+    return names.toString();
+  }
+
+  private int nextOrdinal(int from) {
+    int word = from / WORD_BITS;
+    if (word >= words.length) {
+      return -1;
+    }
+
+    long remaining = words[word] & (-1L << from);
+    while (true) {
+      if (remaining != 0) {
+        return word * WORD_BITS + Long.numberOfTrailingZeros(remaining);
+      }
+      if (++word == words.length) {
+        return -1;
+      }
+      remaining = words[word];
+    }
+  }
+
+  private boolean containsOrdinal(int ordinal) {
+    return (words[ordinal / WORD_BITS] & (1L << ordinal)) != 0;
+  }
+
+  private int ordinalOf(PropertyRef<E, ?> property) {
+    Objects.requireNonNull(property, "property");
+    int ordinal = property.ordinal();
+
+    if (ordinal < 0 || ordinal >= declared.size()
+        || !declared.get(ordinal).name().equals(property.name())
+        || declared.get(ordinal).entity().entityType() != property.entity().entityType()) {
+      throw new IllegalArgumentException(
+          "Property '" + property.name() + "' of entity '"
+              + property.entity().entityType().getSimpleName() + "' with ordinal " + ordinal
+              + " is not one of the declared properties of this set");
+    }
+    return ordinal;
+  }
+
+  private void requireSameEntity(PropertySet<E> other) {
+    Objects.requireNonNull(other, "other");
+
+    if (!sameEntity(other)) {
+      throw new IllegalArgumentException(
+          "Property sets over different declared properties cannot be combined: "
+              + this + " and " + other);
+    }
+  }
+
+  // Dense ordinals of one entity leave nothing else to compare: handles on aliased instances are
+  // the same properties, and a different size means different declared properties.
+  private boolean sameEntity(PropertySet<?> other) {
+    return other.declared.size() == declared.size()
+        && (declared.isEmpty() || other.entityType() == entityType());
+  }
+
+  private Class<?> entityType() {
+    return declared.get(0).entity().entityType();
+  }
+
+  private static <E> void requireDenseOrdinals(List<PropertyRef<E, ?>> declared) {
+    for (int position = 0; position < declared.size(); position++) {
+      PropertyRef<E, ?> property = declared.get(position);
+      if (property.ordinal() != position
+          || property.entity().entityType() != declared.get(0).entity().entityType()) {
+        throw new IllegalArgumentException(
+            "Declared properties must be of one entity with ordinals 0.." + (declared.size() - 1)
+                + " in order, but '" + property.name() + "' at position " + position
+                + " has ordinal " + property.ordinal());
+      }
+    }
+  }
+
+  private static int wordsFor(int size) {
+    return (size + WORD_BITS - 1) / WORD_BITS;
+  }
+}
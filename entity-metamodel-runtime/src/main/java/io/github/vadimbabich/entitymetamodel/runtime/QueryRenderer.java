@@ -0,0 +1,504 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.data.relational.core.dialect.Dialect;
+import org.springframework.data.relational.core.dialect.RenderContextFactory;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Comparison;
+import org.springframework.data.relational.core.sql.Condition;
+import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.Expressions;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+import org.springframework.data.relational.core.sql.OrderByField;
+import org.springframework.data.relational.core.sql.SQL;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder;
+import org.springframework.data.relational.core.sql.SimpleFunction;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+
+/**
+ * Renders {@link SelectQuery}s to SQL through Spring's statement builder, and {@link BatchInsert}s
+ * to multi-row inserts, memoizing the text per shape in a caller-supplied {@link QueryShapeCache}.
+ * Names come from a {@link ResolvedMetamodel}, so a cache hit touches neither the mapping context
+ * nor the renderer. Immutable and thread-safe; build one per dialect and keep it.
+ */
+public final class QueryRenderer {
+
+  /** The lowest limit among common drivers: PostgreSQL counts markers in a signed short. */
+  private static final int DEFAULT_MAX_BIND_MARKERS = 32767;
+
+  /** Rendered in place of the offset, then replaced by its marker: no query holds a literal. */
+  private static final long OFFSET_PLACEHOLDER = Long.MAX_VALUE;
+
+  private final ResolvedMetamodel names;
+  private final QueryShapeCache shapeCache;
+  private final BindMarkerStyle bindMarkers;
+  private final boolean arrayBoundIn;
+  private final int maxBindMarkers;
+  private final IdentifierTable identifiers;
+  private final SqlRenderer sqlRenderer;
+
+  private QueryRenderer(Builder builder) {
+    this.names = builder.names;
+    this.shapeCache = builder.shapeCache;
+    this.bindMarkers = builder.bindMarkers;
+    this.arrayBoundIn = builder.arrayBoundIn && builder.dialect != null
+        && builder.dialect.getArraySupport().isSupported();
+    this.maxBindMarkers = builder.maxBindMarkers;
+    this.identifiers = IdentifierTable.of(names, builder.dialect == null
+        ? IdentifierProcessing.NONE
+        : builder.dialect.getIdentifierProcessing());
+    this.sqlRenderer = builder.dialect == null
+        ? SqlRenderer.create()
+        : SqlRenderer.create(new RenderContextFactory(builder.dialect).createRenderContext());
+  }
+
+  /** Starts a renderer resolving names through {@code names} and memoizing in {@code cache}. */
+  public static Builder builder(ResolvedMetamodel names, QueryShapeCache shapeCache) {
+    Objects.requireNonNull(names, "names");
+    Objects.requireNonNull(shapeCache, "shapeCache");
+
+    return new Builder(names, shapeCache);
+  }
+
+  /** The identifiers this renderer writes, for statements assembled outside it. */
+  public IdentifierTable identifiers() {
+    return identifiers;
+  }
+
+  /**
+   * The query's SQL, rendered once per shape, with this query's bind values. The offset is bound
+   * after every other value, so the pages of a query share one text.
+   */
+  public RenderedQuery render(SelectQuery<?> query) {
+    Objects.requireNonNull(query, "query");
+
+    if (!query.containsIn()) {
+      String sql = shapeCache.get(this, query.shape(), () -> renderSql(query, null));
+      if (!query.hasOffset()) {
+        return new RenderedQuery(sql, query.bindValues());
+      }
+      List<Object> values = new ArrayList<>(query.bindValues());
+      values.add(query.offset());
+      return new RenderedQuery(sql, List.copyOf(values));
+    }
+
+    List<Object> values = new ArrayList<>();
+    List<Integer> buckets = new ArrayList<>();
+    collectValues(query.filter(), values, buckets);
+    values.addAll(query.seekValues());
+    if (query.hasOffset()) {
+      values.add(query.offset());
+    }
+    int[] bucketSizes = arrayBoundIn
+        ? null
+        : buckets.stream().mapToInt(Integer::intValue).toArray();
+
+    // Array-bound text is the same for every list size; padded text differs per bucket only.
+    Object shape = arrayBoundIn ? query.shape() : new BucketedShape(query.shape(), bucketSizes);
+    String sql = shapeCache.get(this, shape, () -> renderSql(query, bucketSizes));
+    return new RenderedQuery(sql, List.copyOf(values));
+  }
+
+  /**
+   * Splits {@code rows} into multi-row {@code INSERT} statements. Every row lists its values in
+   * {@link BatchInsert#columns()} order, and value {@code i} of a statement belongs to column
+   * {@code i % columns}, whose declared type types a {@code null}. Statements carry the insert's
+   * chunk size, lowered to fit {@link Builder#maxBindMarkers}; the rows left over go into
+   * statements of power-of-two sizes, so a batch of any length renders at most a few texts.
+   */
+  public <E> List<RenderedQuery> render(BatchInsert<E> insert, List<Object[]> rows) {
+    Objects.requireNonNull(insert, "insert");
+    Objects.requireNonNull(rows, "rows");
+
+    int width = insert.columns().size();
+    int chunk = Math.min(insert.chunkSize(), maxBindMarkers / width);
+    if (chunk < 1) {
+      throw new IllegalArgumentException("One row of " + width + " columns exceeds the limit of "
+          + maxBindMarkers + " bind markers");
+    }
+
+    List<RenderedQuery> statements = new ArrayList<>();
+    int next = 0;
+    while (next < rows.size()) {
+      int remaining = rows.size() - next;
+      int size = remaining >= chunk ? chunk : Integer.highestOneBit(remaining);
+
+      Object[] values = new Object[size * width];
+      for (int row = 0; row < size; row++) {
+        Object[] rowValues = rows.get(next + row);
+        if (rowValues.length != width) {
+          throw new IllegalArgumentException("Row " + (next + row) + " has " + rowValues.length
+              + " values for " + width + " columns of " + insert);
+        }
+        System.arraycopy(rowValues, 0, values, row * width, width);
+      }
+
+      int rowsInStatement = size;
+      String sql = shapeCache.get(this, new InsertShape(insert, size),
+          () -> renderInsertSql(insert, rowsInStatement));
+      statements.add(new RenderedQuery(sql, Collections.unmodifiableList(Arrays.asList(values))));
+      next += size;
+    }
+    return statements;
+  }
+
+  private String renderInsertSql(BatchInsert<?> insert, int rows) {
+    List<String> columnNames = new ArrayList<>(insert.columns().size());
+    insert.columns().forEach(column -> columnNames.add(identifiers.column(column)));
+
+    StringBuilder sql = new StringBuilder("INSERT INTO ")
+        .append(identifiers.table(insert.entity()))
+        .append(" (").append(String.join(", ", columnNames)).append(") VALUES ");
+    int marker = 0;
+    for (int row = 0; row < rows; row++) {
+      sql.append(row == 0 ? "(" : ", (");
+      for (int column = 0; column < columnNames.size(); column++) {
+        sql.append(column == 0 ? "" : ", ").append(bindMarkers.marker(marker++));
+      }
+      sql.append(')');
+    }
+
+    if (!insert.conflictAction().isEmpty()) {
+      List<String> conflictNames = new ArrayList<>();
+      insert.conflictColumns().forEach(column -> conflictNames.add(identifiers.column(column)));
+      sql.append(" ON CONFLICT (").append(String.join(", ", conflictNames)).append(") ")
+          .append(insert.conflictAction());
+
+      if (insert.conflictAction().equals(BatchInsert.DO_UPDATE)) {
+        List<String> assignments = new ArrayList<>();
+        for (String column : columnNames) {
+          if (!conflictNames.contains(column)) {
+            assignments.add(column + " = EXCLUDED." + column);
+          }
+        }
+        sql.append(" SET ").append(String.join(", ", assignments));
+      }
+    }
+    return sql.toString();
+  }
+
+  private void collectValues(Filter filter, List<Object> values, List<Integer> buckets) {
+    if (filter.isGroup()) {
+      filter.operands().forEach(operand -> collectValues(operand, values, buckets));
+    } else if (filter.isIn()) {
+      List<?> listed = (List<?>) filter.value();
+      if (arrayBoundIn) {
+        values.add(toArray(filter.property(), listed));
+      } else {
+        int bucket = bucketFor(listed.size());
+        values.addAll(listed);
+        for (int padding = listed.size(); padding < bucket; padding++) {
+          values.add(listed.get(listed.size() - 1));
+        }
+        buckets.add(bucket);
+      }
+    } else if (filter.bindsValue()) {
+      values.add(filter.value());
+    }
+  }
+
+  /** The smallest power of two that holds {@code size} values. */
+  static int bucketFor(int size) {
+    return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+  }
+
+  private static Object toArray(PropertyRef<?, ?> property, List<?> values) {
+    Class<?> componentType = boxed(property.declaredRawType());
+    Object array = Array.newInstance(componentType, values.size());
+    for (int index = 0; index < values.size(); index++) {
+      Object value = values.get(index);
+      if (!componentType.isInstance(value)) {
+        throw new IllegalArgumentException("Cannot bind " + value + " for '" + property.name()
+            + "' into an array of " + componentType.getSimpleName());
+      }
+      Array.set(array, index, value);
+    }
+    return array;
+  }
+
+  static Class<?> boxed(Class<?> type) {
+    return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+  }
+
+  private String renderSql(SelectQuery<?> query, int[] bucketSizes) {
+    Map<EntityRef<?>, Table> tables = new HashMap<>();
+    Table from = table(query.entity(), tables);
+
+    List<Expression> selectList = new ArrayList<>(query.projection().size());
+    for (PropertyRef<?, ?> property : query.projection()) {
+      selectList.add(column(property, tables).as(SelectQuery.label(property, names)));
+    }
+
+    // Paging goes first: only the FROM step offers it, and its position does not affect the text.
+    SelectBuilder.SelectFromAndJoin fromStep = Select.builder().select(selectList).from(from);
+    if (query.hasLimit() && query.hasOffset()) {
+      fromStep = fromStep.limitOffset(query.limit(), OFFSET_PLACEHOLDER);
+    } else if (query.hasLimit()) {
+      fromStep = fromStep.limit(query.limit());
+    } else if (query.hasOffset()) {
+      fromStep = fromStep.offset(OFFSET_PLACEHOLDER);
+    }
+
+    SelectBuilder.SelectJoin joined = fromStep;
+    SelectBuilder.SelectWhere whereStep = fromStep;
+    for (SelectQuery.Join join : query.joins()) {
+      Table target = table(join.target.entity(), tables);
+      SelectBuilder.SelectOn on = join.type.equals(SelectQuery.LEFT_JOIN)
+          ? joined.leftOuterJoin(target)
+          : joined.join(target);
+      SelectBuilder.SelectFromAndJoinCondition joinStep =
+          on.on(column(join.source, tables)).equals(column(join.target, tables));
+      joined = joinStep;
+      whereStep = joinStep;
+    }
+
+    RenderState state = new RenderState(bucketSizes);
+    Condition where = query.filter() == null ? null : condition(query.filter(), tables, state);
+    if (query.seeks()) {
+      Condition seek = seek(query.keyset(), state);
+      // A top-level OR group renders unparenthesized, and AND binds tighter than OR.
+      where = where == null ? seek
+          : (query.filter().operator().equals(Filter.OR) ? Conditions.nest(where) : where)
+              .and(seek);
+    }
+    SelectBuilder.SelectWhereAndOr filtered = where == null ? null : whereStep.where(where);
+
+    List<OrderByField> orderBy = new ArrayList<>(query.orderBy().size());
+    for (SelectQuery.Order order : query.orderBy()) {
+      OrderByField field = OrderByField.from(column(order.property, tables));
+      orderBy.add(order.descending ? field.desc() : field.asc());
+    }
+    SelectBuilder.BuildSelect built = filtered == null
+        ? (orderBy.isEmpty() ? whereStep : whereStep.orderBy(orderBy))
+        : (orderBy.isEmpty() ? filtered : filtered.orderBy(orderBy));
+
+    String sql = sqlRenderer.render(built.build());
+    return query.hasOffset() ? bindOffset(sql, state) : sql;
+  }
+
+  // Spring writes the limit clause after ORDER BY, so the offset's marker follows every other one.
+  private String bindOffset(String sql, RenderState state) {
+    String placeholder = Long.toString(OFFSET_PLACEHOLDER);
+    int position = sql.indexOf(placeholder);
+    if (position < 0 || sql.indexOf(placeholder, position + 1) >= 0) {
+      throw new IllegalStateException("The dialect's limit clause does not write the offset as"
+          + " given, so it cannot be bound: " + sql);
+    }
+    return sql.substring(0, position) + bindMarkers.marker(state.nextMarker++)
+        + sql.substring(position + placeholder.length());
+  }
+
+  private Condition condition(Filter filter, Map<EntityRef<?>, Table> tables, RenderState state) {
+    if (filter.isGroup()) {
+      Condition combined = null;
+      for (Filter operand : filter.operands()) {
+        Condition next = condition(operand, tables, state);
+        if (operand.isGroup()) {
+          next = Conditions.nest(next);
+        }
+        combined = combined == null
+            ? next
+            : filter.operator().equals(Filter.OR) ? combined.or(next) : combined.and(next);
+      }
+      return combined;
+    }
+
+    Column column = column(filter.property(), tables);
+    switch (filter.operator()) {
+      case Filter.IS_NULL:
+        return column.isNull();
+      case Filter.IS_NOT_NULL:
+        return column.isNotNull();
+      case Filter.IN:
+        return in(column, state);
+      default:
+        break;
+    }
+
+    Expression marker = SQL.bindMarker(bindMarkers.marker(state.nextMarker++));
+    switch (filter.operator()) {
+      case Filter.EQ:
+        return column.isEqualTo(marker);
+      case Filter.NE:
+        return column.isNotEqualTo(marker);
+      case Filter.LT:
+        return column.isLess(marker);
+      case Filter.LE:
+        return column.isLessOrEqualTo(marker);
+      case Filter.GT:
+        return column.isGreater(marker);
+      case Filter.GE:
+        return column.isGreaterOrEqualTo(marker);
+      default:
+        throw new IllegalStateException("Unknown filter operator " + filter.operator());
+    }
+  }
+
+  /**
+   * {@code (k1, ..., id) > (?, ..., ?)}, or {@code <} for a descending keyset. Spring's statement
+   * model has no row value constructor, so both sides render as text.
+   */
+  private Condition seek(Keyset<?> keyset, RenderState state) {
+    List<String> columns = new ArrayList<>(keyset.properties().size());
+    List<String> markers = new ArrayList<>(keyset.properties().size());
+    for (PropertyRef<?, ?> property : keyset.properties()) {
+      columns.add(identifiers.qualifiedColumn(property));
+      markers.add(bindMarkers.marker(state.nextMarker++));
+    }
+    return Comparison.create(Expressions.just("(" + String.join(", ", columns) + ")"),
+        keyset.descending() ? "<" : ">",
+        Expressions.just("(" + String.join(", ", markers) + ")"));
+  }
+
+  private Condition in(Column column, RenderState state) {
+    if (state.bucketSizes == null) {
+      Expression marker = SQL.bindMarker(bindMarkers.marker(state.nextMarker++));
+      return Comparison.create(column, "=", SimpleFunction.create("ANY", List.of(marker)));
+    }
+
+    int bucket = state.bucketSizes[state.nextBucket++];
+    Expression[] markers = new Expression[bucket];
+    for (int index = 0; index < bucket; index++) {
+      markers[index] = SQL.bindMarker(bindMarkers.marker(state.nextMarker++));
+    }
+    return column.in(markers);
+  }
+
+  private Column column(PropertyRef<?, ?> property, Map<EntityRef<?>, Table> tables) {
+    return table(property.entity(), tables).column(names.columnIdentifier(
+        property.entity().entityType(), property.name(), property.ordinal()));
+  }
+
+  // Spring renders these identifiers with the dialect's processing: the text IdentifierTable holds.
+  private Table table(EntityRef<?> entity, Map<EntityRef<?>, Table> tables) {
+    return tables.computeIfAbsent(entity,
+        instance -> Table.create(names.tableIdentifier(instance.entityType()))
+            .as(instance.alias()));
+  }
+
+  /** Marker and bucket positions while one filter renders, in value order. */
+  private static final class RenderState {
+
+    private final int[] bucketSizes;
+    private int nextMarker;
+    private int nextBucket;
+
+    private RenderState(int[] bucketSizes) {
+      this.bucketSizes = bucketSizes;
+    }
+  }
+
+  /** A shape together with the padded size of each of its {@code IN} lists. */
+  private static final class BucketedShape {
+
+    private final Object shape;
+    private final int[] bucketSizes;
+
+    private BucketedShape(Object shape, int[] bucketSizes) {
+      this.shape = shape;
+      this.bucketSizes = bucketSizes;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof BucketedShape otherShape && shape.equals(otherShape.shape)
+          && Arrays.equals(bucketSizes, otherShape.bucketSizes);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * shape.hashCode() + Arrays.hashCode(bucketSizes);
+    }
+  }
+
+  /** An insert together with the number of rows one of its statements carries. */
+  private static final class InsertShape {
+
+    private final BatchInsert<?> insert;
+    private final int rows;
+
+    private InsertShape(BatchInsert<?> insert, int rows) {
+      this.insert = insert;
+      this.rows = rows;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof InsertShape otherShape && rows == otherShape.rows
+          && insert.equals(otherShape.insert);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * insert.hashCode() + rows;
+    }
+  }
+
+  /** Configures a renderer; the dialect and the bind-marker style are optional. */
+  public static final class Builder {
+
+    private final ResolvedMetamodel names;
+    private final QueryShapeCache shapeCache;
+    private BindMarkerStyle bindMarkers = BindMarkerStyle.anonymous("?");
+    private Dialect dialect;
+    private boolean arrayBoundIn = true;
+    private int maxBindMarkers = DEFAULT_MAX_BIND_MARKERS;
+
+    private Builder(ResolvedMetamodel names, QueryShapeCache shapeCache) {
+      this.names = names;
+      this.shapeCache = shapeCache;
+    }
+
+    /** The markers the driver expects; {@code ?} at every position when not set. */
+    public Builder bindMarkers(BindMarkerStyle bindMarkers) {
+      this.bindMarkers = Objects.requireNonNull(bindMarkers, "bindMarkers");
+      return this;
+    }
+
+    /**
+     * The dialect whose limit clause, render settings and array support apply; ANSI SQL without
+     * array binding when not set.
+     */
+    public Builder dialect(Dialect dialect) {
+      this.dialect = Objects.requireNonNull(dialect, "dialect");
+      return this;
+    }
+
+    /**
+     * Whether {@code IN} binds one array as {@code = ANY(marker)} when the dialect supports
+     * arrays; on by default. Turn it off for drivers that cannot bind arrays of the property types
+     * in use, and lists are padded to the next power of two instead.
+     */
+    public Builder arrayBoundIn(boolean arrayBoundIn) {
+      this.arrayBoundIn = arrayBoundIn;
+      return this;
+    }
+
+    /**
+     * The most bind markers the driver accepts in one statement; 32767 when not set. Batch
+     * inserts put fewer rows into a statement when their chunk size would exceed it.
+     */
+    public Builder maxBindMarkers(int maxBindMarkers) {
+      if (maxBindMarkers < 1) {
+        throw new IllegalArgumentException("Bind marker limit must be positive: " + maxBindMarkers);
+      }
+      this.maxBindMarkers = maxBindMarkers;
+      return this;
+    }
+
+    public QueryRenderer build() {
+      return new QueryRenderer(this);
+    }
+  }
+}
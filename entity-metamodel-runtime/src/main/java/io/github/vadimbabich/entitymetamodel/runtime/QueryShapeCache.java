@@ -0,0 +1,111 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, least-recently-used memo of rendered SQL text by query shape, and of the
+ * {@link JoinPlan}s a {@link JoinPlanner} derives. The caller creates and owns it, typically one
+ * per application, and sizes it to the number of distinct query shapes it builds; shapes beyond
+ * the capacity evict the one used longest ago. Thread-safe. Entries are keyed by the renderer or
+ * planner too, so renderers with different names or markers may share one cache.
+ */
+public final class QueryShapeCache {
+
+  private final int capacity;
+  private final Map<Key, Object> entries;
+
+  private long hits;
+  private long misses;
+
+  public QueryShapeCache(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+        return size() > QueryShapeCache.this.capacity;
+      }
+    };
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /** Lookups answered from the cache since it was created. */
+  public synchronized long hits() {
+    return hits;
+  }
+
+  /** Lookups that had to render, including renders for shapes evicted earlier. */
+  public synchronized long misses() {
+    return misses;
+  }
+
+  /**
+   * The text cached for {@code shape} under {@code owner}, rendering it on a miss. Rendering runs
+   * outside the lock; when two threads miss on the same shape, the first text stored wins.
+   */
+  String get(Object owner, Object shape, Supplier<String> render) {
+    return get(owner, shape, String.class, render);
+  }
+
+  /** As {@link #get(Object, Object, Supplier)}, for any value an owner derives from a shape. */
+  <V> V get(Object owner, Object shape, Class<V> type, Supplier<? extends V> derive) {
+    Key key = new Key(owner, shape);
+    synchronized (this) {
+      Object cached = entries.get(key);
+      if (cached != null) {
+        hits++;
+        return type.cast(cached);
+      }
+      misses++;
+    }
+
+    V derived = derive.get();
+    synchronized (this) {
+      Object raced = entries.putIfAbsent(key, derived);
+      return raced != null ? type.cast(raced) : derived;
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "QueryShapeCache[" + entries.size() + "/" + capacity + ", hits=" + hits
+        + ", misses=" + misses + "]";
+  }
+
+  private static final class Key {
+
+    private final Object owner;
+    private final Object shape;
+    private final int hash;
+
+    private Key(Object owner, Object shape) {
+      this.owner = owner;
+      this.shape = shape;
+      this.hash = 31 * System.identityHashCode(owner) + shape.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Key otherKey && owner == otherKey.owner
+          && shape.equals(otherKey.shape);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
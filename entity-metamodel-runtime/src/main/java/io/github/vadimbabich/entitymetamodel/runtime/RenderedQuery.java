@@ -0,0 +1,32 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import java.util.List;
+
+/**
+ * Rendered SQL text and the values for its bind markers, in marker order. Queries of one shape
+ * share the same text instance, so only the values differ from call to call.
+ */
+public final class RenderedQuery {
+
+  private final String sql;
+  private final List<Object> bindValues;
+
+  RenderedQuery(String sql, List<Object> bindValues) {
+    this.sql = sql;
+    this.bindValues = bindValues;
+  }
+
+  public String sql() {
+    return sql;
+  }
+
+  /** The value of the marker at each zero-based position. */
+  public List<Object> bindValues() {
+    return bindValues;
+  }
+
+  @Override
+  public String toString() {
+    return "RenderedQuery[" + sql + " " + bindValues + "]";
+  }
+}
@@ -0,0 +1,199 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+
+/**
+ * Immutable snapshot of table and column names for a chosen set of entities, resolved once through
+ * one mapping context. Lookups read flat arrays, indexed by property ordinal where the handles
+ * carry one, instead of asking the context again on the hot path of statement rendering. The
+ * caller builds and owns the snapshot: nothing here is ambient, and a snapshot answers only for
+ * the context it was built from.
+ */
+public final class ResolvedMetamodel {
+
+  private final Map<Class<?>, ResolvedEntity> entities;
+
+  private ResolvedMetamodel(Map<Class<?>, ResolvedEntity> entities) {
+    this.entities = entities;
+  }
+
+  /** Starts a snapshot that resolves every name through {@code mappingContext}. */
+  public static Builder builder(RelationalMappingContext mappingContext) {
+    Objects.requireNonNull(mappingContext, "mappingContext");
+
+    return new Builder(mappingContext);
+  }
+
+  /** Whether the snapshot holds names for this entity type. */
+  public boolean contains(Class<?> entityType) {
+    return entities.containsKey(entityType);
+  }
+
+  String tableName(Class<?> entityType) {
+    return entity(entityType).tableName;
+  }
+
+  /** The name of the entity's identifier property, or {@code null} when it declares none. */
+  String idPropertyName(Class<?> entityType) {
+    return entity(entityType).idPropertyName;
+  }
+
+  String columnName(Class<?> entityType, String propertyName, int ordinal) {
+    ResolvedEntity entity = entity(entityType);
+
+    return entity.columnNames[slot(entity, entityType, propertyName, ordinal)];
+  }
+
+  SqlIdentifier tableIdentifier(Class<?> entityType) {
+    return entity(entityType).tableIdentifier;
+  }
+
+  SqlIdentifier columnIdentifier(Class<?> entityType, String propertyName, int ordinal) {
+    ResolvedEntity entity = entity(entityType);
+
+    return entity.columnIdentifiers[slot(entity, entityType, propertyName, ordinal)];
+  }
+
+  Set<Class<?>> entityTypes() {
+    return entities.keySet();
+  }
+
+  /** The column identifiers by slot; a slot that sparse ordinals leave empty holds null. */
+  SqlIdentifier[] columnIdentifiers(Class<?> entityType) {
+    return entity(entityType).columnIdentifiers.clone();
+  }
+
+  /** The slot of a property in {@link #columnIdentifiers}. */
+  int slot(Class<?> entityType, String propertyName, int ordinal) {
+    return slot(entity(entityType), entityType, propertyName, ordinal);
+  }
+
+  private static int slot(ResolvedEntity entity, Class<?> entityType, String propertyName,
+      int ordinal) {
+    // An ordinal handle reads its slot directly; the name check keeps a stale ordinal honest.
+    if (ordinal >= 0 && ordinal < entity.propertyNames.length
+        && propertyName.equals(entity.propertyNames[ordinal])) {
+      return ordinal;
+    }
+    Integer slot = entity.slotByProperty.get(propertyName);
+
+    if (slot == null) {
+      throw new IllegalArgumentException(
+          "Property '" + propertyName + "' of entity '" + entityType.getSimpleName()
+              + "' is not part of this resolved metamodel");
+    }
+    return slot;
+  }
+
+  private ResolvedEntity entity(Class<?> entityType) {
+    ResolvedEntity entity = entities.get(entityType);
+
+    if (entity == null) {
+      throw new IllegalArgumentException(
+          "Entity '" + entityType.getSimpleName() + "' is not part of this resolved metamodel");
+    }
+    return entity;
+  }
+
+  @Override
+  public String toString() {
+    return "ResolvedMetamodel" + entities.keySet().stream().map(Class::getSimpleName).toList();
+  }
+
+  /**
+   * Collects the entities and properties to resolve. Names resolve eagerly, so an unknown entity
+   * or property fails here rather than on first use.
+   */
+  public static final class Builder {
+
+    private final RelationalMappingContext mappingContext;
+    private final Map<Class<?>, ResolvedEntity> entities = new LinkedHashMap<>();
+
+    private Builder(RelationalMappingContext mappingContext) {
+      this.mappingContext = mappingContext;
+    }
+
+    /**
+     * Adds an entity with the properties to resolve for it. The alias of the handles is
+     * irrelevant: names belong to the entity type, aliases only qualify them. When every property
+     * carries an ordinal the names are laid out by ordinal, so lookups are a single array read;
+     * otherwise they go through a name index.
+     */
+    public <E> Builder entity(EntityRef<E> entity, List<? extends PropertyRef<E, ?>> properties) {
+      Objects.requireNonNull(entity, "entity");
+      Objects.requireNonNull(properties, "properties");
+      if (entities.containsKey(entity.entityType())) {
+        throw new IllegalArgumentException(
+            "Entity '" + entity.entityType().getSimpleName() + "' was already added");
+      }
+
+      boolean byOrdinal = !properties.isEmpty()
+          && properties.stream().allMatch(property -> property != null && property.hasOrdinal());
+      int slots = byOrdinal
+          ? properties.stream().mapToInt(PropertyRef::ordinal).max().orElse(-1) + 1
+          : properties.size();
+      String[] propertyNames = new String[slots];
+      String[] columnNames = new String[slots];
+      SqlIdentifier[] columnIdentifiers = new SqlIdentifier[slots];
+      Map<String, Integer> slotByProperty = new HashMap<>();
+
+      for (PropertyRef<E, ?> property : properties) {
+        Objects.requireNonNull(property, "property");
+        int slot = byOrdinal ? property.ordinal() : slotByProperty.size();
+        if (slotByProperty.putIfAbsent(property.name(), slot) != null
+            || propertyNames[slot] != null) {
+          throw new IllegalArgumentException(
+              "Property '" + property.name() + "' of entity '"
+                  + entity.entityType().getSimpleName()
+                  + "' was listed twice or shares its ordinal with another property");
+        }
+        propertyNames[slot] = property.name();
+        columnIdentifiers[slot] = property.columnIdentifier(mappingContext);
+        columnNames[slot] = columnIdentifiers[slot].getReference();
+      }
+
+      RelationalPersistentProperty idProperty =
+          mappingContext.getRequiredPersistentEntity(entity.entityType()).getIdProperty();
+      entities.put(entity.entityType(), new ResolvedEntity(entity.tableIdentifier(mappingContext),
+          idProperty == null ? null : idProperty.getName(), propertyNames, columnNames,
+          columnIdentifiers, Map.copyOf(slotByProperty)));
+      return this;
+    }
+
+    /** An immutable snapshot; later {@link #entity} calls on this builder do not affect it. */
+    public ResolvedMetamodel build() {
+      return new ResolvedMetamodel(Map.copyOf(entities));
+    }
+  }
+
+  private static final class ResolvedEntity {
+
+    private final SqlIdentifier tableIdentifier;
+    private final String tableName;
+    private final String idPropertyName;
+    private final String[] propertyNames;
+    private final String[] columnNames;
+    private final SqlIdentifier[] columnIdentifiers;
+    private final Map<String, Integer> slotByProperty;
+
+    private ResolvedEntity(SqlIdentifier tableIdentifier, String idPropertyName,
+        String[] propertyNames, String[] columnNames, SqlIdentifier[] columnIdentifiers,
+        Map<String, Integer> slotByProperty) {
+      this.tableIdentifier = tableIdentifier;
+      this.tableName = tableIdentifier.getReference();
+      this.idPropertyName = idPropertyName;
+      this.propertyNames = propertyNames;
+      this.columnNames = columnNames;
+      this.columnIdentifiers = columnIdentifiers;
+      this.slotByProperty = slotByProperty;
+    }
+  }
+}
@@ -0,0 +1,406 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable, typed {@code SELECT} over {@link EntityRef} instances joined through {@link JoinRef}s.
+ * Building a query separates its shape — instances, projection, joins, filter structure, ordering
+ * and paging — from its bind values, so a {@link QueryRenderer} renders each shape once and every
+ * later query of that shape only collects values. Each projected column is labelled
+ * {@code <tableAlias>__<column>}.
+ */
+public final class SelectQuery<E> {
+
+  static final String INNER_JOIN = "JOIN";
+  static final String LEFT_JOIN = "LEFT OUTER JOIN";
+
+  private static final int NO_PAGING = -1;
+
+  private final EntityRef<E> entity;
+  private final List<PropertyRef<?, ?>> projection;
+  private final List<Join> joins;
+  private final Filter filter;
+  private final List<Order> orderBy;
+  private final int limit;
+  private final long offset;
+  private final Keyset<?> keyset;
+  private final List<Object> seekValues;
+  private final Shape shape;
+  private final List<Object> bindValues;
+  private final boolean containsIn;
+
+  private SelectQuery(Builder<E> builder) {
+    this.entity = builder.entity;
+    this.projection = List.copyOf(builder.projection);
+    this.joins = List.copyOf(builder.joins);
+    this.filter = builder.filter;
+    this.orderBy = List.copyOf(builder.orderBy);
+    this.limit = builder.limit;
+    this.offset = builder.offset;
+    this.keyset = builder.keyset;
+    this.seekValues = builder.seekValues;
+    this.shape = new Shape(shapeTokens());
+
+    List<Object> values = new ArrayList<>();
+    if (filter != null) {
+      filter.appendValues(values);
+    }
+    values.addAll(seekValues);
+    this.bindValues = List.copyOf(values);
+    this.containsIn = filter != null && filter.containsIn();
+  }
+
+  /** Starts a query whose {@code FROM} is {@code entity}'s table under its alias. */
+  public static <E> Builder<E> from(EntityRef<E> entity) {
+    Objects.requireNonNull(entity, "entity");
+
+    return new Builder<>(entity);
+  }
+
+  public EntityRef<E> entity() {
+    return entity;
+  }
+
+  /** The selected properties, in select-list order. */
+  public List<PropertyRef<?, ?>> projection() {
+    return projection;
+  }
+
+  /**
+   * The filter's values in marker order, then the key values a continuation token resumes after.
+   * The values of an {@code IN} filter are one list here; {@link RenderedQuery#bindValues()}
+   * holds them as the renderer binds them.
+   */
+  public List<Object> bindValues() {
+    return bindValues;
+  }
+
+  boolean containsIn() {
+    return containsIn;
+  }
+
+  List<Join> joins() {
+    return joins;
+  }
+
+  Filter filter() {
+    return filter;
+  }
+
+  List<Order> orderBy() {
+    return orderBy;
+  }
+
+  boolean hasLimit() {
+    return limit != NO_PAGING;
+  }
+
+  int limit() {
+    return limit;
+  }
+
+  boolean hasOffset() {
+    return offset != NO_PAGING;
+  }
+
+  long offset() {
+    return offset;
+  }
+
+  Keyset<?> keyset() {
+    return keyset;
+  }
+
+  /** Whether this query resumes after a continuation token, rather than being a first page. */
+  boolean seeks() {
+    return !seekValues.isEmpty();
+  }
+
+  List<Object> seekValues() {
+    return seekValues;
+  }
+
+  /** The projection label of {@code property}: {@code <tableAlias>__<column>}. */
+  static String label(PropertyRef<?, ?> property, ResolvedMetamodel names) {
+    return property.entity().alias() + EntityRef.PROJECTION_SEPARATOR
+        + property.columnName(names);
+  }
+
+  /** Equal for two queries exactly when they render to the same SQL text. */
+  Object shape() {
+    return shape;
+  }
+
+  @Override
+  public String toString() {
+    return "SelectQuery[" + entity + ", " + projection.size() + " columns, " + joins.size()
+        + " joins, where " + filter + ", values " + bindValues + "]";
+  }
+
+  private Object[] shapeTokens() {
+    List<Object> tokens = new ArrayList<>();
+    tokens.add(entity);
+    tokens.add(projection.size());
+    tokens.addAll(projection);
+    for (Join join : joins) {
+      tokens.add(join.type);
+      tokens.add(join.source);
+      tokens.add(join.target);
+    }
+    if (filter != null) {
+      filter.appendShape(tokens);
+    }
+    for (Order order : orderBy) {
+      tokens.add(order.property);
+      tokens.add(order.descending);
+    }
+    // The page size renders as a literal in the dialect's limit clause, so it is structure; the
+    // offset is bound, so every page of a query shares one text.
+    tokens.add(limit);
+    tokens.add(hasOffset());
+    tokens.add(seeks());
+    return tokens.toArray();
+  }
+
+  /** Collects a query's parts; {@link #build()} validates them and freezes the shape. */
+  public static final class Builder<E> {
+
+    private final EntityRef<E> entity;
+    private final List<EntityRef<?>> instances = new ArrayList<>();
+    private final List<PropertyRef<?, ?>> projection = new ArrayList<>();
+    private final List<Join> joins = new ArrayList<>();
+    private final List<Order> orderBy = new ArrayList<>();
+    private Filter filter;
+    private int limit = NO_PAGING;
+    private long offset = NO_PAGING;
+    private Keyset<?> keyset;
+    private List<Object> seekValues = List.of();
+
+    private Builder(EntityRef<E> entity) {
+      this.entity = entity;
+      this.instances.add(entity);
+    }
+
+    /** Appends properties of {@code FROM} or of joined instances to the select list. */
+    public Builder<E> select(PropertyRef<?, ?>... properties) {
+      for (PropertyRef<?, ?> property : properties) {
+        projection.add(Objects.requireNonNull(property, "property"));
+      }
+      return this;
+    }
+
+    /** Appends properties to the select list, in iteration order. */
+    public Builder<E> select(Iterable<? extends PropertyRef<?, ?>> properties) {
+      for (PropertyRef<?, ?> property : properties) {
+        projection.add(Objects.requireNonNull(property, "property"));
+      }
+      return this;
+    }
+
+    /** Inner-joins {@code target} on {@code via}, from the instance its source property is on. */
+    public <S, T> Builder<E> join(JoinRef<S, T> via, EntityRef<T> target) {
+      return addJoin(INNER_JOIN, via, via.source().entity(), target);
+    }
+
+    /** Inner-joins {@code target} on {@code via}, from {@code source}, for self and N-way joins. */
+    public <S, T> Builder<E> join(JoinRef<S, T> via, EntityRef<S> source, EntityRef<T> target) {
+      return addJoin(INNER_JOIN, via, source, target);
+    }
+
+    public <S, T> Builder<E> leftJoin(JoinRef<S, T> via, EntityRef<T> target) {
+      return addJoin(LEFT_JOIN, via, via.source().entity(), target);
+    }
+
+    public <S, T> Builder<E> leftJoin(JoinRef<S, T> via, EntityRef<S> source,
+        EntityRef<T> target) {
+      return addJoin(LEFT_JOIN, via, source, target);
+    }
+
+    /**
+     * Inner-joins every instance of {@code plan}, parents first. The plan's root must already be
+     * part of this query and none of its instances may be.
+     */
+    public Builder<E> join(JoinPlan plan) {
+      return addJoins(INNER_JOIN, plan);
+    }
+
+    public Builder<E> leftJoin(JoinPlan plan) {
+      return addJoins(LEFT_JOIN, plan);
+    }
+
+    /** Adds {@code condition}, combined with any earlier one by {@code AND}. */
+    public Builder<E> where(Filter condition) {
+      Objects.requireNonNull(condition, "condition");
+
+      filter = filter == null ? condition : filter.and(condition);
+      return this;
+    }
+
+    public Builder<E> orderBy(PropertyRef<?, ?> property) {
+      orderBy.add(new Order(Objects.requireNonNull(property, "property"), false));
+      return this;
+    }
+
+    public Builder<E> orderByDescending(PropertyRef<?, ?> property) {
+      orderBy.add(new Order(Objects.requireNonNull(property, "property"), true));
+      return this;
+    }
+
+    public Builder<E> limit(int limit) {
+      if (limit < 0) {
+        throw new IllegalArgumentException("Limit must not be negative: " + limit);
+      }
+      this.limit = limit;
+      return this;
+    }
+
+    public Builder<E> offset(long offset) {
+      if (offset < 0) {
+        throw new IllegalArgumentException("Offset must not be negative: " + offset);
+      }
+      this.offset = offset;
+      return this;
+    }
+
+    /**
+     * Pages by {@code keyset}: orders by its properties and, given the continuation token of the
+     * previous page's last row, starts right after that row. A {@code null} token fetches the
+     * first page. Set the page size with {@link #limit(int)}; keyset paging replaces
+     * {@link #offset(long)} and any other ordering. A malformed token, or one issued for another
+     * keyset, fails here.
+     */
+    public Builder<E> seek(Keyset<?> keyset, String continuationToken) {
+      Objects.requireNonNull(keyset, "keyset");
+      if (this.keyset != null) {
+        throw new IllegalStateException("This query already pages by " + this.keyset);
+      }
+
+      this.keyset = keyset;
+      this.seekValues = continuationToken == null
+          ? List.of()
+          : List.copyOf(keyset.keyValues(continuationToken));
+      keyset.properties()
+          .forEach(property -> orderBy.add(new Order(property, keyset.descending())));
+      return this;
+    }
+
+    /**
+     * The immutable query. Fails when nothing is selected, when a property is selected twice, or
+     * when a property is on an instance that is neither the {@code FROM} nor a joined one.
+     */
+    public SelectQuery<E> build() {
+      if (projection.isEmpty()) {
+        throw new IllegalStateException("Nothing selected from " + entity);
+      }
+      if (Set.copyOf(projection).size() != projection.size()) {
+        throw new IllegalStateException("A property is selected twice, which would repeat its "
+            + "projection label: " + projection);
+      }
+
+      if (keyset != null && (offset != NO_PAGING || orderBy.size() != keyset.properties().size())) {
+        throw new IllegalStateException("Keyset paging by " + keyset + " cannot be combined with "
+            + "an offset or another ordering");
+      }
+
+      List<PropertyRef<?, ?>> referenced = new ArrayList<>(projection);
+      if (filter != null) {
+        filter.appendProperties(referenced);
+      }
+      orderBy.forEach(order -> referenced.add(order.property));
+      for (PropertyRef<?, ?> property : referenced) {
+        if (!instances.contains(property.entity())) {
+          throw new IllegalStateException(property + " is on an instance this query does not "
+              + "select from; join " + property.entity() + " first");
+        }
+      }
+
+      return new SelectQuery<>(this);
+    }
+
+    private <S, T> Builder<E> addJoin(String type, JoinRef<S, T> via, EntityRef<S> source,
+        EntityRef<T> target) {
+      Objects.requireNonNull(via, "via");
+      Objects.requireNonNull(source, "source");
+      Objects.requireNonNull(target, "target");
+
+      return addJoin(type, via.source().of(source), via.target().of(target));
+    }
+
+    private Builder<E> addJoins(String type, JoinPlan plan) {
+      Objects.requireNonNull(plan, "plan");
+      if (!instances.contains(plan.root())) {
+        throw new IllegalStateException(
+            "Cannot apply " + plan + ": its root is not part of this query yet");
+      }
+
+      plan.hops().forEach(hop -> addJoin(type, hop.from, hop.to));
+      return this;
+    }
+
+    private Builder<E> addJoin(String type, PropertyRef<?, ?> source, PropertyRef<?, ?> target) {
+      if (!instances.contains(source.entity())) {
+        throw new IllegalStateException(
+            "Cannot join from " + source.entity() + ": it is not part of this query yet");
+      }
+      if (instances.contains(target.entity())) {
+        throw new IllegalStateException(target.entity() + " is already part of this query; join "
+            + "another instance through EntityRef.as(qualifier)");
+      }
+
+      instances.add(target.entity());
+      joins.add(new Join(type, source, target));
+      return this;
+    }
+  }
+
+  /** One join: its type and the {@code ON} properties, anchored to their instances. */
+  static final class Join {
+
+    final String type;
+    final PropertyRef<?, ?> source;
+    final PropertyRef<?, ?> target;
+
+    private Join(String type, PropertyRef<?, ?> source, PropertyRef<?, ?> target) {
+      this.type = type;
+      this.source = source;
+      this.target = target;
+    }
+  }
+
+  static final class Order {
+
+    final PropertyRef<?, ?> property;
+    final boolean descending;
+
+    private Order(PropertyRef<?, ?> property, boolean descending) {
+      this.property = property;
+      this.descending = descending;
+    }
+  }
+
+  private static final class Shape {
+
+    private final Object[] tokens;
+    private final int hash;
+
+    private Shape(Object[] tokens) {
+      this.tokens = tokens;
+      this.hash = Arrays.hashCode(tokens);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Shape otherShape && hash == otherShape.hash
+          && Arrays.equals(tokens, otherShape.tokens);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Account;
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Membership;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+
+/**
+ * A batch splits into full chunks plus power-of-two remainders, so any batch length renders one of
+ * a handful of statement texts, each rendered once per renderer.
+ */
+class BatchInsertRenderingTest {
+
+  private final EntityRef<Account> account = EntityRef.of(Account.class);
+  private final PropertyRef<Account, Long> accountId = account.property("id", Long.class);
+  private final PropertyRef<Account, String> ownerEmail =
+      account.property("ownerEmail", String.class);
+
+  private final EntityRef<Membership> membership = EntityRef.of(Membership.class);
+  private final PropertyRef<Membership, Long> membershipId =
+      membership.property("id", Long.class);
+
+  private final ResolvedMetamodel names = ResolvedMetamodel.builder(new RelationalMappingContext())
+      .entity(account, List.of(accountId, ownerEmail))
+      .entity(membership, List.of(membershipId))
+      .build();
+
+  @Test
+  void rendersOneMultiRowStatementWithValuesInRowOrder() {
+    QueryRenderer renderer = QueryRenderer.builder(names, new QueryShapeCache(8))
+        .bindMarkers(BindMarkerStyle.indexed("$", 1))
+        .build();
+
+    List<RenderedQuery> statements = renderer.render(
+        BatchInsert.into(account).columns(List.of(accountId, ownerEmail)).build(),
+        List.of(new Object[] {1L, "a@example.com"}, new Object[] {2L, null}));
+
+    assertThat(statements).hasSize(1);
+    assertThat(statements.get(0).sql()).isEqualTo("INSERT INTO accounts "
+        + "(account_id, owner_email) VALUES ($1, $2), ($3, $4)");
+    assertThat(statements.get(0).bindValues()).containsExactly(1L, "a@example.com", 2L, null);
+  }
+
+  @Test
+  void splitsIntoFullChunksAndPowerOfTwoRemainders() {
+    QueryShapeCache cache = new QueryShapeCache(16);
+    QueryRenderer renderer = QueryRenderer.builder(names, cache).build();
+    BatchInsert<Account> insert =
+        BatchInsert.into(account).columns(List.of(accountId, ownerEmail)).chunkSize(10).build();
+
+    List<RenderedQuery> statements = renderer.render(insert, rows(27));
+
+    assertThat(statements).extracting(statement -> statement.bindValues().size() / 2)
+        .containsExactly(10, 10, 4, 2, 1);
+    assertThat(statements.get(4).bindValues()).containsExactly(27L, "owner27@example.com");
+    assertThat(statements.get(1).sql()).isSameAs(statements.get(0).sql());
+
+    renderer.render(insert, rows(23));
+    assertThat(cache.misses()).isEqualTo(4);
+  }
+
+  @Test
+  void lowersTheChunkSizeToFitTheBindMarkerLimit() {
+    QueryRenderer renderer = QueryRenderer.builder(names, new QueryShapeCache(8))
+        .maxBindMarkers(7)
+        .build();
+
+    List<RenderedQuery> statements = renderer.render(
+        BatchInsert.into(account).columns(List.of(accountId, ownerEmail)).build(), rows(6));
+
+    assertThat(statements).extracting(statement -> statement.bindValues().size())
+        .containsExactly(6, 6);
+  }
+
+  @Test
+  void rendersConflictClauses() {
+    QueryRenderer renderer = QueryRenderer.builder(names, new QueryShapeCache(8)).build();
+
+    String doNothing = renderer.render(BatchInsert.into(account)
+            .columns(List.of(accountId, ownerEmail))
+            .onConflictDoNothing(List.of(accountId))
+            .build(), rows(1)).get(0).sql();
+    String doUpdate = renderer.render(BatchInsert.into(account)
+            .columns(List.of(accountId, ownerEmail))
+            .onConflictDoUpdate(List.of(accountId))
+            .build(), rows(1)).get(0).sql();
+
+    assertThat(doNothing).isEqualTo("INSERT INTO accounts (account_id, owner_email) "
+        + "VALUES (?, ?) ON CONFLICT (account_id) DO NOTHING");
+    assertThat(doUpdate).isEqualTo("INSERT INTO accounts (account_id, owner_email) "
+        + "VALUES (?, ?) ON CONFLICT (account_id) DO UPDATE "
+        + "SET owner_email = EXCLUDED.owner_email");
+  }
+
+  @Test
+  void rejectsRowsOfTheWrongWidth() {
+    QueryRenderer renderer = QueryRenderer.builder(names, new QueryShapeCache(8)).build();
+    BatchInsert<Account> insert =
+        BatchInsert.into(account).columns(List.of(accountId, ownerEmail)).build();
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> renderer.render(insert, List.<Object[]>of(new Object[] {1L})))
+        .withMessageContaining("Row 0 has 1 values for 2 columns");
+  }
+
+  @Test
+  void rejectsInvalidInserts() {
+    assertThatIllegalStateException()
+        .isThrownBy(() -> BatchInsert.into(account).build())
+        .withMessageContaining("No columns");
+    assertThatIllegalStateException()
+        .isThrownBy(() -> BatchInsert.into(account).columns(List.of(accountId, accountId)).build())
+        .withMessageContaining("inserted twice");
+    assertThatIllegalStateException()
+        .isThrownBy(() -> BatchInsert.into(account).columns(List.of(accountId.of(account.as("a"))))
+            .build())
+        .withMessageContaining("is not a property of");
+    assertThatIllegalStateException()
+        .isThrownBy(() -> BatchInsert.into(account).columns(List.of(ownerEmail))
+            .onConflictDoNothing(List.of(accountId)).build())
+        .withMessageContaining("not one of the inserted columns");
+    assertThatIllegalStateException()
+        .isThrownBy(() -> BatchInsert.into(account).columns(List.of(accountId))
+            .onConflictDoUpdate(List.of(accountId)).build())
+        .withMessageContaining("nothing to update");
+  }
+
+  private static List<Object[]> rows(int count) {
+    List<Object[]> rows = new ArrayList<>(count);
+    for (long id = 1; id <= count; id++) {
+      rows.add(new Object[] {id, "owner" + id + "@example.com"});
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,78 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Account;
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Invoice;
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Membership;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+
+/**
+ * Registries from every artifact on the classpath are merged, and a context initialized from
+ * them holds every listed entity before anything asks for one.
+ */
+class EntityRegistryTest {
+
+  @TempDir
+  Path workDir;
+
+  @Test
+  void mergesTheRegistriesOfEveryArtifact() throws IOException {
+    try (URLClassLoader loader = loader(
+        registry("billing", "# generated\n" + Invoice.class.getName() + "\n\n"
+            + Account.class.getName() + "  # also listed below\n"),
+        registry("accounts", Account.class.getName() + "\n" + Membership.class.getName()))) {
+
+      assertThat(EntityRegistry.load(loader).entityTypes())
+          .containsExactly(Invoice.class, Account.class, Membership.class);
+    }
+  }
+
+  @Test
+  void initializesTheContextWithEveryListedEntity() throws IOException {
+    try (URLClassLoader loader = loader(registry("accounts",
+        Account.class.getName() + "\n" + Membership.class.getName()))) {
+      RelationalMappingContext context =
+          EntityRegistry.load(loader).initialize(new RelationalMappingContext());
+
+      assertThat(context.hasPersistentEntityFor(Account.class)).isTrue();
+      assertThat(context.hasPersistentEntityFor(Membership.class)).isTrue();
+      assertThat(context.hasPersistentEntityFor(Invoice.class)).isFalse();
+    }
+  }
+
+  @Test
+  void failsOnATypeThatCannotBeLoaded() throws IOException {
+    try (URLClassLoader loader = loader(registry("stale", "com.example.Removed"))) {
+      assertThatIllegalStateException()
+          .isThrownBy(() -> EntityRegistry.load(loader))
+          .withMessageStartingWith("Entity 'com.example.Removed' is listed in ")
+          .withMessageEndingWith("but cannot be loaded");
+    }
+  }
+
+  private Path registry(String artifact, String content) throws IOException {
+    Path root = workDir.resolve(artifact);
+    Path registry = root.resolve(EntityRegistry.RESOURCE);
+    Files.createDirectories(registry.getParent());
+    Files.writeString(registry, content, UTF_8);
+    return root;
+  }
+
+  private static URLClassLoader loader(Path... roots) throws IOException {
+    URL[] urls = new URL[roots.length];
+    for (int i = 0; i < roots.length; i++) {
+      urls[i] = roots[i].toUri().toURL();
+    }
+    return new URLClassLoader(urls, EntityRegistryTest.class.getClassLoader());
+  }
+}
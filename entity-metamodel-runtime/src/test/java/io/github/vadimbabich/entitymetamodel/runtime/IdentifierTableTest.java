@@ -0,0 +1,80 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Account;
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Membership;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.relational.core.dialect.PostgresDialect;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
+
+/**
+ * Identifiers are rendered once per dialect, quoted exactly where the mapping context says so,
+ * and match the text Spring's renderer writes for the same query.
+ */
+class IdentifierTableTest {
+
+  private final EntityRef<Account> account = EntityRef.of(Account.class);
+  private final PropertyRef<Account, Long> accountId = account.property("id", Long.class);
+  private final PropertyRef<Account, String> ownerEmail =
+      account.property("ownerEmail", String.class);
+
+  private final IdentifierProcessing postgres = new PostgresDialect() { }.getIdentifierProcessing();
+
+  @Test
+  void quotesWhatTheContextQuotesWithTheDialectsQuoteCharacter() {
+    IdentifierTable identifiers = IdentifierTable.of(names(new RelationalMappingContext()),
+        postgres);
+
+    assertThat(identifiers.table(account)).isEqualTo("\"accounts\"");
+    assertThat(identifiers.column(ownerEmail)).isEqualTo("\"owner_email\"");
+    assertThat(identifiers.aliasedTable(account.as("sponsor")))
+        .isEqualTo("\"accounts\" account_sponsor");
+    assertThat(identifiers.qualifiedColumn(ownerEmail.of(account.as("sponsor"))))
+        .isEqualTo("account_sponsor.\"owner_email\"");
+  }
+
+  @Test
+  void leavesIdentifiersBareWhenTheContextDoesNotQuote() {
+    RelationalMappingContext unquoted = new RelationalMappingContext();
+    unquoted.setForceQuote(false);
+
+    IdentifierTable identifiers = IdentifierTable.of(names(unquoted), postgres);
+
+    assertThat(identifiers.qualifiedColumn(accountId)).isEqualTo("account.account_id");
+    assertThat(identifiers.aliasedTable(account)).isEqualTo("accounts account");
+  }
+
+  @Test
+  void matchesTheTextTheRendererWrites() {
+    QueryRenderer renderer = QueryRenderer.builder(names(new RelationalMappingContext()),
+            new QueryShapeCache(8))
+        .dialect(new PostgresDialect() { })
+        .build();
+    IdentifierTable identifiers = renderer.identifiers();
+
+    String sql = renderer.render(SelectQuery.from(account).select(ownerEmail).build()).sql();
+
+    assertThat(sql).isEqualTo("SELECT " + identifiers.qualifiedColumn(ownerEmail)
+        + " AS account__owner_email FROM " + identifiers.aliasedTable(account));
+  }
+
+  @Test
+  void rejectsEntitiesOutsideTheSnapshot() {
+    IdentifierTable identifiers = IdentifierTable.of(names(new RelationalMappingContext()),
+        IdentifierProcessing.NONE);
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> identifiers.table(EntityRef.of(Membership.class)))
+        .withMessageContaining("Membership");
+  }
+
+  private ResolvedMetamodel names(RelationalMappingContext mappingContext) {
+    return ResolvedMetamodel.builder(mappingContext)
+        .entity(account, List.of(accountId, ownerEmail))
+        .build();
+  }
+}
@@ -0,0 +1,114 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Account;
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Invoice;
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Membership;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+
+/**
+ * Plans follow the shortest chain of relationships, walking a relationship from either side, and
+ * a tie between two chains is an error at plan time rather than a guess.
+ */
+class JoinPlannerTest {
+
+  private final EntityRef<Account> account = EntityRef.of(Account.class);
+  private final PropertyRef<Account, Long> accountId = account.property("id", Long.class);
+
+  private final EntityRef<Membership> membership = EntityRef.of(Membership.class);
+  private final PropertyRef<Membership, Long> membershipId =
+      membership.property("id", Long.class);
+  private final PropertyRef<Membership, Long> memberAccountId =
+      membership.property("accountId", Long.class);
+  private final PropertyRef<Membership, Long> sponsorAccountId =
+      membership.property("sponsorAccountId", Long.class);
+
+  private final EntityRef<Invoice> invoice = EntityRef.of(Invoice.class);
+  private final PropertyRef<Invoice, Long> invoiceId = invoice.property("id", Long.class);
+  private final PropertyRef<Invoice, Long> invoiceMembershipId =
+      invoice.property("membershipId", Long.class);
+
+  private final JoinRef<Membership, Account> member = JoinRef.of(memberAccountId, accountId);
+  private final JoinRef<Membership, Account> sponsor = JoinRef.of(sponsorAccountId, accountId);
+  private final JoinRef<Invoice, Membership> billed =
+      JoinRef.of(invoiceMembershipId, membershipId);
+
+  private final ResolvedMetamodel names = ResolvedMetamodel.builder(new RelationalMappingContext())
+      .entity(account, List.of(accountId))
+      .entity(membership, List.of(membershipId, memberAccountId, sponsorAccountId))
+      .entity(invoice, List.of(invoiceId, invoiceMembershipId))
+      .build();
+
+  @Test
+  void joinsThroughIntermediatesWalkingRelationshipsEitherWay() {
+    JoinPlanner planner = JoinPlanner.of(List.of(member, billed), new QueryShapeCache(8));
+    EntityRef<Invoice> lastInvoice = invoice.as("last");
+
+    JoinPlan plan = planner.plan(account, List.of(lastInvoice));
+
+    assertThat(plan.instances()).containsExactly(membership, lastInvoice);
+    String sql = QueryRenderer.builder(names, new QueryShapeCache(8)).build()
+        .render(SelectQuery.from(account)
+            .select(accountId, invoiceId.of(lastInvoice))
+            .join(plan)
+            .build())
+        .sql();
+    assertThat(sql).isEqualTo("SELECT account.account_id AS account__account_id, "
+        + "invoice_last.invoice_id AS invoice_last__invoice_id FROM accounts account "
+        + "JOIN memberships membership ON account.account_id = membership.account_id "
+        + "JOIN invoices invoice_last ON membership.membership_id = invoice_last.membership_id");
+  }
+
+  @Test
+  void sharesThePrefixOfPathsToSeveralTargets() {
+    JoinPlanner planner = JoinPlanner.of(List.of(member, billed), new QueryShapeCache(8));
+
+    JoinPlan plan = planner.plan(account, List.of(invoice, membership));
+
+    assertThat(plan.instances()).containsExactly(membership, invoice);
+  }
+
+  @Test
+  void plansAreCachedByRootAndTargets() {
+    QueryShapeCache cache = new QueryShapeCache(8);
+    JoinPlanner planner = JoinPlanner.of(List.of(member, billed), cache);
+
+    JoinPlan first = planner.plan(account, List.of(invoice));
+    JoinPlan second = planner.plan(account, List.of(invoice));
+    planner.plan(account.as("other"), List.of(invoice));
+
+    assertThat(second).isSameAs(first);
+    assertThat(cache.hits()).isEqualTo(1);
+    assertThat(cache.misses()).isEqualTo(2);
+  }
+
+  @Test
+  void rejectsTargetsReachableByTwoEquallyShortChains() {
+    JoinPlanner planner = JoinPlanner.of(List.of(member, sponsor, billed), new QueryShapeCache(8));
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> planner.plan(account, List.of(invoice)))
+        .withMessageContaining("ambiguous")
+        .withMessageContaining("Membership is reached both through " + member)
+        .withMessageContaining(sponsor.toString());
+  }
+
+  @Test
+  void rejectsUnreachableAndSelfTypedTargets() {
+    JoinPlanner planner = JoinPlanner.of(List.of(member), new QueryShapeCache(8));
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> planner.plan(account, List.of(invoice)))
+        .withMessageContaining("No relationship path from Account");
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> planner.plan(account, List.of(account.as("sponsor"))))
+        .withMessageContaining("self-joins");
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> planner.plan(account, List.of(membership, membership)))
+        .withMessageContaining("listed twice");
+  }
+}
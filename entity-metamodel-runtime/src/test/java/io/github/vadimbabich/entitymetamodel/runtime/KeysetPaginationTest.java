@@ -0,0 +1,136 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Account;
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Invoice;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.relational.core.dialect.PostgresDialect;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+
+/**
+ * A page after the first seeks past the previous page's last row with one row-value comparison,
+ * and the token carrying that row round-trips its typed key values.
+ */
+class KeysetPaginationTest {
+
+  private final EntityRef<Invoice> invoice = EntityRef.of(Invoice.class);
+  private final PropertyRef<Invoice, Long> invoiceId = invoice.property("id", Long.class);
+  private final PropertyRef<Invoice, Long> membershipId =
+      invoice.property("membershipId", Long.class);
+  private final PropertyRef<Invoice, Instant> issuedAt =
+      invoice.property("issuedAt", Instant.class);
+
+  private final EntityRef<Account> account = EntityRef.of(Account.class);
+  private final PropertyRef<Account, Long> accountId = account.property("id", Long.class);
+
+  private final ResolvedMetamodel names = ResolvedMetamodel.builder(new RelationalMappingContext())
+      .entity(invoice, List.of(invoiceId, membershipId, issuedAt))
+      .entity(account, List.of(accountId))
+      .build();
+
+  private final Keyset<Invoice> newestFirst =
+      Keyset.descending(names, List.of(issuedAt, invoiceId));
+
+  private final QueryRenderer renderer = QueryRenderer.builder(names, new QueryShapeCache(8))
+      .dialect(new PostgresDialect() { })
+      .bindMarkers(BindMarkerStyle.indexed("$", 1))
+      .build();
+
+  @Test
+  void firstPageOrdersByTheKeysetWithoutAPredicate() {
+    RenderedQuery rendered = renderer.render(page(null));
+
+    assertThat(rendered.sql()).isEqualTo("SELECT invoice.\"invoice_id\" AS invoice__invoice_id, "
+        + "invoice.\"issued_at\" AS invoice__issued_at FROM \"invoices\" invoice "
+        + "WHERE invoice.\"membership_id\" = $1 "
+        + "ORDER BY invoice.\"issued_at\" DESC, invoice.\"invoice_id\" DESC LIMIT 50");
+    assertThat(rendered.bindValues()).containsExactly(7L);
+  }
+
+  @Test
+  void laterPagesSeekPastTheLastRowWithARowValueComparison() {
+    Instant lastIssued = Instant.parse("2026-03-01T10:15:30Z");
+    String token = newestFirst.tokenAfter(List.of(lastIssued, 4711L));
+
+    RenderedQuery rendered = renderer.render(page(token));
+
+    assertThat(rendered.sql()).isEqualTo("SELECT invoice.\"invoice_id\" AS invoice__invoice_id, "
+        + "invoice.\"issued_at\" AS invoice__issued_at FROM \"invoices\" invoice "
+        + "WHERE invoice.\"membership_id\" = $1 "
+        + "AND (invoice.\"issued_at\", invoice.\"invoice_id\") < ($2, $3) "
+        + "ORDER BY invoice.\"issued_at\" DESC, invoice.\"invoice_id\" DESC LIMIT 50");
+    assertThat(rendered.bindValues()).containsExactly(7L, lastIssued, 4711L);
+  }
+
+  @Test
+  void everyLaterPageSharesOneRenderedText() {
+    String second = renderer.render(page(newestFirst.tokenAfter(
+        List.of(Instant.parse("2026-03-01T10:15:30Z"), 4711L)))).sql();
+    String thousandth = renderer.render(page(newestFirst.tokenAfter(
+        List.of(Instant.parse("2024-01-01T00:00:00Z"), 12L)))).sql();
+
+    assertThat(thousandth).isSameAs(second);
+  }
+
+  @Test
+  void takesTheTokenFromTheLastDecodedRow() {
+    SelectQuery<Invoice> query = page(null);
+    Instant lastIssued = Instant.parse("2026-03-01T10:15:30Z");
+    ProjectionDecoder.DecodedRow lastRow = ProjectionDecoder.of(query, names)
+        .decode(List.<Object>of(4711L, lastIssued)::get);
+
+    String token = newestFirst.tokenAfter(lastRow);
+
+    assertThat(token).isEqualTo(newestFirst.tokenAfter(List.of(lastIssued, 4711L)));
+    assertThat(page(token).bindValues()).containsExactly(7L, lastIssued, 4711L);
+  }
+
+  @Test
+  void rejectsTokensOfAnotherOrderingAndMalformedTokens() {
+    String ascendingToken = Keyset.ascending(names, List.of(issuedAt, invoiceId))
+        .tokenAfter(List.of(Instant.EPOCH, 1L));
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> page(ascendingToken))
+        .withMessageContaining("another ordering");
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> page("not a token"))
+        .withMessage("Malformed continuation token");
+  }
+
+  @Test
+  void rejectsKeysetsThatDoNotEndInTheIdentifier() {
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> Keyset.ascending(names, List.of(invoiceId, issuedAt)))
+        .withMessageContaining("must end in the identifier of Invoice");
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> newestFirst.tokenAfter(Arrays.asList(null, 1L)))
+        .withMessageContaining("non-null keys");
+  }
+
+  @Test
+  void rejectsKeysetPagingCombinedWithAnOffset() {
+    assertThatIllegalStateException()
+        .isThrownBy(() -> SelectQuery.from(invoice)
+            .select(invoiceId)
+            .seek(newestFirst, null)
+            .offset(100)
+            .build())
+        .withMessageContaining("cannot be combined with an offset");
+  }
+
+  private SelectQuery<Invoice> page(String token) {
+    return SelectQuery.from(invoice)
+        .select(invoiceId, issuedAt)
+        .where(Filter.eq(membershipId, 7L))
+        .seek(newestFirst, token)
+        .limit(50)
+        .build();
+  }
+}
@@ -0,0 +1,98 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Account;
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Membership;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+
+/**
+ * Labels are matched to positions once per shape; a decoded row then splits a joined row into its
+ * instances by index alone. The row used here counts label lookups to keep that honest.
+ */
+class ProjectionDecoderTest {
+
+  private final EntityRef<Account> account = EntityRef.of(Account.class);
+  private final EntityRef<Account> sponsor = account.as("sponsor");
+  private final PropertyRef<Account, Long> accountId = account.property("id", Long.class);
+  private final PropertyRef<Account, String> ownerEmail =
+      account.property("ownerEmail", String.class);
+
+  private final EntityRef<Membership> membership = EntityRef.of(Membership.class);
+  private final PropertyRef<Membership, Long> membershipId =
+      membership.property("id", Long.class);
+  private final PropertyRef<Membership, Long> memberAccountId =
+      membership.property("accountId", Long.class);
+  private final PropertyRef<Membership, Long> sponsorAccountId =
+      membership.property("sponsorAccountId", Long.class);
+
+  private final ResolvedMetamodel names = ResolvedMetamodel.builder(new RelationalMappingContext())
+      .entity(account, List.of(accountId, ownerEmail))
+      .entity(membership, List.of(membershipId, memberAccountId, sponsorAccountId))
+      .build();
+
+  private final SelectQuery<Membership> query = SelectQuery.from(membership)
+      .select(membershipId, ownerEmail, ownerEmail.of(sponsor), accountId)
+      .join(JoinRef.of(memberAccountId, accountId), account)
+      .join(JoinRef.of(sponsorAccountId, accountId), sponsor)
+      .build();
+
+  @Test
+  void splitsAJoinedRowIntoPerInstanceArrays() {
+    ProjectionDecoder decoder = ProjectionDecoder.of(query, names);
+    Object[] row = {7L, "member@example.com", "sponsor@example.com", 1L};
+
+    ProjectionDecoder.DecodedRow decoded = decoder.decode(index -> row[index]);
+
+    assertThat(decoder.instances()).containsExactly(membership, account, sponsor);
+    assertThat(decoded.values(membership)).containsExactly(7L);
+    assertThat(decoded.values(account)).containsExactly("member@example.com", 1L);
+    assertThat(decoded.values(decoder.slotOf(sponsor))).containsExactly("sponsor@example.com");
+    assertThat(decoded.get(ownerEmail.of(sponsor))).isEqualTo("sponsor@example.com");
+    assertThat(decoder.labels()).containsExactly("membership__membership_id",
+        "account__owner_email", "account_sponsor__owner_email", "account__account_id");
+  }
+
+  @Test
+  void labelsAreResolvedOnceAndRowsAreReadByPositionOnly() {
+    List<String> rowLabels = List.of("ACCOUNT__ACCOUNT_ID", "account_sponsor__owner_email",
+        "membership__membership_id", "account__owner_email");
+    ProjectionDecoder decoder = ProjectionDecoder.of(query, names).forLabels(rowLabels);
+    Object[] row = {1L, "sponsor@example.com", 7L, "member@example.com"};
+    List<Integer> reads = new ArrayList<>();
+
+    ProjectionDecoder.DecodedRow decoded = decoder.decode(index -> {
+      reads.add(index);
+      return row[index];
+    });
+
+    assertThat(reads).hasSize(4).doesNotHaveDuplicates();
+    assertThat(decoded.values(account)).containsExactly("member@example.com", 1L);
+    assertThat(decoded.values(sponsor)).containsExactly("sponsor@example.com");
+  }
+
+  @Test
+  void missingOrAmbiguousLabelsFailWhenTheDecoderIsBuilt() {
+    ProjectionDecoder decoder = ProjectionDecoder.of(query, names);
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> decoder.forLabels(List.of("membership__membership_id")))
+        .withMessageContaining("account__owner_email");
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> decoder.forLabels(List.of("a", "A")))
+        .withMessageContaining("more than once");
+  }
+
+  @Test
+  void nullColumnsDecodeAsNull() {
+    ProjectionDecoder decoder = ProjectionDecoder.of(query, names);
+
+    ProjectionDecoder.DecodedRow decoded = decoder.decode(index -> null);
+
+    assertThat(decoded.values(sponsor)).containsOnlyNulls();
+  }
+}
@@ -0,0 +1,128 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Account;
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Membership;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A property set is a bitset over dense ordinals: the set algebra must agree with plain set
+ * semantics, iterate in declaration order across word boundaries, and refuse handles that do not
+ * belong to the declared properties it was built over.
+ */
+class PropertySetTest {
+
+  private final EntityRef<Account> account = EntityRef.of(Account.class);
+  private final PropertyRef<Account, Long> id = account.property("id", Long.class, 0);
+  private final PropertyRef<Account, String> ownerEmail =
+      account.property("ownerEmail", String.class, 1);
+  private final List<PropertyRef<Account, ?>> declared = List.of(id, ownerEmail);
+
+  @Test
+  void algebraMatchesSetSemantics() {
+    PropertySet<Account> onlyId = PropertySet.noneOf(declared).with(id);
+    PropertySet<Account> onlyEmail = PropertySet.noneOf(declared).with(ownerEmail);
+    PropertySet<Account> all = PropertySet.allOf(declared);
+
+    assertThat(onlyId.union(onlyEmail)).isEqualTo(all);
+    assertThat(onlyId.intersection(onlyEmail).isEmpty()).isTrue();
+    assertThat(all.minus(onlyId)).isEqualTo(onlyEmail);
+    assertThat(all.without(ownerEmail)).isEqualTo(onlyId);
+    assertThat(all.size()).isEqualTo(2);
+    assertThat(onlyId.contains(id)).isTrue();
+    assertThat(onlyId.contains(ownerEmail)).isFalse();
+  }
+
+  @Test
+  void setsAreImmutableAndReturnThemselvesForNoOps() {
+    PropertySet<Account> none = PropertySet.noneOf(declared);
+    PropertySet<Account> withId = none.with(id);
+
+    assertThat(none.isEmpty()).isTrue();
+    assertThat(withId.with(id)).isSameAs(withId);
+    assertThat(none.without(id)).isSameAs(none);
+  }
+
+  @Test
+  void iteratesInDeclarationOrderAcrossWordBoundaries() {
+    List<PropertyRef<Account, ?>> wide = new ArrayList<>();
+    for (int ordinal = 0; ordinal < 130; ordinal++) {
+      wide.add(account.property("p" + ordinal, String.class, ordinal));
+    }
+    PropertySet<Account> picked = PropertySet.noneOf(wide)
+        .with(wide.get(129)).with(wide.get(0)).with(wide.get(64)).with(wide.get(63));
+
+    assertThat(picked).containsExactly(wide.get(0), wide.get(63), wide.get(64), wide.get(129));
+    List<Integer> ordinals = new ArrayList<>();
+    picked.forEachOrdinal(ordinals::add);
+    assertThat(ordinals).containsExactly(0, 63, 64, 129);
+    assertThat(PropertySet.allOf(wide).size()).isEqualTo(130);
+    assertThat(PropertySet.allOf(wide)).containsExactlyElementsOf(wide);
+  }
+
+  @Test
+  void aliasedHandlesAreTheSameMember() {
+    PropertySet<Account> onlyEmail = PropertySet.noneOf(declared).with(ownerEmail);
+
+    assertThat(onlyEmail.contains(ownerEmail.of(account.as("sponsor")))).isTrue();
+  }
+
+  @Test
+  void foreignOrOrdinalLessHandlesAreRejected() {
+    PropertySet<Account> none = PropertySet.noneOf(declared);
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> none.with(account.property("ownerEmail", String.class)))
+        .withMessageContaining("ownerEmail");
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> none.with(account.property("nope", String.class, 1)))
+        .withMessageContaining("nope");
+  }
+
+  @Test
+  void declaredPropertiesMustCarryDenseOrdinalsOfOneEntity() {
+    PropertyRef<Membership, Long> foreign =
+        EntityRef.of(Membership.class).property("accountId", Long.class, 1);
+    List<PropertyRef<?, ?>> mixed = List.of(id, foreign);
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> PropertySet.noneOf(List.of(ownerEmail, id)))
+        .withMessageContaining("ordinal");
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> PropertySet.noneOf(List.of(id, account.property("gap", String.class, 2))))
+        .withMessageContaining("gap");
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> PropertySet.noneOf(uncheckedAccountProperties(mixed)))
+        .withMessageContaining("accountId");
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<PropertyRef<Account, ?>> uncheckedAccountProperties(
+      List<PropertyRef<?, ?>> properties) {
+    // Generics stop this at compile time; raw or reflective callers still reach the check.
+    return (List<PropertyRef<Account, ?>>) (List<?>) properties;
+  }
+
+  @Test
+  void setsOverAliasedDeclaredPropertiesCombine() {
+    EntityRef<Account> sponsor = account.as("sponsor");
+    PropertySet<Account> sponsorEmail =
+        PropertySet.noneOf(List.of(id.of(sponsor), ownerEmail.of(sponsor))).with(ownerEmail);
+    PropertySet<Account> onlyId = PropertySet.noneOf(declared).with(id);
+
+    assertThat(onlyId.union(sponsorEmail)).isEqualTo(PropertySet.allOf(declared));
+    assertThat(sponsorEmail).isEqualTo(PropertySet.noneOf(declared).with(ownerEmail));
+  }
+
+  @Test
+  void setsOverDifferentDeclaredPropertiesDoNotCombine() {
+    PropertySet<Account> full = PropertySet.allOf(declared);
+    PropertySet<Account> narrower = PropertySet.allOf(List.of(id));
+
+    assertThatIllegalArgumentException().isThrownBy(() -> full.union(narrower));
+  }
+}
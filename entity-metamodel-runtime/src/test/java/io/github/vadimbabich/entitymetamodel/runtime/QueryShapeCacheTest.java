@@ -0,0 +1,45 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The cache is bounded and least-recently-used, and its entries belong to one owner: two renderers
+ * sharing a cache never see each other's text for an equal shape.
+ */
+class QueryShapeCacheTest {
+
+  private final Object owner = new Object();
+
+  @Test
+  void evictsTheLeastRecentlyUsedShapeBeyondCapacity() {
+    QueryShapeCache cache = new QueryShapeCache(2);
+    AtomicInteger renders = new AtomicInteger();
+
+    cache.get(owner, "a", () -> "A" + renders.incrementAndGet());
+    cache.get(owner, "b", () -> "B" + renders.incrementAndGet());
+    cache.get(owner, "a", () -> "A" + renders.incrementAndGet());
+    cache.get(owner, "c", () -> "C" + renders.incrementAndGet());
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.get(owner, "a", () -> "stale")).isEqualTo("A1");
+    assertThat(cache.get(owner, "b", () -> "B again")).isEqualTo("B again");
+  }
+
+  @Test
+  void equalShapesOfDifferentOwnersAreSeparateEntries() {
+    QueryShapeCache cache = new QueryShapeCache(4);
+
+    assertThat(cache.get(owner, "a", () -> "first")).isEqualTo("first");
+    assertThat(cache.get(new Object(), "a", () -> "second")).isEqualTo("second");
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  void capacityMustBePositive() {
+    assertThatIllegalArgumentException().isThrownBy(() -> new QueryShapeCache(0));
+  }
+}
@@ -45,6 +45,18 @@ class RefEqualityContractTest {
     assertThat(onDefault).isNotEqualTo(onSecond);
   }
 
+  @Test
+  void ordinalIsDerivedAndTakesNoPartInEquality() {
+    EntityRef<Account> account = EntityRef.of(Account.class);
+    PropertyRef<Account, Long> withOrdinal = account.property("id", Long.class, 0);
+
+    assertThat(withOrdinal).isEqualTo(account.property("id", Long.class));
+    assertThat(withOrdinal.of(account.as("2")).ordinal()).isZero();
+    assertThat(account.property("id", Long.class).hasOrdinal()).isFalse();
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> account.property("id", Long.class, -1));
+  }
+
   @Test
   void equalsIsSymmetricAndNullSafeAndTypeSafe() {
     PropertyRef<Account, Long> ref = EntityRef.of(Account.class).property("id", Long.class);
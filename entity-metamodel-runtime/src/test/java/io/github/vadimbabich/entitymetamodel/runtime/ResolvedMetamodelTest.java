@@ -0,0 +1,132 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Account;
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Membership;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.relational.core.mapping.NamingStrategy;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+
+/**
+ * A snapshot is a caller-owned value resolved once through the context: it must answer exactly as
+ * the context does, fail while being built rather than while rendering, and share nothing with
+ * another snapshot.
+ */
+class ResolvedMetamodelTest {
+
+  private final EntityRef<Account> account = EntityRef.of(Account.class);
+  private final PropertyRef<Account, Long> accountId = account.property("id", Long.class);
+  private final PropertyRef<Account, String> ownerEmail =
+      account.property("ownerEmail", String.class);
+
+  @Test
+  void answersExactlyAsTheContextItWasBuiltFrom() {
+    RelationalMappingContext mappingContext = new RelationalMappingContext();
+    ResolvedMetamodel resolved = ResolvedMetamodel.builder(mappingContext)
+        .entity(account, List.of(accountId, ownerEmail))
+        .build();
+
+    assertThat(account.tableName(resolved)).isEqualTo(account.tableName(mappingContext));
+    assertThat(accountId.columnName(resolved)).isEqualTo("account_id");
+    assertThat(ownerEmail.columnName(resolved)).isEqualTo("owner_email");
+  }
+
+  @Test
+  void aliasedInstancesShareTheNamesOfTheirEntity() {
+    ResolvedMetamodel resolved = ResolvedMetamodel.builder(new RelationalMappingContext())
+        .entity(account, List.of(ownerEmail))
+        .build();
+
+    assertThat(ownerEmail.of(account.as("sponsor")).columnName(resolved)).isEqualTo("owner_email");
+    assertThat(account.as("sponsor").tableName(resolved)).isEqualTo("accounts");
+  }
+
+  @Test
+  void ordinalHandlesReadTheirSlotAndStaleOrdinalsFallBackToTheName() {
+    PropertyRef<Account, Long> idAt0 = account.property("id", Long.class, 0);
+    PropertyRef<Account, String> ownerEmailAt1 = account.property("ownerEmail", String.class, 1);
+    ResolvedMetamodel resolved = ResolvedMetamodel.builder(new RelationalMappingContext())
+        .entity(account, List.of(idAt0, ownerEmailAt1))
+        .build();
+
+    assertThat(idAt0.columnName(resolved)).isEqualTo("account_id");
+    assertThat(ownerEmailAt1.columnName(resolved)).isEqualTo("owner_email");
+    assertThat(account.property("ownerEmail", String.class, 0).columnName(resolved))
+        .isEqualTo("owner_email");
+    assertThat(ownerEmail.columnName(resolved)).isEqualTo("owner_email");
+  }
+
+  @Test
+  void unknownPropertyFailsWhileBuilding() {
+    ResolvedMetamodel.Builder builder = ResolvedMetamodel.builder(new RelationalMappingContext());
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> builder.entity(account, List.of(account.property("nope", String.class))))
+        .withMessageContaining("nope")
+        .withMessageContaining("Account");
+  }
+
+  @Test
+  void namesOutsideTheSnapshotFailRatherThanFallBackToAContext() {
+    ResolvedMetamodel resolved = ResolvedMetamodel.builder(new RelationalMappingContext())
+        .entity(account, List.of(accountId))
+        .build();
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> ownerEmail.columnName(resolved))
+        .withMessageContaining("ownerEmail");
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> EntityRef.of(Membership.class).tableName(resolved))
+        .withMessageContaining("Membership");
+    assertThat(resolved.contains(Membership.class)).isFalse();
+  }
+
+  @Test
+  void duplicateEntitiesAndPropertiesAreRejected() {
+    ResolvedMetamodel.Builder builder = ResolvedMetamodel.builder(new RelationalMappingContext());
+
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> builder.entity(account, List.of(ownerEmail, ownerEmail)))
+        .withMessageContaining("ownerEmail");
+
+    builder.entity(account, List.of(ownerEmail));
+    assertThatIllegalArgumentException()
+        .isThrownBy(() -> builder.entity(account.as("other"), List.of()))
+        .withMessageContaining("Account");
+  }
+
+  @Test
+  void snapshotsOfTwoContextsAreIsolated() {
+    RelationalMappingContext shoutingNaming = new RelationalMappingContext(new NamingStrategy() {
+      @Override
+      public String getColumnName(RelationalPersistentProperty property) {
+        return property.getName().toUpperCase(Locale.ROOT);
+      }
+    });
+    ResolvedMetamodel defaults = ResolvedMetamodel.builder(new RelationalMappingContext())
+        .entity(account, List.of(ownerEmail))
+        .build();
+    ResolvedMetamodel shouting = ResolvedMetamodel.builder(shoutingNaming)
+        .entity(account, List.of(ownerEmail))
+        .build();
+
+    assertThat(ownerEmail.columnName(defaults)).isEqualTo("owner_email");
+    assertThat(ownerEmail.columnName(shouting)).isEqualTo("OWNEREMAIL");
+  }
+
+  @Test
+  void builtSnapshotIgnoresLaterBuilderCalls() {
+    ResolvedMetamodel.Builder builder = ResolvedMetamodel.builder(new RelationalMappingContext())
+        .entity(account, List.of(ownerEmail));
+    ResolvedMetamodel resolved = builder.build();
+
+    builder.entity(EntityRef.of(Membership.class), List.of());
+
+    assertThat(resolved.contains(Membership.class)).isFalse();
+  }
+}
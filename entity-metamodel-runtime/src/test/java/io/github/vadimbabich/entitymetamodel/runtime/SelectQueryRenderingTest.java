@@ -0,0 +1,226 @@
+package io.github.vadimbabich.entitymetamodel.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Account;
+import io.github.vadimbabich.entitymetamodel.runtime.fixtures.Membership;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.relational.core.dialect.PostgresDialect;
+import org.springframework.data.relational.core.mapping.RelationalMappingContext;
+
+/**
+ * Rendering separates a query's shape from its values: queries that differ only in values share
+ * one rendered text and one cache entry, and anything structural — a property, an operator, a
+ * join, the page size — is a different shape.
+ */
+class SelectQueryRenderingTest {
+
+  private final EntityRef<Account> account = EntityRef.of(Account.class);
+  private final PropertyRef<Account, Long> accountId = account.property("id", Long.class);
+  private final PropertyRef<Account, String> ownerEmail =
+      account.property("ownerEmail", String.class);
+
+  private final EntityRef<Membership> membership = EntityRef.of(Membership.class);
+  private final PropertyRef<Membership, Long> membershipId =
+      membership.property("id", Long.class);
+  private final PropertyRef<Membership, Long> memberAccountId =
+      membership.property("accountId", Long.class);
+  private final PropertyRef<Membership, Long> sponsorAccountId =
+      membership.property("sponsorAccountId", Long.class);
+
+  private final ResolvedMetamodel names = ResolvedMetamodel.builder(new RelationalMappingContext())
+      .entity(account, List.of(accountId, ownerEmail))
+      .entity(membership, List.of(membershipId, memberAccountId, sponsorAccountId))
+      .build();
+
+  @Test
+  void rendersLabelledColumnsFiltersAndOrdering() {
+    QueryRenderer renderer = QueryRenderer.builder(names, new QueryShapeCache(8))
+        .bindMarkers(BindMarkerStyle.indexed("$", 1))
+        .build();
+
+    RenderedQuery rendered = renderer.render(SelectQuery.from(account)
+        .select(accountId, ownerEmail)
+        .where(Filter.eq(ownerEmail, "a@example.com")
+            .and(Filter.gt(accountId, 10L).or(Filter.isNull(ownerEmail))))
+        .orderByDescending(accountId)
+        .build());
+
+    assertThat(rendered.sql()).isEqualTo("SELECT account.account_id AS account__account_id, "
+        + "account.owner_email AS account__owner_email FROM accounts account "
+        + "WHERE account.owner_email = $1 "
+        + "AND (account.account_id > $2 OR account.owner_email IS NULL) "
+        + "ORDER BY account.account_id DESC");
+    assertThat(rendered.bindValues()).containsExactly("a@example.com", 10L);
+  }
+
+  @Test
+  void queriesDifferingOnlyInValuesShareOneRenderedText() {
+    QueryShapeCache cache = new QueryShapeCache(8);
+    QueryRenderer renderer = QueryRenderer.builder(names, cache).build();
+
+    RenderedQuery first = renderer.render(byOwner("a@example.com"));
+    RenderedQuery second = renderer.render(byOwner("b@example.com"));
+
+    assertThat(second.sql()).isSameAs(first.sql());
+    assertThat(second.bindValues()).containsExactly("b@example.com");
+    assertThat(cache.misses()).isEqualTo(1);
+    assertThat(cache.hits()).isEqualTo(1);
+  }
+
+  @Test
+  void structuralDifferencesAreDistinctShapes() {
+    QueryShapeCache cache = new QueryShapeCache(8);
+    QueryRenderer renderer = QueryRenderer.builder(names, cache).build();
+
+    renderer.render(byOwner("a@example.com"));
+    renderer.render(SelectQuery.from(account).select(accountId)
+        .where(Filter.ne(ownerEmail, "a@example.com")).build());
+    renderer.render(SelectQuery.from(account).select(accountId)
+        .where(Filter.eq(ownerEmail, "a@example.com")).limit(5).build());
+    renderer.render(SelectQuery.from(account.as("other")).select(accountId.of(account.as("other")))
+        .where(Filter.eq(ownerEmail.of(account.as("other")), "a@example.com")).build());
+
+    assertThat(cache.misses()).isEqualTo(4);
+    assertThat(cache.size()).isEqualTo(4);
+  }
+
+  @Test
+  void joinsTwoInstancesOfTheSameTargetUnderDistinctAliases() {
+    JoinRef<Membership, Account> member = JoinRef.of(memberAccountId, accountId);
+    JoinRef<Membership, Account> sponsor = JoinRef.of(sponsorAccountId, accountId);
+    EntityRef<Account> sponsorAccount = account.as("sponsor");
+
+    RenderedQuery rendered = QueryRenderer.builder(names, new QueryShapeCache(8))
+        .dialect(new PostgresDialect() { })
+        .build()
+        .render(SelectQuery.from(membership)
+            .select(membershipId, ownerEmail, ownerEmail.of(sponsorAccount))
+            .join(member, account)
+            .leftJoin(sponsor, sponsorAccount)
+            .limit(10)
+            .offset(20)
+            .build());
+
+    // PostgreSQL quotes identifiers the mapping context declares quoted; aliases stay bare.
+    assertThat(rendered.sql()).isEqualTo("SELECT membership.\"membership_id\" AS "
+        + "membership__membership_id, account.\"owner_email\" AS account__owner_email, "
+        + "account_sponsor.\"owner_email\" AS account_sponsor__owner_email "
+        + "FROM \"memberships\" membership "
+        + "JOIN \"accounts\" account ON membership.\"account_id\" = account.\"account_id\" "
+        + "LEFT OUTER JOIN \"accounts\" account_sponsor "
+        + "ON membership.\"sponsor_account_id\" = account_sponsor.\"account_id\" "
+        + "LIMIT 10 OFFSET ?");
+    assertThat(rendered.bindValues()).containsExactly(20L);
+  }
+
+  @Test
+  void pagesOfOneQueryShareOneRenderedText() {
+    QueryShapeCache cache = new QueryShapeCache(8);
+    QueryRenderer renderer = QueryRenderer.builder(names, cache)
+        .dialect(new PostgresDialect() { })
+        .bindMarkers(BindMarkerStyle.indexed("$", 1))
+        .build();
+
+    RenderedQuery first = renderer.render(pageByOwner(0));
+    RenderedQuery third = renderer.render(pageByOwner(40));
+
+    assertThat(first.sql()).isEqualTo("SELECT account.\"account_id\" AS account__account_id "
+        + "FROM \"accounts\" account WHERE account.\"owner_email\" = $1 "
+        + "ORDER BY account.\"account_id\" ASC LIMIT 20 OFFSET $2");
+    assertThat(third.sql()).isSameAs(first.sql());
+    assertThat(third.bindValues()).containsExactly("a@example.com", 40L);
+    assertThat(cache.misses()).isEqualTo(1);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  void inBindsOneArrayWhereTheDialectSupportsArrays() {
+    QueryShapeCache cache = new QueryShapeCache(8);
+    QueryRenderer renderer = QueryRenderer.builder(names, cache)
+        .dialect(new PostgresDialect() { })
+        .bindMarkers(BindMarkerStyle.indexed("$", 1))
+        .build();
+
+    RenderedQuery three = renderer.render(byIds(List.of(1L, 2L, 3L)));
+    RenderedQuery five = renderer.render(byIds(List.of(1L, 2L, 3L, 4L, 5L)));
+
+    assertThat(three.sql()).isEqualTo("SELECT account.\"owner_email\" AS account__owner_email "
+        + "FROM \"accounts\" account WHERE account.\"account_id\" = ANY($1)");
+    assertThat(five.sql()).isSameAs(three.sql());
+    assertThat(five.bindValues()).singleElement()
+        .isEqualTo(new Long[] {1L, 2L, 3L, 4L, 5L});
+    assertThat(cache.misses()).isEqualTo(1);
+  }
+
+  @Test
+  void inPadsMarkerListsToPowersOfTwoElsewhere() {
+    QueryRenderer renderer = QueryRenderer.builder(names, new QueryShapeCache(8)).build();
+
+    RenderedQuery three = renderer.render(byIds(List.of(1L, 2L, 3L)));
+
+    assertThat(three.sql()).endsWith("WHERE account.account_id IN (?, ?, ?, ?)");
+    assertThat(three.bindValues()).containsExactly(1L, 2L, 3L, 3L);
+  }
+
+  @Test
+  void renderedTextStaysBoundedAcrossListSizes() {
+    QueryShapeCache padded = new QueryShapeCache(64);
+    QueryShapeCache arrays = new QueryShapeCache(64);
+    QueryRenderer paddingRenderer = QueryRenderer.builder(names, padded).build();
+    QueryRenderer arrayRenderer = QueryRenderer.builder(names, arrays)
+        .dialect(new PostgresDialect() { })
+        .build();
+
+    for (long size = 1; size <= 1000; size++) {
+      List<Long> ids = LongStream.rangeClosed(1, size).boxed().toList();
+      paddingRenderer.render(byIds(ids));
+      arrayRenderer.render(byIds(ids));
+    }
+
+    // Sizes 1..1000 fall into the buckets 1, 2, 4, ..., 1024.
+    assertThat(padded.size()).isEqualTo(11);
+    assertThat(arrays.size()).isEqualTo(1);
+  }
+
+  @Test
+  void arrayBindingCanBeTurnedOffPerRenderer() {
+    QueryRenderer renderer = QueryRenderer.builder(names, new QueryShapeCache(8))
+        .dialect(new PostgresDialect() { })
+        .arrayBoundIn(false)
+        .build();
+
+    assertThat(renderer.render(byIds(List.of(1L, 2L))).sql())
+        .endsWith("WHERE account.\"account_id\" IN (?, ?)");
+  }
+
+  @Test
+  void propertiesOnInstancesOutsideTheQueryAreRejected() {
+    assertThatIllegalStateException()
+        .isThrownBy(() -> SelectQuery.from(account).select(memberAccountId).build())
+        .withMessageContaining("Membership");
+    assertThatIllegalStateException()
+        .isThrownBy(() -> SelectQuery.from(account).build())
+        .withMessageContaining("Nothing selected");
+  }
+
+  private SelectQuery<Account> byIds(List<Long> ids) {
+    return SelectQuery.from(account).select(ownerEmail).where(Filter.in(accountId, ids)).build();
+  }
+
+  private SelectQuery<Account> pageByOwner(long offset) {
+    return SelectQuery.from(account).select(accountId)
+        .where(Filter.eq(ownerEmail, "a@example.com"))
+        .orderBy(accountId)
+        .limit(20)
+        .offset(offset)
+        .build();
+  }
+
+  private SelectQuery<Account> byOwner(String email) {
+    return SelectQuery.from(account).select(accountId).where(Filter.eq(ownerEmail, email)).build();
+  }
+}
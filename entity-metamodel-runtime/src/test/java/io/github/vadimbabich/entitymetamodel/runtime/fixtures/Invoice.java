@@ -0,0 +1,23 @@
+package io.github.vadimbabich.entitymetamodel.runtime.fixtures;
+
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Join fixture: one FK toward {@link Membership}, two hops away from {@link Account}. The issue
+ * time is the leading column of keyset orderings.
+ */
+@Table("invoices")
+public class Invoice {
+
+  @Id
+  @Column("invoice_id")
+  Long id;
+
+  @Column("membership_id")
+  Long membershipId;
+
+  Instant issuedAt;
+}
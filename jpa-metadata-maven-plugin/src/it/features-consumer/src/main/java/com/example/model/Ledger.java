@@ -0,0 +1,38 @@
+package com.example.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A mutable class entity, so optional output reached through setters and fields is compiled too.
+ */
+@Table("ledgers")
+public class Ledger {
+
+  @Id
+  @Column("ledger_id")
+  private Long id;
+
+  @Column("owner")
+  String owner;
+
+  @Column("state")
+  private LedgerState state;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public LedgerState getState() {
+    return state;
+  }
+
+  public void setState(LedgerState state) {
+    this.state = state;
+  }
+}
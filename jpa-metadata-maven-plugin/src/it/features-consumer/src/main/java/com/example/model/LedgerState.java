@@ -0,0 +1,7 @@
+package com.example.model;
+
+/** Not a driver-native type, so generated code converts it through the template's converter. */
+public enum LedgerState {
+  OPEN,
+  CLOSED
+}
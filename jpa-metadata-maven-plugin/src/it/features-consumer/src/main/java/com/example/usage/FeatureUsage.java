@@ -0,0 +1,61 @@
+package com.example.usage;
+
+import com.example.model.Ledger;
+import com.example.model.LedgerState;
+import com.example.model.Ledger_;
+import com.example.model.User;
+import com.example.model.User_;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import java.util.List;
+import java.util.function.Function;
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.query.BoundCondition;
+import org.springframework.data.relational.core.sql.Column_;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.r2dbc.core.binding.BindMarkers;
+
+/**
+ * Uses the optional members the way application code would, so a change to their signatures
+ * fails this build rather than a consumer's.
+ */
+final class FeatureUsage {
+
+  static final Function<Readable, User> USER_MAPPER = User_::map;
+
+  static final Function<Readable, Ledger> LEDGER_MAPPER = Ledger_::map;
+
+  static Publisher<? extends Result> insertLedgers(Connection connection, List<Ledger> ledgers) {
+    Statement statement = connection.createStatement(Ledger_.insertSql(ledgers));
+    return Ledger_.bindInsert(statement, ledgers).execute();
+  }
+
+  static Publisher<? extends Result> updateUser(Connection connection, User user) {
+    return User_.bindUpdateById(connection.createStatement(User_.updateByIdSql()), user).execute();
+  }
+
+  static Select selectUsers() {
+    return Select.builder().select(User_.selectList()).from(User_.getTable()).build();
+  }
+
+  static BoundCondition ledgersOf(String owner, BindMarkers markers) {
+    return Column_.allOf(
+        Ledger_.OWNER.eq(owner, markers),
+        Ledger_.STATE.in(List.of(LedgerState.OPEN, LedgerState.CLOSED), markers));
+  }
+
+  static Select ledgersSharingAnOwner() {
+    Ledger_.Aliased left = Ledger_.as("left");
+    Ledger_.Aliased right = Ledger_.as("right");
+    return Select.builder()
+        .select(left.columns())
+        .from(left.table())
+        .join(right.table()).on(left.OWNER).equals(right.OWNER)
+        .build();
+  }
+
+  private FeatureUsage() {
+  }
+}
@@ -0,0 +1,14 @@
+// Generated sources, with every optional feature enabled, compiled along with code using them.
+def compiledClasses = [
+    'target/classes/com/example/model/User_.class',
+    'target/classes/com/example/model/UserAttribute_.class',
+    'target/classes/com/example/model/Ledger_.class',
+    'target/classes/com/example/usage/FeatureUsage.class',
+]
+compiledClasses.each { relative ->
+    def file = new File(basedir, relative)
+    assert file.isFile() : "Generated source did not compile: ${relative} is missing"
+}
+
+println "Verified: generated sources with optional features compile (${compiledClasses.size()} classes)."
+return true
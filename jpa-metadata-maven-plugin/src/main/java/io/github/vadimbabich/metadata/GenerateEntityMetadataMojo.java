@@ -3,6 +3,7 @@ package io.github.vadimbabich.metadata;
 
 import com.github.javaparser.ast.body.TypeDeclaration;
 import com.google.common.graph.Graph;
+import io.github.vadimbabich.entitymetamodel.core.ClasspathEntityModels;
 import io.github.vadimbabich.metadata.api.EntityMetadataGenerator;
 import io.github.vadimbabich.metadata.api.JavaLanguageLevel;
 import io.github.vadimbabich.metadata.graph.EntityGraphBuilder;
@@ -10,9 +11,13 @@ import io.github.vadimbabich.metadata.graph.NestedEntityGraphBuilder;
 import io.github.vadimbabich.metadata.parser.MetadataCollector;
 import io.github.vadimbabich.metadata.parser.io.FileSystemJavaFileFinder;
 import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -31,7 +36,9 @@ import org.apache.maven.project.MavenProject;
  * references are checked at compile time instead of being written as strings.
  *
  * <p>Only {@code @Table} types declared in {@code packageName} are processed; entities from
- * dependencies or other packages are not.
+ * dependencies or other packages are not. A supertype from a dependency contributes its columns
+ * when the dependency ships its entity model, as modules built with
+ * {@code entity-metamodel-processor} do.
  *
  * @author Vadim Babich
  * @since 1.0.0
@@ -76,6 +83,20 @@ public class GenerateEntityMetadataMojo extends AbstractMojo {
   @Parameter(property = "entityMetadataGenerator", defaultValue = "r2dbc")
   String entityMetadataGenerator;
 
+  /**
+   * Opt-in additions to the generated metamodel, for example {@code row-mappers}. None are enabled
+   * by default, so the generated shape changes only when asked to. Which features exist depends on
+   * the generator; an unknown one fails the build.
+   */
+  @Parameter(property = "features")
+  Set<String> features;
+
+  /**
+   * The compile classpath, searched for the entity models of supertypes declared in dependencies.
+   */
+  @Parameter(defaultValue = "${project.compileClasspathElements}", readonly = true)
+  List<String> classpathElements;
+
   @Parameter(defaultValue = "${project}", readonly = true, required = true)
   MavenProject project;
 
@@ -88,10 +109,14 @@ public class GenerateEntityMetadataMojo extends AbstractMojo {
       Path sourceRoot = resolveSourceRoot();
       MetadataCollector collector = createMetadataCollector(log, sourceRoot);
       EntityMetadataGenerator metadataGenerator = resolveMetadataGenerator(log);
-      EntityGraphBuilder graphBuilder = new NestedEntityGraphBuilder(packageName, collector);
 
       Map<TypeDeclaration<?>, Set<String>> entityFieldsMap = new HashMap<>();
-      Graph<TypeDeclaration<?>> typeGraph = graphBuilder.buildEntityGraph(entityFieldsMap::put);
+      Graph<TypeDeclaration<?>> typeGraph;
+      try (URLClassLoader upstream = createUpstreamClassLoader()) {
+        EntityGraphBuilder graphBuilder = new NestedEntityGraphBuilder(packageName, collector,
+            ClasspathEntityModels.of(upstream));
+        typeGraph = graphBuilder.buildEntityGraph(entityFieldsMap::put);
+      }
 
       metadataGenerator.generateMetadataClasses(typeGraph, entityFieldsMap::get);
 
@@ -108,12 +133,23 @@ public class GenerateEntityMetadataMojo extends AbstractMojo {
     return new MetadataCollector(new FileSystemJavaFileFinder(), sourceRoot, languageLevel, log);
   }
 
+  // Only resources are read, so nothing but the classpath itself is visible through the loader.
+  private URLClassLoader createUpstreamClassLoader() throws MalformedURLException {
+    List<String> elements = classpathElements == null ? List.of() : classpathElements;
+    URL[] urls = new URL[elements.size()];
+    for (int index = 0; index < urls.length; index++) {
+      urls[index] = new File(elements.get(index)).toURI().toURL();
+    }
+    return new URLClassLoader(urls, null);
+  }
+
   EntityMetadataGenerator resolveMetadataGenerator(Log log) {
     return new MetadataGeneratorFactory(
         entityMetadataGenerator,
         outputDirectory,
         log,
-        entityClassName -> entityClassName + "_"
+        entityClassName -> entityClassName + "_",
+        features == null ? Set.of() : features
     ).resolve();
   }
 
@@ -24,15 +24,23 @@ public class MetadataGeneratorFactory {
   private final File outputDir;
   private final String selectedName;
   private final GeneratedClassNamingStrategy classNamingStrategy;
+  private final Set<String> features;
   private final Map<String, EntityMetadataGeneratorFactory> factories = new HashMap<>();
 
   public MetadataGeneratorFactory(String selectedName, File outputDir, Log log,
       GeneratedClassNamingStrategy classNamingStrategy
+  ) {
+    this(selectedName, outputDir, log, classNamingStrategy, Set.of());
+  }
+
+  public MetadataGeneratorFactory(String selectedName, File outputDir, Log log,
+      GeneratedClassNamingStrategy classNamingStrategy, Set<String> features
   ) {
     this.log = log;
     this.outputDir = outputDir;
     this.selectedName = selectedName;
     this.classNamingStrategy = classNamingStrategy;
+    this.features = Set.copyOf(features);
     discoverFactories();
   }
 
@@ -59,7 +67,8 @@ public class MetadataGeneratorFactory {
 
     if (selectedName == null || selectedName.isBlank()) {
       if (factories.size() == 1) {
-        return factories.values().iterator().next().create(classNamingStrategy, outputDir, log);
+        return factories.values().iterator().next()
+            .create(classNamingStrategy, outputDir, log, features);
       }
 
       throw new IllegalStateException(
@@ -72,7 +81,7 @@ public class MetadataGeneratorFactory {
           "'. Supported: " + getSupportedGeneratorNames());
     }
 
-    return factory.create(classNamingStrategy, outputDir, log);
+    return factory.create(classNamingStrategy, outputDir, log, features);
   }
 
   public Set<String> getSupportedGeneratorNames() {
@@ -1,6 +1,7 @@
 package io.github.vadimbabich.metadata.api;
 
 import java.io.File;
+import java.util.Set;
 import org.apache.maven.plugin.logging.Log;
 
 /**
@@ -20,4 +21,20 @@ public interface EntityMetadataGeneratorFactory {
 
   EntityMetadataGenerator create(GeneratedClassNamingStrategy classNamingStrategy,
       File outputDir, Log log);
+
+  /**
+   * Creates a generator with the given opt-in features enabled, as selected with the
+   * {@code features} parameter. Backends without optional output keep this default, which accepts
+   * only an empty selection.
+   *
+   * @throws IllegalArgumentException if a feature is not supported by this backend
+   */
+  default EntityMetadataGenerator create(GeneratedClassNamingStrategy classNamingStrategy,
+      File outputDir, Log log, Set<String> features) {
+    if (!features.isEmpty()) {
+      throw new IllegalArgumentException(
+          "Generator '" + name() + "' supports no features, but got: " + features);
+    }
+    return create(classNamingStrategy, outputDir, log);
+  }
 }
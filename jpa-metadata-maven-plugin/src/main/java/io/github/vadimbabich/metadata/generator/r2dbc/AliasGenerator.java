@@ -0,0 +1,119 @@
+package io.github.vadimbabich.metadata.generator.r2dbc;
+
+import static java.lang.String.format;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.lang.model.element.Modifier;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Builds the {@link R2dbcFeature#ALIASES alias} members of one entity: {@code as(prefix)}, which
+ * returns the table under the alias {@code getTable(entityType, prefix)} gives it together with
+ * every column on that alias. A view is created on first use of its prefix and kept, so a
+ * self-join or a query over several instances of one table allocates no columns per execution.
+ *
+ * @author Vadim Babich
+ */
+final class AliasGenerator {
+
+  private static final ClassName TABLE = ClassName.get(JavaClassGenerator.SQL_PACKAGE, "Table");
+  private static final ClassName COLUMN = ClassName.get(JavaClassGenerator.SQL_PACKAGE, "Column");
+
+  private static final String VIEW_CLASS = "Aliased";
+  private static final String VIEWS = "ALIASED_VIEWS";
+
+  private final ClassName templateAccessor;
+  private final Log log;
+
+  AliasGenerator(ClassName templateAccessor, Log log) {
+    this.templateAccessor = templateAccessor;
+    this.log = log;
+  }
+
+  /** Adds {@code as(prefix)} and its view class, or nothing, with a warning, on a name clash. */
+  void generate(SourceEntity entity, String metadataClassName, TypeSpec.Builder classBuilder) {
+    boolean clash = classBuilder.fieldSpecs.stream().anyMatch(field -> field.name.equals(VIEWS))
+        || classBuilder.typeSpecs.stream().anyMatch(type -> type.name.equals(VIEW_CLASS))
+        || entity.className().simpleName().equals(VIEW_CLASS);
+    if (clash) {
+      log.warn(format("No aliases generated for %s: the name %s or %s is already taken",
+          entity.className(), VIEWS, VIEW_CLASS));
+      return;
+    }
+
+    ClassName view = ClassName.get("", VIEW_CLASS);
+    classBuilder.addField(FieldSpec.builder(
+            ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(String.class), view),
+            VIEWS, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        .initializer("new $T<>()", ConcurrentHashMap.class)
+        .build());
+
+    classBuilder.addMethod(MethodSpec.methodBuilder("as")
+        .addJavadoc("The table under the alias {@code prefix} gives it, with every column on that"
+            + " alias,\nfor self-joins and other queries over several instances of the table."
+            + " The view is\ncreated once per prefix and kept, so prefixes should be constants of"
+            + " the query code.\n")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(view)
+        .addParameter(String.class, "prefix")
+        .addStatement("$T.requireNonNull(prefix, $S)", Objects.class, "prefix")
+        .addStatement("return $N.computeIfAbsent(prefix, $N::new)", VIEWS, VIEW_CLASS)
+        .build());
+
+    classBuilder.addType(buildView(entity, metadataClassName));
+  }
+
+  private TypeSpec buildView(SourceEntity entity, String metadataClassName) {
+    List<String> constants = entity.columns().stream()
+        .map(R2dbcEntityMetadataGenerator::toConstantName)
+        .toList();
+    TypeName columnList = ParameterizedTypeName.get(ClassName.get(List.class), COLUMN);
+
+    TypeSpec.Builder view = TypeSpec.classBuilder(VIEW_CLASS)
+        .addJavadoc("The table of {@code $T} and its columns under one alias.\n",
+            entity.className())
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+        .addField(TABLE, "table", Modifier.PRIVATE, Modifier.FINAL);
+
+    MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+        .addModifiers(Modifier.PRIVATE)
+        .addParameter(String.class, "prefix")
+        .addStatement("this.table = $T.getTable($T.class, prefix)", templateAccessor,
+            entity.className());
+
+    for (String constant : constants) {
+      view.addField(COLUMN, constant, Modifier.PUBLIC, Modifier.FINAL);
+      constructor.addStatement("this.$N = table.column($L.$N.name())", constant,
+          metadataClassName, constant);
+    }
+    view.addField(columnList, "columns", Modifier.PRIVATE, Modifier.FINAL);
+    constructor.addStatement("this.columns = $T.of($L)", List.class, constants.stream()
+        .map(constant -> CodeBlock.of("$N", constant))
+        .collect(CodeBlock.joining(", ")));
+
+    return view
+        .addMethod(constructor.build())
+        .addMethod(MethodSpec.methodBuilder("table")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(TABLE)
+            .addStatement("return table")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("columns")
+            .addJavadoc("Every column on this alias, in the order of the metamodel's constants.\n")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(columnList)
+            .addStatement("return columns")
+            .build())
+        .build();
+  }
+}
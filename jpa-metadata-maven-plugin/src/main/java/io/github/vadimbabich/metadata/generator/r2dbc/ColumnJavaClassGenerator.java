@@ -1,14 +1,22 @@
 package io.github.vadimbabich.metadata.generator.r2dbc;
 
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiFunction;
 import javax.lang.model.element.Modifier;
 import org.apache.maven.plugin.logging.Log;
 
@@ -20,11 +28,31 @@ import org.apache.maven.plugin.logging.Log;
  * two artifacts. Consumers compile against this shape today, so it is frozen until the runtime
  * library replaces it.
  *
+ * <p>With the {@link R2dbcFeature#CRITERIA criteria} feature the class becomes {@code Column_<T>},
+ * typed by the property, with comparisons that bind their value against the resolved column.
+ *
  * @author Vadim Babich
  */
 public class ColumnJavaClassGenerator implements JavaClassGenerator {
 
   private static final ClassName LAZY = ClassName.get("org.springframework.data.util", "Lazy");
+  private static final ClassName TYPE_INFORMATION =
+      ClassName.get("org.springframework.data.util", "TypeInformation");
+  private static final ClassName BOUND_CONDITION =
+      ClassName.get("org.springframework.data.r2dbc.query", "BoundCondition");
+  private static final ClassName BINDINGS =
+      ClassName.get("org.springframework.r2dbc.core.binding", "Bindings");
+  private static final ClassName MUTABLE_BINDINGS =
+      ClassName.get("org.springframework.r2dbc.core.binding", "MutableBindings");
+  private static final ClassName BIND_MARKERS =
+      ClassName.get("org.springframework.r2dbc.core.binding", "BindMarkers");
+  private static final ClassName BIND_MARKER =
+      ClassName.get("org.springframework.r2dbc.core.binding", "BindMarker");
+  private static final ClassName CONDITION = ClassName.get(SQL_PACKAGE, "Condition");
+  private static final ClassName CONDITIONS = ClassName.get(SQL_PACKAGE, "Conditions");
+  private static final ClassName EXPRESSION = ClassName.get(SQL_PACKAGE, "Expression");
+  private static final ClassName SQL = ClassName.get(SQL_PACKAGE, "SQL");
+  private static final TypeVariableName T = TypeVariableName.get("T");
 
   private final Log log;
 
@@ -32,11 +60,18 @@ public class ColumnJavaClassGenerator implements JavaClassGenerator {
 
   private final ClassName r2dbcHolder;
   private final ClassName extendedColumnClass;
+  private final boolean typedCriteria;
 
   public ColumnJavaClassGenerator(ClassNameAware r2dbcHolder, File outputDir, Log log) {
+    this(r2dbcHolder, outputDir, log, false);
+  }
+
+  public ColumnJavaClassGenerator(ClassNameAware r2dbcHolder, File outputDir, Log log,
+      boolean typedCriteria) {
     this.r2dbcHolder = r2dbcHolder.className();
     this.outputDir = outputDir;
     this.log = log;
+    this.typedCriteria = typedCriteria;
 
     this.extendedColumnClass = ClassName.get(SQL_PACKAGE, "Column_");
   }
@@ -76,6 +111,10 @@ public class ColumnJavaClassGenerator implements JavaClassGenerator {
             LAZY)
         .build();
 
+    if (typedCriteria) {
+      return buildTypedColumnClass(expression, delegateField, constructor);
+    }
+
     return TypeSpec.classBuilder(extendedColumnClass)
         .addModifiers(Modifier.PUBLIC)
         .addSuperinterface(expression)
@@ -83,13 +122,151 @@ public class ColumnJavaClassGenerator implements JavaClassGenerator {
         .addMethod(constructor)
         .addMethod(generateNameMethod())
         .addMethod(generateToStringMethod())
-        .addMethod(generateEqualsMethod())
+        .addMethod(generateEqualsMethod("Column_"))
         .addMethod(generateHashCodeMethod())
         .addMethod(generateGetColumnNameMethod())
         .addMethod(generateGetTableMethod())
         .build();
   }
 
+  // The default shape plus the criteria members. Values are written by the template's converter
+  // with the property's type resolved once, which is the part of QueryMapper's work a comparison
+  // still needs; the column itself is already resolved.
+  private TypeSpec buildTypedColumnClass(ClassName expression, FieldSpec delegateField,
+      MethodSpec constructor) {
+    TypeName propertyType = ParameterizedTypeName.get(TYPE_INFORMATION,
+        WildcardTypeName.subtypeOf(Object.class));
+    FieldSpec valueTypeField = FieldSpec.builder(lazyOf(propertyType), "valueType",
+            Modifier.PRIVATE, Modifier.FINAL)
+        .build();
+    // The constructor keeps the default shape's raw Class; viewing it as Class<?> for the lookup
+    // keeps the call checked.
+    MethodSpec typedConstructor = constructor.toBuilder()
+        .addStatement("this.valueType = $T.of(() -> $T.getPersistentEntity((Class<?>) entityType)"
+            + ".getRequiredPersistentProperty(fieldName).getTypeInformation())", LAZY, r2dbcHolder)
+        .build();
+
+    return TypeSpec.classBuilder(extendedColumnClass)
+        .addModifiers(Modifier.PUBLIC)
+        .addTypeVariable(T)
+        .addSuperinterface(expression)
+        .addField(delegateField)
+        .addField(valueTypeField)
+        .addMethod(typedConstructor)
+        .addMethod(generateNameMethod())
+        .addMethod(comparison("eq", "isEqual", "{@code column = value}"))
+        .addMethod(comparison("ne", "isNotEqual", "{@code column != value}"))
+        .addMethod(comparison("lt", "isLess", "{@code column < value}"))
+        .addMethod(comparison("le", "isLessOrEqualTo", "{@code column <= value}"))
+        .addMethod(comparison("gt", "isGreater", "{@code column > value}"))
+        .addMethod(comparison("ge", "isGreaterOrEqualTo", "{@code column >= value}"))
+        .addMethod(generateInMethod())
+        .addMethod(generateIsNullMethod("isNull", "$T.isNull(delegate.get())",
+            "{@code column IS NULL}"))
+        .addMethod(generateIsNullMethod("isNotNull", "$T.isNull(delegate.get()).not()",
+            "{@code column IS NOT NULL}"))
+        .addMethod(generateCombineMethod("allOf", "and"))
+        .addMethod(generateCombineMethod("anyOf", "or"))
+        .addMethod(generateToStringMethod())
+        .addMethod(generateEqualsMethod("Column_<?>"))
+        .addMethod(generateHashCodeMethod())
+        .addMethod(generateCompareMethod())
+        .addMethod(generateBindMethod())
+        .addMethod(generateGetColumnNameMethod())
+        .addMethod(generateGetTableMethod())
+        .build();
+  }
+
+  private MethodSpec comparison(String name, String condition, String sql) {
+    return MethodSpec.methodBuilder(name)
+        .addJavadoc("$L, with {@code value} bound to the next of {@code markers}.\n", sql)
+        .addModifiers(Modifier.PUBLIC)
+        .returns(BOUND_CONDITION)
+        .addParameter(T, "value")
+        .addParameter(BIND_MARKERS, "markers")
+        .addStatement("return compare(value, markers, $T::$N)", CONDITIONS, condition)
+        .build();
+  }
+
+  private MethodSpec generateInMethod() {
+    return MethodSpec.methodBuilder("in")
+        .addJavadoc("{@code column IN (...)}, with one marker per value.\n")
+        .addModifiers(Modifier.PUBLIC)
+        .returns(BOUND_CONDITION)
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class),
+            WildcardTypeName.subtypeOf(T)), "values")
+        .addParameter(BIND_MARKERS, "markers")
+        .beginControlFlow("if (values.isEmpty())")
+        .addStatement("throw new $T(\"No values to match \" + this + \" against\")",
+            IllegalArgumentException.class)
+        .endControlFlow()
+        .addStatement("$1T bindings = new $1T(markers)", MUTABLE_BINDINGS)
+        .addStatement("$T<$T> expressions = values.stream().map(value -> bind(bindings, value))"
+            + ".toList()", List.class, EXPRESSION)
+        .addStatement("return new $T(bindings, $T.in(delegate.get(), expressions))",
+            BOUND_CONDITION, CONDITIONS)
+        .build();
+  }
+
+  private MethodSpec generateIsNullMethod(String name, String condition, String sql) {
+    return MethodSpec.methodBuilder(name)
+        .addJavadoc("$L.\n", sql)
+        .addModifiers(Modifier.PUBLIC)
+        .returns(BOUND_CONDITION)
+        .addStatement("return new $T($T.empty(), " + condition + ")", BOUND_CONDITION, BINDINGS,
+            CONDITIONS)
+        .build();
+  }
+
+  private MethodSpec generateCombineMethod(String name, String operator) {
+    return MethodSpec.methodBuilder(name)
+        .addJavadoc("Joins conditions with {@code $L}, keeping every binding.\n",
+            operator.toUpperCase(Locale.ROOT))
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .varargs()
+        .returns(BOUND_CONDITION)
+        .addParameter(BOUND_CONDITION, "first")
+        .addParameter(ArrayTypeName.of(BOUND_CONDITION), "more")
+        .addStatement("$T bindings = first.getBindings()", BINDINGS)
+        .addStatement("$T condition = first.getCondition()", CONDITION)
+        .beginControlFlow("for ($T next : more)", BOUND_CONDITION)
+        .addStatement("bindings = bindings.and(next.getBindings())")
+        .addStatement("condition = condition.$N(next.getCondition())", operator)
+        .endControlFlow()
+        .addStatement("return new $T(bindings, condition)", BOUND_CONDITION)
+        .build();
+  }
+
+  private MethodSpec generateCompareMethod() {
+    return MethodSpec.methodBuilder("compare")
+        .addModifiers(Modifier.PRIVATE)
+        .returns(BOUND_CONDITION)
+        .addParameter(T, "value")
+        .addParameter(BIND_MARKERS, "markers")
+        .addParameter(ParameterizedTypeName.get(ClassName.get(BiFunction.class), EXPRESSION,
+            EXPRESSION, WildcardTypeName.subtypeOf(CONDITION)), "comparison")
+        .beginControlFlow("if (value == null)")
+        .addStatement("throw new $T(\"Cannot compare \" + this + \" with null; use isNull()\")",
+            IllegalArgumentException.class)
+        .endControlFlow()
+        .addStatement("$1T bindings = new $1T(markers)", MUTABLE_BINDINGS)
+        .addStatement("return new $T(bindings, comparison.apply(delegate.get(), "
+            + "bind(bindings, value)))", BOUND_CONDITION)
+        .build();
+  }
+
+  private MethodSpec generateBindMethod() {
+    return MethodSpec.methodBuilder("bind")
+        .addModifiers(Modifier.PRIVATE)
+        .returns(EXPRESSION)
+        .addParameter(MUTABLE_BINDINGS, "bindings")
+        .addParameter(Object.class, "value")
+        .addStatement("$T marker = bindings.bind($T.getTemplate().getConverter()"
+            + ".writeValue(value, valueType.get()))", BIND_MARKER, r2dbcHolder)
+        .addStatement("return $T.bindMarker(marker.getPlaceholder())", SQL)
+        .build();
+  }
+
 
   private MethodSpec generateNameMethod() {
     return MethodSpec.methodBuilder("name")
@@ -108,13 +285,14 @@ public class ColumnJavaClassGenerator implements JavaClassGenerator {
         .build();
   }
 
-  private MethodSpec generateEqualsMethod() {
+  private MethodSpec generateEqualsMethod(String patternType) {
     return MethodSpec.methodBuilder("equals")
         .addAnnotation(Override.class)
         .addModifiers(Modifier.PUBLIC)
         .returns(boolean.class)
         .addParameter(Object.class, "other")
-        .addStatement("if (other instanceof Column_ column) { other = column.delegate.get(); }")
+        .addStatement("if (other instanceof $L column) { other = column.delegate.get(); }",
+            patternType)
         .addStatement("return delegate.get().equals(other)")
         .build();
   }
@@ -163,7 +341,7 @@ public class ColumnJavaClassGenerator implements JavaClassGenerator {
         .build();
   }
 
-  private ParameterizedTypeName lazyOf(ClassName type) {
+  private ParameterizedTypeName lazyOf(TypeName type) {
     return ParameterizedTypeName.get(LAZY, type);
   }
 }
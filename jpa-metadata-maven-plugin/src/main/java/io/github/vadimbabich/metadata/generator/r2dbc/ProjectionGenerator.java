@@ -0,0 +1,89 @@
+package io.github.vadimbabich.metadata.generator.r2dbc;
+
+import static java.lang.String.format;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import javax.lang.model.element.Modifier;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Builds the {@link R2dbcFeature#PROJECTIONS projection} members of one entity: {@code COLUMNS},
+ * every column constant in column-constant order, so the entity's own columns before inherited
+ * ones, and {@code selectList()}, the same columns resolved once against the default table alias.
+ * Queries select exactly the mapped columns instead of {@code AsteriskFromTable}, without building
+ * the list per query.
+ *
+ * <p>Spring's {@code SelectList} cannot be created outside its package and is not accepted by
+ * {@code SelectBuilder}; the list of {@code Column}s is what {@code select(Collection)} takes.
+ *
+ * @author Vadim Babich
+ */
+final class ProjectionGenerator {
+
+  private static final ClassName LAZY = ClassName.get("org.springframework.data.util", "Lazy");
+  private static final ClassName COLUMN = ClassName.get(JavaClassGenerator.SQL_PACKAGE, "Column");
+
+  private static final String COLUMNS = "COLUMNS";
+  private static final String SELECT_LIST = "SELECT_LIST";
+
+  private final TypeName columnType;
+  private final Log log;
+
+  ProjectionGenerator(TypeName columnType, Log log) {
+    this.columnType = columnType;
+    this.log = log;
+  }
+
+  /** Adds the projection members, or nothing when the entity has no columns. */
+  void generate(SourceEntity entity, TypeSpec.Builder classBuilder) {
+    if (entity.columns().isEmpty()) {
+      log.debug(format("No projections generated for %s: it has no columns", entity.className()));
+      return;
+    }
+    Optional<String> clash = classBuilder.fieldSpecs.stream()
+        .map(field -> field.name)
+        .filter(Set.of(COLUMNS, SELECT_LIST)::contains)
+        .findFirst();
+    if (clash.isPresent()) {
+      log.warn(format("No projections generated for %s: a column constant is already named %s",
+          entity.className(), clash.get()));
+      return;
+    }
+
+    List<String> constants = entity.columns().stream()
+        .map(R2dbcEntityMetadataGenerator::toConstantName)
+        .toList();
+    TypeName columnList = ParameterizedTypeName.get(ClassName.get(List.class), COLUMN);
+
+    classBuilder.addField(FieldSpec.builder(
+            ParameterizedTypeName.get(ClassName.get(List.class), columnType), COLUMNS,
+            Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+        .addJavadoc("Every column constant, in column-constant order.\n")
+        .initializer("$T.of($L)", List.class, String.join(", ", constants))
+        .build());
+    classBuilder.addField(FieldSpec.builder(ParameterizedTypeName.get(LAZY, columnList),
+            SELECT_LIST, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        .initializer("$T.of(() -> $T.copyOf(getTable().columns($L)))", LAZY, List.class,
+            constants.stream()
+                .map(constant -> CodeBlock.of("$N.name()", constant))
+                .collect(CodeBlock.joining(", ")))
+        .build());
+
+    classBuilder.addMethod(MethodSpec.methodBuilder("selectList")
+        .addJavadoc("The columns of {@link #$N} on {@link #getTable()}, for\n"
+            + "{@code Select.builder().select(selectList())}. Resolved on first use.\n", COLUMNS)
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(columnList)
+        .addStatement("return $N.get()", SELECT_LIST)
+        .build());
+  }
+}
@@ -11,12 +11,16 @@ import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
 import io.github.vadimbabich.metadata.api.EntityMetadataGenerator;
 import io.github.vadimbabich.metadata.api.GeneratedClassNamingStrategy;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
@@ -40,16 +44,41 @@ public class R2dbcEntityMetadataGenerator implements EntityMetadataGenerator {
   private final JavaClassGenerator r2dbcHolder;
   private final JavaClassGenerator extendedColumnClass;
   private final GeneratedClassNamingStrategy generatedClassNamingStrategy;
+  private final Set<R2dbcFeature> features;
+  private final RowMapperGenerator rowMapperGenerator;
+  private final StatementGenerator statementGenerator;
+  private final ProjectionGenerator projectionGenerator;
+  private final AliasGenerator aliasGenerator;
 
   public R2dbcEntityMetadataGenerator(GeneratedClassNamingStrategy generatedClassNamingStrategy,
       File outputDir,
       Log log) {
+    this(generatedClassNamingStrategy, outputDir, log, Set.of());
+  }
+
+  public R2dbcEntityMetadataGenerator(GeneratedClassNamingStrategy generatedClassNamingStrategy,
+      File outputDir,
+      Log log,
+      Set<R2dbcFeature> features) {
     this.log = log;
     this.outputDir = outputDir;
     this.generatedClassNamingStrategy = generatedClassNamingStrategy;
+    this.features = features.isEmpty()
+        ? EnumSet.noneOf(R2dbcFeature.class)
+        : EnumSet.copyOf(features);
 
     this.r2dbcHolder = new R2DbcEntityTemplateStaticHolderGeneratorJava(outputDir, log);
-    this.extendedColumnClass = new ColumnJavaClassGenerator(r2dbcHolder, outputDir, log);
+    this.extendedColumnClass = new ColumnJavaClassGenerator(r2dbcHolder, outputDir, log,
+        this.features.contains(R2dbcFeature.CRITERIA));
+    this.rowMapperGenerator = new RowMapperGenerator(r2dbcHolder.className(), log);
+    this.statementGenerator = new StatementGenerator(r2dbcHolder.className(), log);
+    ClassName columnClass = extendedColumnClass.className();
+    this.projectionGenerator = new ProjectionGenerator(
+        this.features.contains(R2dbcFeature.CRITERIA)
+            ? ParameterizedTypeName.get(columnClass, WildcardTypeName.subtypeOf(Object.class))
+            : columnClass,
+        log);
+    this.aliasGenerator = new AliasGenerator(r2dbcHolder.className(), log);
   }
 
 
@@ -115,8 +144,14 @@ public class R2dbcEntityMetadataGenerator implements EntityMetadataGenerator {
       classBuilder.addModifiers(Modifier.STATIC);
     }
 
-    addColumnFields(classBuilder, targetClassName, entityFullClassName,
-        entityFieldsResolver.apply(entityClassDeclaration));
+    Set<String> columnFields = entityFieldsResolver.apply(entityClassDeclaration);
+    Optional<SourceEntity> sourceEntity = features.isEmpty()
+        ? Optional.empty()
+        : Optional.of(SourceEntity.of(entityClassDeclaration, entityFullClassName, columnFields));
+    addColumnFields(classBuilder, targetClassName, entityFullClassName, columnFields,
+        sourceEntity);
+
+    sourceEntity.ifPresent(entity -> addFeatureMembers(classBuilder, targetClassName, entity));
 
     for (TypeDeclaration<?> child : graph.successors(entityClassDeclaration)) {
       TypeSpec nested = buildMetadataClass(child, graph, entityFieldsResolver, true);
@@ -127,6 +162,24 @@ public class R2dbcEntityMetadataGenerator implements EntityMetadataGenerator {
   }
 
 
+  // Opt-in members follow the default shape, so a metamodel generated without features is
+  // unchanged and the golden corpus holds.
+  private void addFeatureMembers(TypeSpec.Builder classBuilder, String targetClassName,
+      SourceEntity entity) {
+    if (features.contains(R2dbcFeature.PROJECTIONS)) {
+      projectionGenerator.generate(entity, classBuilder);
+    }
+    if (features.contains(R2dbcFeature.ROW_MAPPERS)) {
+      rowMapperGenerator.generate(entity, targetClassName).ifPresent(classBuilder::addMethod);
+    }
+    if (features.contains(R2dbcFeature.STATEMENTS)) {
+      statementGenerator.generate(entity, targetClassName, classBuilder);
+    }
+    if (features.contains(R2dbcFeature.ALIASES)) {
+      aliasGenerator.generate(entity, targetClassName, classBuilder);
+    }
+  }
+
   private MethodSpec createGetTableMethodSpec(ClassName entityFullClassName) {
     ClassName table = ClassName.get(JavaClassGenerator.SQL_PACKAGE, "Table");
 
@@ -152,25 +205,38 @@ public class R2dbcEntityMetadataGenerator implements EntityMetadataGenerator {
   }
 
   private void addColumnFields(TypeSpec.Builder classBuilder, String targetClassName,
-      ClassName entityFullClassName, Collection<String> fields) {
+      ClassName entityFullClassName, Collection<String> fields,
+      Optional<SourceEntity> sourceEntity) {
 
     ClassName columnClassName = extendedColumnClass.className();
+    boolean typed = features.contains(R2dbcFeature.CRITERIA);
 
     fields.forEach(fieldName -> {
       String constantName = toConstantName(fieldName);
       log.debug(format("Generating field %s.%s as %s", targetClassName, constantName,
           columnClassName));
 
+      TypeName constantType = typed
+          ? ParameterizedTypeName.get(columnClassName, valueType(sourceEntity, fieldName))
+          : columnClassName;
       classBuilder.addField(
-          FieldSpec.builder(columnClassName, constantName, Modifier.PUBLIC, Modifier.STATIC,
+          FieldSpec.builder(constantType, constantName, Modifier.PUBLIC, Modifier.STATIC,
                   Modifier.FINAL)
-              .initializer("new $T($T.class, $S)", columnClassName, entityFullClassName,
-                  fieldName)
+              .initializer(typed ? "new $T<>($T.class, $S)" : "new $T($T.class, $S)",
+                  columnClassName, entityFullClassName, fieldName)
               .build()
       );
     });
   }
 
+  // A column the entity's own source does not declare, an inherited one, has no known type; its
+  // comparisons take any value and leave the conversion to the template.
+  private static TypeName valueType(Optional<SourceEntity> sourceEntity, String fieldName) {
+    return sourceEntity.flatMap(entity -> entity.property(fieldName))
+        .map(property -> property.type().box())
+        .orElse(ClassName.OBJECT);
+  }
+
   // Walks out through the enclosing types so a nested entity resolves to Outer.Inner rather than
   // to a top-level Inner, which would not compile.
   private ClassName getEntityFullClassName(TypeDeclaration<?> entityClass,
@@ -195,7 +261,7 @@ public class R2dbcEntityMetadataGenerator implements EntityMetadataGenerator {
     return ClassName.bestGuess(fullClassPath + "." + entityClassName);
   }
 
-  private String toConstantName(String fieldName) {
+  static String toConstantName(String fieldName) {
     return fieldName
         .replaceAll("([a-z0-9])([A-Z])", "$1_$2")
         .replaceAll("([A-Z])([A-Z][a-z])", "$1_$2")
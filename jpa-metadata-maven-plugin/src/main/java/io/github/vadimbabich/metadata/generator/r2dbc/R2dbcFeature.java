@@ -0,0 +1,79 @@
+package io.github.vadimbabich.metadata.generator.r2dbc;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Optional output of the {@code r2dbc} backend, selected by id with the {@code features}
+ * parameter. Every feature adds members to the metamodel and leaves the default shape untouched.
+ *
+ * @author Vadim Babich
+ */
+public enum R2dbcFeature {
+
+  /** A reflection-free {@code map(Readable)} method per entity, for {@code .map(User_::map)}. */
+  ROW_MAPPERS("row-mappers"),
+
+  /**
+   * INSERT and UPDATE-by-id SQL with positional bind markers, rendered once per entity, and
+   * binders that set an entity's values in column order, for one row or a batch.
+   */
+  STATEMENTS("statements"),
+
+  /**
+   * {@code COLUMNS}, every column constant in order, and {@code selectList()}, the same columns on
+   * the default alias, so queries can project the mapped columns instead of selecting {@code *}.
+   */
+  PROJECTIONS("projections"),
+
+  /**
+   * Typed column constants, {@code Column_<T>}, with {@code eq}, {@code in}, {@code isNull} and
+   * the other comparisons, each producing a condition with its bindings without a
+   * {@code QueryMapper} pass.
+   */
+  CRITERIA("criteria"),
+
+  /**
+   * {@code as(prefix)}, the table and every column under one alias, created once per prefix, for
+   * self-joins and other queries over several instances of a table.
+   */
+  ALIASES("aliases");
+
+  private final String id;
+
+  R2dbcFeature(String id) {
+    this.id = id;
+  }
+
+  /** The identifier users list in the {@code features} parameter. */
+  public String id() {
+    return id;
+  }
+
+  /**
+   * Maps feature identifiers to features.
+   *
+   * @throws IllegalArgumentException naming the supported identifiers, if one is unknown
+   */
+  public static Set<R2dbcFeature> parse(Collection<String> ids) {
+    Set<R2dbcFeature> features = EnumSet.noneOf(R2dbcFeature.class);
+
+    for (String id : ids) {
+      features.add(Arrays.stream(values())
+          .filter(feature -> feature.id.equals(id.trim()))
+          .findFirst()
+          .orElseThrow(() -> new IllegalArgumentException(
+              "Unknown r2dbc feature: '" + id + "'. Supported: " + supportedIds())));
+    }
+    return features;
+  }
+
+  private static String supportedIds() {
+    return Arrays.stream(values())
+        .map(R2dbcFeature::id)
+        .collect(Collectors.joining(", ", "[", "]"));
+  }
+}
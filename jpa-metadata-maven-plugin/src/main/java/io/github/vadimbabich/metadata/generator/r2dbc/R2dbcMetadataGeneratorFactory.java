@@ -4,6 +4,7 @@ import io.github.vadimbabich.metadata.api.EntityMetadataGenerator;
 import io.github.vadimbabich.metadata.api.EntityMetadataGeneratorFactory;
 import io.github.vadimbabich.metadata.api.GeneratedClassNamingStrategy;
 import java.io.File;
+import java.util.Set;
 import org.apache.maven.plugin.logging.Log;
 
 /**
@@ -23,4 +24,11 @@ public class R2dbcMetadataGeneratorFactory implements EntityMetadataGeneratorFac
       GeneratedClassNamingStrategy classNamingStrategy, File outputDir, Log log) {
     return new R2dbcEntityMetadataGenerator(classNamingStrategy, outputDir, log);
   }
+
+  @Override
+  public EntityMetadataGenerator create(GeneratedClassNamingStrategy classNamingStrategy,
+      File outputDir, Log log, Set<String> features) {
+    return new R2dbcEntityMetadataGenerator(classNamingStrategy, outputDir, log,
+        R2dbcFeature.parse(features));
+  }
 }
@@ -0,0 +1,150 @@
+package io.github.vadimbabich.metadata.generator.r2dbc;
+
+import static java.lang.String.format;
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import io.github.vadimbabich.metadata.generator.r2dbc.SourceEntity.Property;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import javax.lang.model.element.Modifier;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Builds the {@link R2dbcFeature#ROW_MAPPERS row mapper} of one entity: a static
+ * {@code map(Readable)} that reads each column by the name its {@code Column_} constant resolved
+ * once, and creates the entity through its canonical constructor or its setters. Types a driver
+ * returns natively are read as such; every other type goes through the template's converter, as
+ * {@code MappingR2dbcConverter} would, so enums and custom conversions keep working.
+ *
+ * @author Vadim Babich
+ */
+final class RowMapperGenerator {
+
+  private static final ClassName READABLE = ClassName.get("io.r2dbc.spi", "Readable");
+  private static final ClassName R2DBC_CONVERTER =
+      ClassName.get("org.springframework.data.r2dbc.convert", "R2dbcConverter");
+  private static final ClassName TYPE_INFORMATION =
+      ClassName.get("org.springframework.data.util", "TypeInformation");
+
+  // The Java types the R2DBC specification maps SQL types to; drivers return these directly.
+  private static final Set<TypeName> DRIVER_NATIVE_TYPES = Set.of(
+      ClassName.get(String.class), ClassName.get(Boolean.class), ClassName.get(Short.class),
+      ClassName.get(Integer.class), ClassName.get(Long.class), ClassName.get(Float.class),
+      ClassName.get(Double.class), ClassName.get(BigDecimal.class),
+      ClassName.get(LocalDate.class), ClassName.get(LocalTime.class),
+      ClassName.get(LocalDateTime.class), ClassName.get(OffsetTime.class),
+      ClassName.get(OffsetDateTime.class), ClassName.get(ByteBuffer.class));
+
+  private static final String ROW = "row";
+  private static final String ENTITY = "entity";
+  private static final String CONVERTER = "converter";
+
+  private final ClassName templateAccessor;
+  private final Log log;
+
+  RowMapperGenerator(ClassName templateAccessor, Log log) {
+    this.templateAccessor = templateAccessor;
+    this.log = log;
+  }
+
+  /** The mapper method, or empty, with a warning, when the entity cannot be mapped from source. */
+  Optional<MethodSpec> generate(SourceEntity entity, String metadataClassName) {
+    String skipReason = skipReason(entity);
+    if (skipReason != null) {
+      log.warn(format("No row mapper generated for %s: %s", entity.className(), skipReason));
+      return Optional.empty();
+    }
+
+    List<Property> properties = entity.properties();
+    MethodSpec.Builder method = MethodSpec.methodBuilder("map")
+        .addJavadoc("Reads one row into {@code $T} without reflection, for use as\n"
+            + "{@code .map($L::map)}. A NULL in a column mapped to a primitive fails the read.\n",
+            entity.className(), metadataClassName)
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(entity.className())
+        .addParameter(READABLE, ROW);
+
+    if (properties.stream().anyMatch(RowMapperGenerator::isParameterized)) {
+      method.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+          .addMember("value", "$S", "unchecked")
+          .build());
+    }
+    if (properties.stream().anyMatch(property -> !isDriverNative(property.type()))) {
+      method.addStatement("$T $N = $T.getTemplate().getConverter()",
+          R2DBC_CONVERTER, CONVERTER, templateAccessor);
+    }
+
+    if (entity.isRecord()) {
+      CodeBlock arguments = properties.stream()
+          .map(this::readColumn)
+          .collect(CodeBlock.joining(",\n"));
+      method.addStatement("return new $T(\n$L)", entity.className(), arguments);
+    } else {
+      method.addStatement("$1T $2N = new $1T()", entity.className(), ENTITY);
+      properties.forEach(property -> method.addStatement(assign(property)));
+      method.addStatement("return $N", ENTITY);
+    }
+    return Optional.of(method.build());
+  }
+
+  private String skipReason(SourceEntity entity) {
+    if (!entity.undeclaredColumns().isEmpty()) {
+      return "columns " + entity.undeclaredColumns() + " are not declared in its own source";
+    }
+    if (!entity.unmappedFields().isEmpty()) {
+      return "fields " + entity.unmappedFields() + " are mapped by Spring but have no @Column";
+    }
+    if (!entity.isInstantiable()) {
+      return entity.isRecord()
+          ? "not every record component is a @Column"
+          : "it has no accessible no-arg constructor";
+    }
+    return entity.properties().stream()
+        .filter(property -> !entity.isRecord() && property.setter().isEmpty())
+        .map(property -> "'" + property.name() + "' has neither a setter nor a writable field")
+        .findFirst()
+        .orElse(null);
+  }
+
+  private CodeBlock assign(Property property) {
+    String member = property.setter().orElseThrow();
+    return property.fieldAccess()
+        ? CodeBlock.of("$N.$N = $L", ENTITY, member, readColumn(property))
+        : CodeBlock.of("$N.$N($L)", ENTITY, member, readColumn(property));
+  }
+
+  private CodeBlock readColumn(Property property) {
+    String constant = R2dbcEntityMetadataGenerator.toConstantName(property.name());
+    TypeName type = property.type();
+
+    if (isDriverNative(type)) {
+      return CodeBlock.of("$N.get($N.name(), $T.class)", ROW, constant, type.box());
+    }
+    TypeName rawType = type instanceof ParameterizedTypeName parameterized
+        ? parameterized.rawType
+        : type;
+    return CodeBlock.of("($T) $N.readValue($N.get($N.name()), $T.of($T.class))",
+        type.box(), CONVERTER, ROW, constant, TYPE_INFORMATION, rawType);
+  }
+
+  private static boolean isParameterized(Property property) {
+    return property.type() instanceof ParameterizedTypeName;
+  }
+
+  static boolean isDriverNative(TypeName type) {
+    return DRIVER_NATIVE_TYPES.contains(type.box());
+  }
+}
@@ -0,0 +1,251 @@
+package io.github.vadimbabich.metadata.generator.r2dbc;
+
+import com.github.javaparser.ast.Modifier.Keyword;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.RecordDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.type.Type;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.TypeName;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+
+/**
+ * The {@code @Column} properties of one entity as its own source declares them: the resolved type,
+ * how generated code in the entity's package reads the value, and how it sets it. Columns inherited
+ * from a supertype are not visible in the entity's source; they are reported by
+ * {@link #undeclaredColumns()} so that output which needs types can skip the entity. Fields Spring
+ * maps without a {@code @Column} are reported by {@link #unmappedFields()}, so that output which
+ * must cover every value can skip it too.
+ *
+ * @author Vadim Babich
+ */
+final class SourceEntity {
+
+  /**
+   * One column property. {@code getter} and {@code setter} name an accessor method, or a field
+   * when {@code fieldAccess} is set; either is empty when generated code cannot reach it.
+   */
+  record Property(String name, TypeName type, boolean id, Optional<String> getter,
+                  Optional<String> setter, boolean fieldAccess) {
+
+    CodeBlock read(String instance) {
+      String member = getter.orElseThrow(() -> new IllegalStateException(
+          "Property '" + name + "' is not readable"));
+      return fieldAccess
+          ? CodeBlock.of("$N.$N", instance, member)
+          : CodeBlock.of("$N.$N()", instance, member);
+    }
+  }
+
+  private final ClassName className;
+  private final boolean isRecord;
+  private final boolean instantiable;
+  private final List<String> columns;
+  private final List<Property> properties;
+  private final List<String> undeclaredColumns;
+  private final List<String> unmappedFields;
+
+  private SourceEntity(ClassName className, boolean isRecord, boolean instantiable,
+      Collection<String> columns, List<Property> properties, List<String> undeclaredColumns,
+      List<String> unmappedFields) {
+    this.className = className;
+    this.isRecord = isRecord;
+    this.instantiable = instantiable;
+    this.columns = List.copyOf(columns);
+    this.properties = List.copyOf(properties);
+    this.undeclaredColumns = List.copyOf(undeclaredColumns);
+    this.unmappedFields = List.copyOf(unmappedFields);
+  }
+
+  static SourceEntity of(TypeDeclaration<?> declaration, ClassName className,
+      Collection<String> columns) {
+    SourceTypeResolver types = new SourceTypeResolver(declaration, className);
+    List<Property> properties = new ArrayList<>();
+    List<String> undeclared = new ArrayList<>();
+
+    if (declaration instanceof RecordDeclaration recordDeclaration) {
+      for (String column : columns) {
+        recordDeclaration.getParameters().stream()
+            .filter(parameter -> parameter.getNameAsString().equals(column))
+            .findFirst()
+            .ifPresentOrElse(
+                parameter -> properties.add(recordProperty(parameter, types)),
+                () -> undeclared.add(column));
+      }
+      boolean canonical = recordDeclaration.getParameters().stream()
+          .allMatch(parameter -> columns.contains(parameter.getNameAsString()));
+      List<String> unmapped = recordDeclaration.getParameters().stream()
+          .filter(parameter -> parameter.getAnnotationByClass(Transient.class).isEmpty())
+          .map(Parameter::getNameAsString)
+          .filter(name -> !columns.contains(name))
+          .toList();
+
+      return new SourceEntity(className, true, canonical && isAccessible(declaration),
+          columns, properties, undeclared, unmapped);
+    }
+
+    if (declaration instanceof ClassOrInterfaceDeclaration classDeclaration
+        && !classDeclaration.isInterface()) {
+      for (String column : columns) {
+        findField(classDeclaration, column).ifPresentOrElse(
+            variable -> properties.add(classProperty(classDeclaration, variable, types)),
+            () -> undeclared.add(column));
+      }
+      List<String> unmapped = classDeclaration.getFields().stream()
+          .filter(SourceEntity::isPersistent)
+          .flatMap(field -> field.getVariables().stream())
+          .map(VariableDeclarator::getNameAsString)
+          .filter(name -> !columns.contains(name))
+          .toList();
+      return new SourceEntity(className, false, hasNoArgConstructor(classDeclaration),
+          columns, properties, undeclared, unmapped);
+    }
+
+    return new SourceEntity(className, false, false, columns, properties, List.copyOf(columns),
+        List.of());
+  }
+
+  ClassName className() {
+    return className;
+  }
+
+  boolean isRecord() {
+    return isRecord;
+  }
+
+  /**
+   * Whether generated code can create an instance: a record through its canonical constructor,
+   * which needs every component to be a column, or a class through a no-arg constructor.
+   */
+  boolean isInstantiable() {
+    return instantiable;
+  }
+
+  /** The names of every column property, inherited ones included, in column order. */
+  List<String> columns() {
+    return columns;
+  }
+
+  /** The column properties declared on the entity itself, in column order. */
+  List<Property> properties() {
+    return properties;
+  }
+
+  /** The property declared on the entity itself for a column, if any. */
+  Optional<Property> property(String column) {
+    return properties.stream().filter(property -> property.name().equals(column)).findFirst();
+  }
+
+  /** Columns the entity's own source does not declare, typically inherited ones. */
+  List<String> undeclaredColumns() {
+    return undeclaredColumns;
+  }
+
+  /**
+   * Persistent fields or components the entity's own source declares without {@code @Column}.
+   * Spring maps them by their name all the same, so output that reads or writes only the columns
+   * would silently leave them out.
+   */
+  List<String> unmappedFields() {
+    return unmappedFields;
+  }
+
+  private static Property recordProperty(Parameter parameter, SourceTypeResolver types) {
+    String name = parameter.getNameAsString();
+    return new Property(name, types.resolve(parameter.getType()),
+        parameter.getAnnotationByClass(Id.class).isPresent(),
+        Optional.of(name), Optional.empty(), false);
+  }
+
+  private static Property classProperty(ClassOrInterfaceDeclaration declaration,
+      VariableDeclarator variable, SourceTypeResolver types) {
+    String name = variable.getNameAsString();
+    FieldDeclaration field = (FieldDeclaration) variable.getParentNode().orElseThrow();
+    Type type = variable.getType();
+    boolean id = field.getAnnotationByClass(Id.class).isPresent();
+    boolean fieldReachable = !field.isPrivate() && !field.isStatic();
+
+    Optional<String> getter = findGetter(declaration, name, type);
+    Optional<String> setter = findSetter(declaration, name);
+
+    if (getter.isPresent() || setter.isPresent() || !fieldReachable) {
+      return new Property(name, types.resolve(type), id, getter, setter, false);
+    }
+    Optional<String> writableField = field.isFinal() ? Optional.empty() : Optional.of(name);
+    return new Property(name, types.resolve(type), id, Optional.of(name), writableField, true);
+  }
+
+  private static boolean isPersistent(FieldDeclaration field) {
+    return !field.isStatic() && !field.isTransient()
+        && field.getAnnotationByClass(Transient.class).isEmpty();
+  }
+
+  private static Optional<VariableDeclarator> findField(ClassOrInterfaceDeclaration declaration,
+      String name) {
+    return declaration.getFields().stream()
+        .flatMap(field -> field.getVariables().stream())
+        .filter(variable -> variable.getNameAsString().equals(name))
+        .findFirst();
+  }
+
+  private static Optional<String> findGetter(ClassOrInterfaceDeclaration declaration, String name,
+      Type type) {
+    String prefix = type.isPrimitiveType() && type.asString().equals("boolean") ? "is" : "get";
+    String getter = prefix + capitalize(name);
+
+    return declaration.getMethodsByName(getter).stream()
+        .filter(method -> method.getParameters().isEmpty())
+        .filter(SourceEntity::isReachable)
+        .findFirst()
+        .map(MethodDeclaration::getNameAsString);
+  }
+
+  private static Optional<String> findSetter(ClassOrInterfaceDeclaration declaration,
+      String name) {
+    String setter = "set" + capitalize(name);
+
+    return declaration.getMethodsByName(setter).stream()
+        .filter(method -> method.getParameters().size() == 1)
+        .filter(SourceEntity::isReachable)
+        .findFirst()
+        .map(MethodDeclaration::getNameAsString);
+  }
+
+  private static boolean isReachable(MethodDeclaration method) {
+    return !method.isPrivate() && !method.isStatic();
+  }
+
+  private static boolean hasNoArgConstructor(ClassOrInterfaceDeclaration declaration) {
+    if (declaration.isAbstract() || !isAccessible(declaration)) {
+      return false;
+    }
+    // An inner (non-static) class needs an enclosing instance to be created.
+    if (declaration.isNestedType() && !declaration.isStatic()) {
+      return false;
+    }
+    List<ConstructorDeclaration> constructors = declaration.getConstructors();
+    return constructors.isEmpty() || constructors.stream()
+        .anyMatch(constructor -> constructor.getParameters().isEmpty()
+            && !constructor.isPrivate());
+  }
+
+  private static boolean isAccessible(TypeDeclaration<?> declaration) {
+    return !declaration.hasModifier(Keyword.PRIVATE);
+  }
+
+  private static String capitalize(String name) {
+    return name.substring(0, 1).toUpperCase(Locale.ROOT) + name.substring(1);
+  }
+}
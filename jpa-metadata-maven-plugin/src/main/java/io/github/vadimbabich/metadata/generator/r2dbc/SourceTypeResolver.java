@@ -0,0 +1,189 @@
+package io.github.vadimbabich.metadata.generator.r2dbc;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.type.ArrayType;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.PrimitiveType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.WildcardType;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.WildcardTypeName;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+
+/**
+ * Resolves the type names written in an entity's source to JavaPoet types. JavaParser symbol
+ * resolution is not configured, so names are matched the way the compiler would look them up:
+ * types nested in the entity and its enclosing types, types of the same compilation unit,
+ * single-type imports, types of the entity's own package in its source root, {@code java.lang},
+ * on-demand imports of JDK packages, and finally the entity's own package again.
+ *
+ * @author Vadim Babich
+ */
+final class SourceTypeResolver {
+
+  private final TypeDeclaration<?> entity;
+  private final ClassName entityClassName;
+  private final CompilationUnit compilationUnit;
+
+  SourceTypeResolver(TypeDeclaration<?> entity, ClassName entityClassName) {
+    this.entity = entity;
+    this.entityClassName = entityClassName;
+    this.compilationUnit = entity.findCompilationUnit()
+        .orElseThrow(() -> new IllegalStateException(
+            "Entity '" + entity.getNameAsString() + "' is not part of a compilation unit"));
+  }
+
+  TypeName resolve(Type type) {
+    if (type instanceof PrimitiveType primitive) {
+      return primitive(primitive);
+    }
+    if (type instanceof ArrayType array) {
+      return ArrayTypeName.of(resolve(array.getComponentType()));
+    }
+    if (type instanceof WildcardType wildcard) {
+      if (wildcard.getExtendedType().isPresent()) {
+        return WildcardTypeName.subtypeOf(resolve(wildcard.getExtendedType().get()));
+      }
+      if (wildcard.getSuperType().isPresent()) {
+        return WildcardTypeName.supertypeOf(resolve(wildcard.getSuperType().get()));
+      }
+      return WildcardTypeName.subtypeOf(Object.class);
+    }
+    if (type instanceof ClassOrInterfaceType classType) {
+      return resolveClassType(classType);
+    }
+    throw new IllegalArgumentException("Unsupported type in entity source: " + type);
+  }
+
+  private TypeName resolveClassType(ClassOrInterfaceType type) {
+    ClassName rawType = resolveRawType(type);
+
+    return type.getTypeArguments()
+        .filter(arguments -> !arguments.isEmpty())
+        .<TypeName>map(arguments -> ParameterizedTypeName.get(rawType,
+            arguments.stream().map(this::resolve).toArray(TypeName[]::new)))
+        .orElse(rawType);
+  }
+
+  private ClassName resolveRawType(ClassOrInterfaceType type) {
+    Deque<String> segments = new ArrayDeque<>();
+    for (Optional<ClassOrInterfaceType> current = Optional.of(type); current.isPresent();
+        current = current.get().getScope()) {
+      segments.addFirst(current.get().getNameAsString());
+    }
+
+    // A lowercase first segment is a package, so the name is already qualified.
+    if (Character.isLowerCase(segments.getFirst().charAt(0))) {
+      return ClassName.bestGuess(String.join(".", segments));
+    }
+
+    ClassName resolved = resolveSimpleName(segments.removeFirst());
+    for (String nested : segments) {
+      resolved = resolved.nestedClass(nested);
+    }
+    return resolved;
+  }
+
+  private ClassName resolveSimpleName(String simpleName) {
+    return findMemberType(simpleName)
+        .or(() -> findTopLevelType(simpleName))
+        .or(() -> findSingleTypeImport(simpleName))
+        .or(() -> findPackageType(simpleName))
+        .or(() -> findJdkType("java.lang", simpleName))
+        .or(() -> findOnDemandImport(simpleName))
+        .orElseGet(() -> ClassName.get(entityClassName.packageName(), simpleName));
+  }
+
+  private Optional<ClassName> findMemberType(String simpleName) {
+    ClassName owner = entityClassName;
+    Optional<TypeDeclaration<?>> declaration = Optional.of(entity);
+
+    while (declaration.isPresent() && owner != null) {
+      if (declaresMemberType(declaration.get(), simpleName)) {
+        return Optional.of(owner.nestedClass(simpleName));
+      }
+      owner = owner.enclosingClassName();
+      declaration = declaration.get().getParentNode()
+          .filter(TypeDeclaration.class::isInstance)
+          .map(parent -> (TypeDeclaration<?>) parent);
+    }
+    return Optional.empty();
+  }
+
+  private boolean declaresMemberType(TypeDeclaration<?> declaration, String simpleName) {
+    return declaration.getMembers().stream()
+        .filter(BodyDeclaration::isTypeDeclaration)
+        .anyMatch(member -> member.asTypeDeclaration().getNameAsString().equals(simpleName));
+  }
+
+  private Optional<ClassName> findTopLevelType(String simpleName) {
+    return compilationUnit.getTypes().stream()
+        .filter(type -> type.getNameAsString().equals(simpleName))
+        .findFirst()
+        .map(type -> ClassName.get(entityClassName.packageName(), simpleName));
+  }
+
+  private Optional<ClassName> findSingleTypeImport(String simpleName) {
+    return compilationUnit.getImports().stream()
+        .filter(imported -> !imported.isStatic() && !imported.isAsterisk())
+        .map(ImportDeclaration::getNameAsString)
+        .filter(name -> name.endsWith("." + simpleName))
+        .findFirst()
+        .map(ClassName::bestGuess);
+  }
+
+  // A type of the entity's own package hides java.lang and on-demand imports, so a Currency next to
+  // the entity is not java.util.Currency. Only public types, which live in a file of their name,
+  // are found; others fall through to the JDK lookups.
+  private Optional<ClassName> findPackageType(String simpleName) {
+    String packageName = entityClassName.packageName();
+    return compilationUnit.getStorage()
+        .map(storage -> storage.getSourceRoot()
+            .resolve(packageName.replace('.', File.separatorChar))
+            .resolve(simpleName + ".java"))
+        .filter(Files::isRegularFile)
+        .map(file -> ClassName.get(packageName, simpleName));
+  }
+
+  private Optional<ClassName> findOnDemandImport(String simpleName) {
+    return compilationUnit.getImports().stream()
+        .filter(imported -> !imported.isStatic() && imported.isAsterisk())
+        .map(imported -> findJdkType(imported.getNameAsString(), simpleName))
+        .flatMap(Optional::stream)
+        .findFirst();
+  }
+
+  // Only JDK types are visible to the plugin, so on-demand imports of application packages cannot
+  // be searched; such names fall through to the entity's package.
+  private Optional<ClassName> findJdkType(String packageName, String simpleName) {
+    try {
+      Class.forName(packageName + "." + simpleName, false, ClassLoader.getPlatformClassLoader());
+      return Optional.of(ClassName.get(packageName, simpleName));
+    } catch (ClassNotFoundException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static TypeName primitive(PrimitiveType type) {
+    return switch (type.getType()) {
+      case BOOLEAN -> TypeName.BOOLEAN;
+      case CHAR -> TypeName.CHAR;
+      case BYTE -> TypeName.BYTE;
+      case SHORT -> TypeName.SHORT;
+      case INT -> TypeName.INT;
+      case LONG -> TypeName.LONG;
+      case FLOAT -> TypeName.FLOAT;
+      case DOUBLE -> TypeName.DOUBLE;
+    };
+  }
+}
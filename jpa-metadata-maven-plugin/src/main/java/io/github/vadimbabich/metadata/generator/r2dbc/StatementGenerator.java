@@ -0,0 +1,416 @@
+package io.github.vadimbabich.metadata.generator.r2dbc;
+
+import static java.lang.String.format;
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+import io.github.vadimbabich.metadata.generator.r2dbc.SourceEntity.Property;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+import javax.lang.model.element.Modifier;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Builds the {@link R2dbcFeature#STATEMENTS statements} of one entity: an INSERT of every column
+ * and an UPDATE by id, each rendered once with the template's bind markers, and binders that set
+ * an entity's values on an {@code io.r2dbc.spi.Statement} by position. A batch binds every entity
+ * on one statement, separated by {@code Statement.add()}, so the driver prepares it once.
+ *
+ * <p>An entity whose {@code @Id} can be null also gets an INSERT without the id column, chosen per
+ * entity when its id is unset, so identity and serial columns generate it, as
+ * {@code R2dbcEntityTemplate.insert} leaves them to.
+ *
+ * <p>The SQL cannot be a compile-time constant: identifier quoting and the marker syntax belong to
+ * the dialect of the template the application configures. The template exposes that dialect only
+ * through its deprecated {@code ReactiveDataAccessStrategy}, so the generated methods that reach it
+ * suppress the deprecation warning, which would otherwise fail consumers building with
+ * {@code -Werror}.
+ *
+ * @author Vadim Babich
+ */
+final class StatementGenerator {
+
+  private static final ClassName STATEMENT = ClassName.get("io.r2dbc.spi", "Statement");
+  private static final ClassName LAZY = ClassName.get("org.springframework.data.util", "Lazy");
+  private static final ClassName TYPE_INFORMATION =
+      ClassName.get("org.springframework.data.util", "TypeInformation");
+  private static final ClassName R2DBC_CONVERTER =
+      ClassName.get("org.springframework.data.r2dbc.convert", "R2dbcConverter");
+  private static final ClassName DATA_ACCESS_STRATEGY =
+      ClassName.get("org.springframework.data.r2dbc.core", "ReactiveDataAccessStrategy");
+  private static final ClassName R2DBC_DIALECT =
+      ClassName.get("org.springframework.data.r2dbc.dialect", "R2dbcDialect");
+  private static final ClassName BIND_MARKERS =
+      ClassName.get("org.springframework.r2dbc.core.binding", "BindMarkers");
+  private static final ClassName PERSISTENT_ENTITY =
+      ClassName.get("org.springframework.data.relational.core.mapping",
+          "RelationalPersistentEntity");
+
+  private static final String INSERT_SQL = "INSERT_SQL";
+  private static final String INSERT_WITHOUT_ID_SQL = "INSERT_WITHOUT_ID_SQL";
+  private static final String UPDATE_BY_ID_SQL = "UPDATE_BY_ID_SQL";
+  private static final String STATEMENT_PARAM = "statement";
+  private static final String ENTITY = "entity";
+  private static final String ENTITIES = "entities";
+  private static final String CONVERTER = "converter";
+  private static final AnnotationSpec SUPPRESS_DEPRECATION =
+      AnnotationSpec.builder(SuppressWarnings.class)
+          .addMember("value", "$S", "deprecation")
+          .build();
+
+  private final ClassName templateAccessor;
+  private final Log log;
+
+  StatementGenerator(ClassName templateAccessor, Log log) {
+    this.templateAccessor = templateAccessor;
+    this.log = log;
+  }
+
+  /**
+   * Adds the statement members to the metamodel, or nothing, with a warning, when the entity's
+   * values cannot be read from source. The UPDATE is left out for entities without an own
+   * {@code @Id} column, the INSERT without the id for entities whose id cannot be null.
+   */
+  void generate(SourceEntity entity, String metadataClassName, TypeSpec.Builder classBuilder) {
+    String skipReason = skipReason(entity, classBuilder);
+    if (skipReason != null) {
+      log.warn(format("No statements generated for %s: %s", entity.className(), skipReason));
+      return;
+    }
+
+    List<Property> properties = entity.properties();
+    Optional<Property> id = properties.stream().filter(Property::id).findFirst();
+    List<Property> assigned = properties.stream()
+        .filter(property -> !property.id())
+        .collect(Collectors.toList());
+    Optional<Property> nullableId = id
+        .filter(idProperty -> !idProperty.type().isPrimitive() && !assigned.isEmpty());
+
+    classBuilder.addField(lazySql(INSERT_SQL, metadataClassName, "renderInsertSql"));
+    nullableId.ifPresent(ignored -> classBuilder.addField(
+        lazySql(INSERT_WITHOUT_ID_SQL, metadataClassName, "renderInsertWithoutIdSql")));
+    classBuilder.addMethod(insertSql(entity, nullableId.isPresent()));
+    nullableId.ifPresent(idProperty -> {
+      classBuilder.addMethod(insertSqlFor(entity, idProperty));
+      classBuilder.addMethod(insertSqlForBatch(entity));
+    });
+    classBuilder.addMethod(bindInsert(entity, properties, assigned, nullableId));
+    classBuilder.addMethod(bindInsertBatch(entity, nullableId));
+
+    if (id.isEmpty() || assigned.isEmpty()) {
+      log.warn(format("No UPDATE by id generated for %s: %s", entity.className(),
+          id.isEmpty() ? "it declares no @Id column" : "it has no column besides the id"));
+    } else {
+      classBuilder.addField(lazySql(UPDATE_BY_ID_SQL, metadataClassName, "renderUpdateByIdSql"));
+      classBuilder.addMethod(updateByIdSql(entity));
+      classBuilder.addMethod(bindUpdateById(entity, assigned, id.get()));
+    }
+
+    classBuilder.addMethod(renderInsertSql("renderInsertSql", entity, properties));
+    nullableId.ifPresent(ignored -> classBuilder.addMethod(
+        renderInsertSql("renderInsertWithoutIdSql", entity, assigned)));
+    nullableId.ifPresent(idProperty -> classBuilder.addMethod(withoutId(entity, idProperty)));
+    id.filter(ignored -> !assigned.isEmpty())
+        .ifPresent(idProperty ->
+            classBuilder.addMethod(renderUpdateByIdSql(entity, assigned, idProperty)));
+    classBuilder.addMethod(column());
+    classBuilder.addMethod(bindValue());
+  }
+
+  private String skipReason(SourceEntity entity, TypeSpec.Builder classBuilder) {
+    if (!entity.undeclaredColumns().isEmpty()) {
+      return "columns " + entity.undeclaredColumns() + " are not declared in its own source";
+    }
+    if (!entity.unmappedFields().isEmpty()) {
+      return "fields " + entity.unmappedFields() + " are mapped by Spring but have no @Column";
+    }
+    if (entity.properties().isEmpty()) {
+      return "it has no columns";
+    }
+    Optional<String> clash = classBuilder.fieldSpecs.stream()
+        .map(field -> field.name)
+        .filter(name -> name.equals(INSERT_SQL) || name.equals(INSERT_WITHOUT_ID_SQL)
+            || name.equals(UPDATE_BY_ID_SQL))
+        .findFirst();
+    if (clash.isPresent()) {
+      return "a column constant is already named " + clash.get();
+    }
+    return entity.properties().stream()
+        .filter(property -> property.getter().isEmpty())
+        .map(property -> "'" + property.name() + "' has neither a getter nor a readable field")
+        .findFirst()
+        .orElse(null);
+  }
+
+  private FieldSpec lazySql(String name, String metadataClassName, String renderMethod) {
+    return FieldSpec.builder(ParameterizedTypeName.get(LAZY, ClassName.get(String.class)), name,
+            Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        .initializer("$T.of($L::$N)", LAZY, metadataClassName, renderMethod)
+        .build();
+  }
+
+  private MethodSpec insertSql(SourceEntity entity, boolean nullableId) {
+    return MethodSpec.methodBuilder("insertSql")
+        .addJavadoc("The INSERT of every column, the id included, with the dialect's bind markers"
+            + " in column\norder, as {@link #bindInsert($T, $T)} binds them"
+            + (nullableId ? " for an entity whose id is set" : "")
+            + ". Rendered on first use.\n", STATEMENT, entity.className())
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(String.class)
+        .addStatement("return $N.get()", INSERT_SQL)
+        .build();
+  }
+
+  private MethodSpec insertSqlFor(SourceEntity entity, Property id) {
+    return MethodSpec.methodBuilder("insertSql")
+        .addJavadoc("The INSERT {@link #bindInsert($T, $T)} binds {@code entity} to: without the id"
+            + " column\nwhen its id is null, so that the database generates it, otherwise"
+            + " {@link #insertSql()}.\n", STATEMENT, entity.className())
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(String.class)
+        .addParameter(entity.className(), ENTITY)
+        .addStatement("return $L == null ? $N.get() : $N.get()", id.read(ENTITY),
+            INSERT_WITHOUT_ID_SQL, INSERT_SQL)
+        .build();
+  }
+
+  private MethodSpec insertSqlForBatch(SourceEntity entity) {
+    return MethodSpec.methodBuilder("insertSql")
+        .addJavadoc("The INSERT a batch of {@code entities} is bound to, with or without the id"
+            + " column as\n{@link #insertSql($T)} chooses it for each of them.\n\n"
+            + "@throws IllegalArgumentException if there are no entities, or if some have an id"
+            + " and some\n    do not\n", entity.className())
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(String.class)
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Iterable.class),
+            entity.className()), ENTITIES)
+        .addStatement("return withoutId($N) ? $N.get() : $N.get()", ENTITIES,
+            INSERT_WITHOUT_ID_SQL, INSERT_SQL)
+        .build();
+  }
+
+  private MethodSpec withoutId(SourceEntity entity, Property id) {
+    return MethodSpec.methodBuilder("withoutId")
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+        .returns(TypeName.BOOLEAN)
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Iterable.class),
+            entity.className()), ENTITIES)
+        .addStatement("$T withoutId = null", Boolean.class)
+        .beginControlFlow("for ($T $N : $N)", entity.className(), ENTITY, ENTITIES)
+        .addStatement("boolean unset = $L == null", id.read(ENTITY))
+        .beginControlFlow("if (withoutId == null)")
+        .addStatement("withoutId = unset")
+        .nextControlFlow("else if (withoutId != unset)")
+        .addStatement("throw new $T($S)", IllegalArgumentException.class,
+            "Entities with and without an id cannot be inserted in one batch")
+        .endControlFlow()
+        .endControlFlow()
+        .beginControlFlow("if (withoutId == null)")
+        .addStatement("throw new $T($S)", IllegalArgumentException.class, "No entities to insert")
+        .endControlFlow()
+        .addStatement("return withoutId")
+        .build();
+  }
+
+  private MethodSpec updateByIdSql(SourceEntity entity) {
+    return MethodSpec.methodBuilder("updateByIdSql")
+        .addJavadoc("The UPDATE of every column but the id, matched by id, with the dialect's bind"
+            + " markers\nas {@link #bindUpdateById($T, $T)} binds them. Rendered on first use.\n",
+            STATEMENT, entity.className())
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(String.class)
+        .addStatement("return $N.get()", UPDATE_BY_ID_SQL)
+        .build();
+  }
+
+  private MethodSpec bindInsert(SourceEntity entity, List<Property> properties,
+      List<Property> assigned, Optional<Property> nullableId) {
+    MethodSpec.Builder method = MethodSpec.methodBuilder("bindInsert")
+        .addJavadoc("Binds the values of {@code entity} to a statement created from"
+            + (nullableId.isPresent() ? "\n{@link #insertSql($T)}, leaving out its id when it is"
+                + " null.\n" : " {@link #insertSql()}.\n"), entity.className())
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(STATEMENT)
+        .addParameter(STATEMENT, STATEMENT_PARAM)
+        .addParameter(entity.className(), ENTITY);
+
+    declareConverter(method, properties);
+    if (nullableId.isPresent()) {
+      method.beginControlFlow("if ($L == null)", nullableId.get().read(ENTITY));
+      for (int index = 0; index < assigned.size(); index++) {
+        method.addStatement(bind(index, assigned.get(index)));
+      }
+      method.addStatement("return $N", STATEMENT_PARAM).endControlFlow();
+    }
+    for (int index = 0; index < properties.size(); index++) {
+      method.addStatement(bind(index, properties.get(index)));
+    }
+    return method.addStatement("return $N", STATEMENT_PARAM).build();
+  }
+
+  private MethodSpec bindInsertBatch(SourceEntity entity, Optional<Property> nullableId) {
+    MethodSpec.Builder method = MethodSpec.methodBuilder("bindInsert")
+        .addJavadoc("Binds every entity as one row of a batch on a statement created from\n"
+            + (nullableId.isPresent() ? "{@link #insertSql(Iterable)}" : "{@link #insertSql()}")
+            + ", so that the driver prepares the INSERT once.\n\n"
+            + "@throws IllegalArgumentException if there are no entities"
+            + (nullableId.isPresent() ? ", or if some have an id and\n    some do not" : "")
+            + "\n")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(STATEMENT)
+        .addParameter(STATEMENT, STATEMENT_PARAM)
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Iterable.class),
+            entity.className()), ENTITIES);
+    if (nullableId.isPresent()) {
+      method.addStatement("withoutId($N)", ENTITIES);
+    }
+    return method
+        .addStatement("$T<$T> $N = $N.iterator()", Iterator.class, entity.className(), "iterator",
+            ENTITIES)
+        .beginControlFlow("if (!$N.hasNext())", "iterator")
+        .addStatement("throw new $T($S)", IllegalArgumentException.class, "No entities to insert")
+        .endControlFlow()
+        .beginControlFlow("while ($N.hasNext())", "iterator")
+        .addStatement("bindInsert($N, $N.next())", STATEMENT_PARAM, "iterator")
+        .beginControlFlow("if ($N.hasNext())", "iterator")
+        .addStatement("$N.add()", STATEMENT_PARAM)
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("return $N", STATEMENT_PARAM)
+        .build();
+  }
+
+  private MethodSpec bindUpdateById(SourceEntity entity, List<Property> assigned, Property id) {
+    MethodSpec.Builder method = MethodSpec.methodBuilder("bindUpdateById")
+        .addJavadoc("Binds the values of {@code entity}, its id last, to a statement created from\n"
+            + "{@link #updateByIdSql()}.\n")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(STATEMENT)
+        .addParameter(STATEMENT, STATEMENT_PARAM)
+        .addParameter(entity.className(), ENTITY);
+
+    declareConverter(method, entity.properties());
+    for (int index = 0; index < assigned.size(); index++) {
+      method.addStatement(bind(index, assigned.get(index)));
+    }
+    method.addStatement(bind(assigned.size(), id));
+    return method.addStatement("return $N", STATEMENT_PARAM).build();
+  }
+
+  private MethodSpec renderInsertSql(String name, SourceEntity entity,
+      List<Property> properties) {
+    MethodSpec.Builder method = renderMethod(name, entity)
+        .addStatement("$1T columns = new $1T($2S)", StringJoiner.class, ", ")
+        .addStatement("$1T values = new $1T($2S)", StringJoiner.class, ", ")
+        .beginControlFlow("for ($T property : new $T[] {$L})", String.class, String.class,
+            propertyNames(properties))
+        .addStatement("columns.add(column(strategy, $N, property))", ENTITY)
+        .addStatement("values.add(markers.next().getPlaceholder())")
+        .endControlFlow()
+        .addStatement("return $S + table + $S + columns + $S + values + $S",
+            "INSERT INTO ", " (", ") VALUES (", ")");
+    return method.build();
+  }
+
+  private MethodSpec renderUpdateByIdSql(SourceEntity entity, List<Property> assigned,
+      Property id) {
+    MethodSpec.Builder method = renderMethod("renderUpdateByIdSql", entity)
+        .addStatement("$1T assignments = new $1T($2S)", StringJoiner.class, ", ")
+        .beginControlFlow("for ($T property : new $T[] {$L})", String.class, String.class,
+            propertyNames(assigned))
+        .addStatement("assignments.add(column(strategy, $N, property) + $S"
+            + " + markers.next().getPlaceholder())", ENTITY, " = ")
+        .endControlFlow()
+        .addStatement("return $S + table + $S + assignments + $S + column(strategy, $N, $S)"
+            + " + $S + markers.next().getPlaceholder()",
+            "UPDATE ", " SET ", " WHERE ", ENTITY, id.name(), " = ");
+    return method.build();
+  }
+
+  private MethodSpec.Builder renderMethod(String name, SourceEntity entity) {
+    return MethodSpec.methodBuilder(name)
+        .addAnnotation(SUPPRESS_DEPRECATION)
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+        .returns(String.class)
+        .addStatement("$T strategy = $T.getTemplate().getDataAccessStrategy()",
+            DATA_ACCESS_STRATEGY, templateAccessor)
+        .addStatement("$T markers = (($T) strategy.getDialect()).getBindMarkersFactory().create()",
+            BIND_MARKERS, R2DBC_DIALECT)
+        .addStatement("$T<$T> $N = $T.getPersistentEntity($T.class)", PERSISTENT_ENTITY,
+            entity.className(), ENTITY, templateAccessor, entity.className())
+        .addStatement("$T table = strategy.toSql($N.getQualifiedTableName())", String.class,
+            ENTITY);
+  }
+
+  private MethodSpec column() {
+    return MethodSpec.methodBuilder("column")
+        .addAnnotation(SUPPRESS_DEPRECATION)
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+        .returns(String.class)
+        .addParameter(DATA_ACCESS_STRATEGY, "strategy")
+        .addParameter(ParameterizedTypeName.get(PERSISTENT_ENTITY,
+            WildcardTypeName.subtypeOf(Object.class)), ENTITY)
+        .addParameter(String.class, "property")
+        .addStatement("return strategy.toSql($N.getRequiredPersistentProperty(property)"
+            + ".getColumnName())", ENTITY)
+        .build();
+  }
+
+  private MethodSpec bindValue() {
+    return MethodSpec.methodBuilder("bindValue")
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+        .addParameter(STATEMENT, STATEMENT_PARAM)
+        .addParameter(TypeName.INT, "index")
+        .addParameter(Object.class, "value")
+        .addParameter(ParameterizedTypeName.get(ClassName.get(Class.class),
+            WildcardTypeName.subtypeOf(Object.class)), "type")
+        .beginControlFlow("if (value == null)")
+        .addStatement("$N.bindNull(index, type)", STATEMENT_PARAM)
+        .nextControlFlow("else")
+        .addStatement("$N.bind(index, value)", STATEMENT_PARAM)
+        .endControlFlow()
+        .build();
+  }
+
+  private void declareConverter(MethodSpec.Builder method, List<Property> properties) {
+    if (properties.stream().anyMatch(property -> !RowMapperGenerator.isDriverNative(
+        property.type()))) {
+      method.addStatement("$T $N = $T.getTemplate().getConverter()",
+          R2DBC_CONVERTER, CONVERTER, templateAccessor);
+    }
+  }
+
+  // Values of types a driver does not take natively are written as Spring would write them, so an
+  // enum binds as its name and custom write converters apply.
+  private CodeBlock bind(int index, Property property) {
+    TypeName type = property.type();
+    CodeBlock value = property.read(ENTITY);
+
+    if (RowMapperGenerator.isDriverNative(type)) {
+      return CodeBlock.of("bindValue($N, $L, $L, $T.class)",
+          STATEMENT_PARAM, index, value, type.box());
+    }
+    TypeName rawType = type instanceof ParameterizedTypeName parameterized
+        ? parameterized.rawType
+        : type;
+    return CodeBlock.of("bindValue($N, $L, $N.writeValue($L, $T.of($T.class)),"
+            + " $N.getTargetType($T.class))",
+        STATEMENT_PARAM, index, CONVERTER, value, TYPE_INFORMATION, rawType, CONVERTER, rawType);
+  }
+
+  private static String propertyNames(List<Property> properties) {
+    return properties.stream()
+        .map(property -> CodeBlock.of("$S", property.name()).toString())
+        .collect(Collectors.joining(", "));
+  }
+}
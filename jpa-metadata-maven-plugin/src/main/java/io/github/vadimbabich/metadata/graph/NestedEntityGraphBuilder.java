@@ -1,6 +1,7 @@
 package io.github.vadimbabich.metadata.graph;
 
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.body.BodyDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.TypeDeclaration;
@@ -8,6 +9,10 @@ import com.github.javaparser.ast.type.ClassOrInterfaceType;
 import com.google.common.graph.Graph;
 import com.google.common.graph.GraphBuilder;
 import com.google.common.graph.ImmutableGraph;
+import io.github.vadimbabich.entitymetamodel.core.AttributeDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.ClasspathEntityModels;
+import io.github.vadimbabich.entitymetamodel.core.EntityDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.SuperTypeContribution;
 import io.github.vadimbabich.metadata.parser.MetadataCollector;
 import java.io.IOException;
 import java.util.HashSet;
@@ -15,12 +20,15 @@ import java.util.LinkedHashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiConsumer;
+import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
 /**
  * Builds a directed graph of {@code @Table} types in a package, with an edge from each type to the
  * nested types it declares. Column fields are collected up the inheritance chain, so a subclass
- * reports its own fields followed by those of its supertypes.
+ * reports its own fields followed by those of its supertypes. A supertype outside the sources is
+ * looked up among the entity models upstream artifacts ship, which covers upstream entities built
+ * with {@code entity-metamodel-processor}.
  */
 // Builds on Guava's @Beta graph API; see GenerateEntityMetadataMojo.
 @SuppressWarnings("UnstableApiUsage")
@@ -28,10 +36,13 @@ public class NestedEntityGraphBuilder implements EntityGraphBuilder {
 
   private final String packageName;
   private final MetadataCollector collector;
+  private final ClasspathEntityModels upstreamModels;
 
-  public NestedEntityGraphBuilder(String packageName, MetadataCollector collector) {
+  public NestedEntityGraphBuilder(String packageName, MetadataCollector collector,
+      ClasspathEntityModels upstreamModels) {
     this.packageName = packageName;
     this.collector = collector;
+    this.upstreamModels = upstreamModels;
   }
 
   @Override
@@ -74,42 +85,74 @@ public class NestedEntityGraphBuilder implements EntityGraphBuilder {
 
     fields.addAll(collector.collectColumnAnnotatedFieldNames(type));
 
-    findSuperType(type).ifPresent(superType -> collectFieldsRecursive(superType, fields, visited));
-  }
-
-  private Optional<TypeDeclaration<?>> findSuperType(TypeDeclaration<?> type) {
-    if (!(type instanceof ClassOrInterfaceDeclaration decl)) {
-      return Optional.empty();
+    Optional<ClassOrInterfaceType> extended = type instanceof ClassOrInterfaceDeclaration decl
+        ? decl.getExtendedTypes().stream().findFirst()
+        : Optional.empty();
+    if (extended.isEmpty()) {
+      return;
     }
 
-    return decl.getExtendedTypes().stream()
-        .findFirst()
-        .flatMap(this::resolveTypeDeclarationSafe);
+    String superTypeName = resolveFullyQualifiedName(extended.get());
+    Optional<TypeDeclaration<?>> superType = findSourceTypeSafe(superTypeName);
+    if (superType.isPresent()) {
+      collectFieldsRecursive(superType.get(), fields, visited);
+    } else {
+      upstreamModels.find(superTypeName)
+          .ifPresent(upstream -> fields.addAll(upstreamColumnFields(upstream)));
+    }
   }
 
-  private Optional<TypeDeclaration<?>> resolveTypeDeclarationSafe(ClassOrInterfaceType type) {
+  private Optional<TypeDeclaration<?>> findSourceTypeSafe(String fqn) {
     try {
-      return resolveTypeDeclaration(type);
+      return collector.extractClasses("", t -> getFullyQualifiedName(t).equals(fqn))
+          .stream()
+          .findFirst();
     } catch (IOException e) {
       return Optional.empty();
     }
   }
 
-  private Optional<TypeDeclaration<?>> resolveTypeDeclaration(ClassOrInterfaceType type)
-      throws IOException {
-    String fqn = resolveFullyQualifiedName(type);
-    return collector.extractClasses("", t -> getFullyQualifiedName(t).equals(fqn))
-        .stream()
-        .findFirst();
+  // A shipped model already lists the entity's inherited attributes after its own, nearest
+  // supertype first, the order collectFieldsRecursive walks sources in.
+  private static Set<String> upstreamColumnFields(EntityDescriptor entity) {
+    Set<String> fields = new LinkedHashSet<>();
+    addColumnFields(entity.attributes(), fields);
+    for (SuperTypeContribution superType : entity.superTypes()) {
+      addColumnFields(superType.attributes(), fields);
+    }
+    return fields;
+  }
+
+  private static void addColumnFields(Iterable<AttributeDescriptor> attributes,
+      Set<String> fields) {
+    for (AttributeDescriptor attribute : attributes) {
+      if (attribute.annotations().stream()
+          .anyMatch(fact -> fact.qualifiedName().equals(Column.class.getName()))) {
+        fields.add(attribute.name());
+      }
+    }
   }
 
   // JavaParser symbol resolution is not configured, so type.resolve() fails for anything it cannot
-  // see. Fall back to matching the simple name across the sources, then to assuming the supertype
-  // sits in the scanned package. A wrong guess costs the inherited columns, not the build.
+  // see. Fall back to the name as written when it is qualified, to a single-type import of it, to
+  // matching the simple name across the sources, then to assuming the supertype sits in the
+  // scanned package. A wrong guess costs the inherited columns, not the build.
   private String resolveFullyQualifiedName(ClassOrInterfaceType type) {
     try {
       return type.resolve().asReferenceType().getQualifiedName();
     } catch (Exception ex) {
+      if (type.getScope().isPresent()) {
+        return type.getNameWithScope();
+      }
+      Optional<String> imported = type.findCompilationUnit().stream()
+          .flatMap(unit -> unit.getImports().stream())
+          .filter(declaration -> !declaration.isStatic() && !declaration.isAsterisk())
+          .map(ImportDeclaration::getNameAsString)
+          .filter(name -> name.endsWith("." + type.getNameAsString()))
+          .findFirst();
+      if (imported.isPresent()) {
+        return imported.get();
+      }
       String assumedInScannedPackage = packageName + "." + type.getNameAsString();
 
       try {
@@ -7,12 +7,27 @@ import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.verify;
 
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import io.github.vadimbabich.entitymetamodel.core.AnnotationFact;
+import io.github.vadimbabich.entitymetamodel.core.AttributeDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.EntityDescriptor;
+import io.github.vadimbabich.entitymetamodel.core.EntityModel;
+import io.github.vadimbabich.entitymetamodel.core.EntityModelResources;
+import io.github.vadimbabich.entitymetamodel.core.SuperTypeContribution;
+import io.github.vadimbabich.entitymetamodel.core.TypeKind;
+import io.github.vadimbabich.entitymetamodel.core.TypeRef;
 import io.github.vadimbabich.metadata.api.JavaLanguageLevel;
 import io.github.vadimbabich.metadata.test.matchers.HasStaticFields;
 import java.io.File;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
@@ -190,6 +205,32 @@ public class GenerateEntityMetadataMojoTest {
     assertThat(expectedFile).is(new HasStaticFields(List.of("SUB_FIELD", "MIDDLE_FIELD", "ID")));
   }
 
+  @Test
+  void givenSupertypeFromDependency_whenItsModelIsShipped_thenItsColumnsAreInherited(
+      @TempDir Path upstreamClasses) throws Exception {
+    EntityModelResources.write(EntityModel.of(List.of(shippedMember())), upstreamClasses);
+    mojo.packageName = "com.example.upstream";
+    mojo.classpathElements = List.of(upstreamClasses.toString());
+
+    mojo.execute();
+
+    File subscriberFile = tempDir.resolve("com/example/upstream/Subscriber_.java").toFile();
+    // The member's own columns, then its supertype's; attributes without @Column are not columns
+    assertThat(subscriberFile)
+        .is(new HasStaticFields(List.of("NEWSLETTER", "JOINED_AT", "DISPLAY_NAME")));
+  }
+
+  @Test
+  void givenSupertypeFromDependency_whenNoModelIsShipped_thenOnlyOwnColumnsAreGenerated()
+      throws Exception {
+    mojo.packageName = "com.example.upstream";
+
+    mojo.execute();
+
+    File subscriberFile = tempDir.resolve("com/example/upstream/Subscriber_.java").toFile();
+    assertThat(subscriberFile).is(new HasStaticFields(List.of("NEWSLETTER")));
+  }
+
   @Test
   void givenNestedClassesAndStaticFields_whenExecute_thenFieldsCollectedRecursively() throws Exception {
     mojo.packageName = "com.example.inherited";
@@ -287,4 +328,319 @@ public class GenerateEntityMetadataMojoTest {
     Assertions.assertFalse(orderItemFile.exists(),
         "OrderItem has no @Table, so no metamodel despite its @Column fields");
   }
+
+  // Opt-in features. Each adds members after the default shape, which the golden corpus pins; these
+  // tests assert only what a feature adds.
+
+  @Test
+  void givenRowMappersFeature_whenExecute_thenRecordIsMappedThroughCanonicalConstructor()
+      throws Exception {
+    mojo.packageName = "com.example.typing";
+    mojo.features = Set.of("row-mappers");
+
+    mojo.execute();
+
+    File scalarsFile = tempDir.resolve("com/example/typing/TypedScalars_.java").toFile();
+    String mapper = findMethod(scalarsFile, "map").orElseThrow().toString();
+
+    assertThat(mapper)
+        .contains("public static TypedScalars map(Readable row)")
+        .contains("new TypedScalars(")
+        // primitives are read as their wrapper, driver-native types directly
+        .contains("row.get(ID.name(), Long.class)")
+        .contains("row.get(TOTAL_PRICE.name(), BigDecimal.class)")
+        // anything else goes through the converter, as MappingR2dbcConverter would
+        .contains("(Status) converter.readValue(row.get(STATUS.name()), "
+            + "TypeInformation.of(Status.class))");
+    assertThat(scalarsFile).is(new HasStaticFields(List.of("ID", "RETRY_COUNT", "ACTIVE",
+        "BOXED_RETRY_COUNT", "STATUS", "CREATED_AT", "SYNCED_AT", "TOTAL_PRICE", "HTML_URL",
+        "SOURCE_URL_PATH")));
+  }
+
+  @Test
+  void givenRowMappersFeature_whenExecute_thenClassIsMappedThroughSettersAndFields()
+      throws Exception {
+    mojo.packageName = "com.example.mapping";
+    mojo.features = Set.of("row-mappers");
+
+    mojo.execute();
+
+    File ledgerFile = tempDir.resolve("com/example/mapping/Ledger_.java").toFile();
+    assertThat(findMethod(ledgerFile, "map").orElseThrow().toString())
+        .contains("Ledger entity = new Ledger();")
+        .contains("entity.setId(row.get(ID.name(), Long.class));")
+        .contains("entity.owner = row.get(OWNER.name(), String.class);")
+        .contains("entity.setClosed(row.get(CLOSED.name(), Boolean.class));");
+  }
+
+  @Test
+  void givenRowMappersFeature_whenColumnsAreInherited_thenMapperIsSkippedWithWarning()
+      throws Exception {
+    mojo.packageName = "com.example.inherited";
+    mojo.features = Set.of("row-mappers");
+
+    mojo.execute();
+
+    File subEntityFile = tempDir.resolve("com/example/inherited/SubEntity_.java").toFile();
+    assertThat(findMethod(subEntityFile, "map")).isEmpty();
+    verify(log).warn(contains("No row mapper generated for com.example.inherited.SubEntity"));
+  }
+
+  @Test
+  void givenRowMappersFeature_whenPersistentFieldsLackColumn_thenMapperIsSkippedWithWarning()
+      throws Exception {
+    mojo.packageName = "com.example.mapping";
+    mojo.features = Set.of("row-mappers");
+
+    mojo.execute();
+
+    File tariffFile = tempDir.resolve("com/example/mapping/Tariff_.java").toFile();
+    assertThat(findMethod(tariffFile, "map")).isEmpty();
+    verify(log).warn("No row mapper generated for com.example.mapping.Tariff: fields [id, region]"
+        + " are mapped by Spring but have no @Column");
+  }
+
+  @Test
+  void givenStatementsFeature_whenExecute_thenValuesAreBoundInColumnOrderWithIdLastOnUpdate()
+      throws Exception {
+    mojo.packageName = "com.example.typing";
+    mojo.features = Set.of("statements");
+
+    mojo.execute();
+
+    File scalarsFile = tempDir.resolve("com/example/typing/TypedScalars_.java").toFile();
+    assertThat(findMethod(scalarsFile, "insertSql")).isPresent();
+    assertThat(findMethod(scalarsFile, "updateByIdSql")).isPresent();
+    assertThat(findMethod(scalarsFile, "bindInsert").orElseThrow().toString())
+        .contains("bindValue(statement, 0, entity.id(), Long.class);")
+        .contains("bindValue(statement, 4, converter.writeValue(entity.status(), "
+            + "TypeInformation.of(Status.class)), converter.getTargetType(Status.class));")
+        .contains("bindValue(statement, 9, entity.sourceURLPath(), String.class);");
+    assertThat(findMethod(scalarsFile, "bindUpdateById").orElseThrow().toString())
+        .contains("bindValue(statement, 0, entity.retryCount(), Integer.class);")
+        .contains("bindValue(statement, 9, entity.id(), Long.class);");
+    // the SQL is rendered from the template's dialect, not fixed at generation time
+    assertThat(findMethod(scalarsFile, "renderInsertSql").orElseThrow().toString())
+        .contains("getBindMarkersFactory().create()");
+  }
+
+  @Test
+  void givenStatementsFeature_whenExecute_thenClassIsReadThroughGettersAndFields()
+      throws Exception {
+    mojo.packageName = "com.example.mapping";
+    mojo.features = Set.of("statements");
+
+    mojo.execute();
+
+    File ledgerFile = tempDir.resolve("com/example/mapping/Ledger_.java").toFile();
+    assertThat(findMethod(ledgerFile, "bindInsert").orElseThrow().toString())
+        .contains("bindValue(statement, 0, entity.getId(), Long.class);")
+        .contains("bindValue(statement, 1, entity.owner, String.class);")
+        .contains("bindValue(statement, 2, entity.isClosed(), Boolean.class);");
+  }
+
+  @Test
+  void givenStatementsFeature_whenIdCanBeNull_thenUnsetIdsAreLeftToTheDatabase()
+      throws Exception {
+    mojo.packageName = "com.example.mapping";
+    mojo.features = Set.of("statements");
+
+    mojo.execute();
+
+    File ledgerFile = tempDir.resolve("com/example/mapping/Ledger_.java").toFile();
+    assertThat(findMethod(ledgerFile, "bindInsert").orElseThrow().toString())
+        .contains("if (entity.getId() == null) {\n"
+            + "        bindValue(statement, 0, entity.owner, String.class);")
+        .contains("bindValue(statement, 0, entity.getId(), Long.class);");
+    assertThat(findMethod(ledgerFile, "renderInsertWithoutIdSql").orElseThrow().toString())
+        .contains("new String[] { \"owner\", \"closed\" }");
+    assertThat(Files.readString(ledgerFile.toPath()))
+        .contains("return entity.getId() == null ? INSERT_WITHOUT_ID_SQL.get() : INSERT_SQL.get();")
+        .contains("\"Entities with and without an id cannot be inserted in one batch\"");
+  }
+
+  @Test
+  void givenStatementsFeature_whenBatchIsEmpty_thenItIsRejected() throws Exception {
+    mojo.packageName = "com.example.typing";
+    mojo.features = Set.of("statements");
+
+    mojo.execute();
+
+    File scalarsFile = tempDir.resolve("com/example/typing/TypedScalars_.java").toFile();
+    // a primitive id is always set, so only the INSERT of every column is generated
+    assertThat(findMethod(scalarsFile, "renderInsertWithoutIdSql")).isEmpty();
+    assertThat(Files.readString(scalarsFile.toPath()))
+        .contains("if (!iterator.hasNext()) {\n"
+            + "      throw new IllegalArgumentException(\"No entities to insert\");");
+  }
+
+  @Test
+  void givenStatementsFeature_whenExecute_thenDeprecatedStrategyUseIsSuppressed()
+      throws Exception {
+    mojo.packageName = "com.example.mapping";
+    mojo.features = Set.of("statements");
+
+    mojo.execute();
+
+    File ledgerFile = tempDir.resolve("com/example/mapping/Ledger_.java").toFile();
+    for (String method : List.of("renderInsertSql", "renderUpdateByIdSql", "column")) {
+      assertThat(findMethod(ledgerFile, method).orElseThrow().getAnnotations())
+          .extracting(Object::toString)
+          .containsExactly("@SuppressWarnings(\"deprecation\")");
+    }
+  }
+
+  @Test
+  void givenStatementsFeature_whenPersistentFieldsLackColumn_thenStatementsAreSkippedWithWarning()
+      throws Exception {
+    mojo.packageName = "com.example.mapping";
+    mojo.features = Set.of("statements");
+
+    mojo.execute();
+
+    File tariffFile = tempDir.resolve("com/example/mapping/Tariff_.java").toFile();
+    assertThat(findMethod(tariffFile, "insertSql")).isEmpty();
+    verify(log).warn("No statements generated for com.example.mapping.Tariff: fields [id, region]"
+        + " are mapped by Spring but have no @Column");
+  }
+
+  @Test
+  void givenStatementsFeature_whenColumnsAreInherited_thenStatementsAreSkippedWithWarning()
+      throws Exception {
+    mojo.packageName = "com.example.inherited";
+    mojo.features = Set.of("statements");
+
+    mojo.execute();
+
+    File subEntityFile = tempDir.resolve("com/example/inherited/SubEntity_.java").toFile();
+    assertThat(findMethod(subEntityFile, "insertSql")).isEmpty();
+    verify(log).warn(contains("No statements generated for com.example.inherited.SubEntity"));
+  }
+
+  @Test
+  void givenProjectionsFeature_whenExecute_thenColumnsAreListedInOrderIncludingInherited()
+      throws Exception {
+    mojo.packageName = "com.example.inherited";
+    mojo.features = Set.of("projections");
+
+    mojo.execute();
+
+    File subEntityFile = tempDir.resolve("com/example/inherited/SubEntity_.java").toFile();
+    String source = Files.readString(subEntityFile.toPath());
+    // projections need column names only, so inherited columns do not skip the entity; the order
+    // is that of the column constants
+    assertThat(source)
+        .contains("public static final List<Column_> COLUMNS = List.of(SUB_FIELD, MIDDLE_FIELD, ID);");
+    assertThat(findMethod(subEntityFile, "selectList").orElseThrow().toString())
+        .contains("public static List<Column> selectList()");
+  }
+
+  @Test
+  void givenCriteriaFeature_whenExecute_thenColumnConstantsAreTypedByProperty() throws Exception {
+    mojo.packageName = "com.example.typing";
+    mojo.features = Set.of("criteria");
+
+    mojo.execute();
+
+    String scalars = Files.readString(tempDir.resolve("com/example/typing/TypedScalars_.java"));
+    assertThat(scalars)
+        .contains("public static final Column_<Long> ID = new Column_<>(TypedScalars.class, \"id\");")
+        .contains("public static final Column_<Status> STATUS = "
+            + "new Column_<>(TypedScalars.class, \"status\");");
+
+    File columnFile =
+        tempDir.resolve("org/springframework/data/relational/core/sql/Column_.java").toFile();
+    assertThat(Files.readString(columnFile.toPath()))
+        .contains("public class Column_<T>")
+        // the raw constructor parameter is looked up as Class<?>, so the lookup is checked
+        .contains("getPersistentEntity((Class<?>) entityType)");
+    assertThat(findMethod(columnFile, "eq").orElseThrow().toString())
+        .contains("public BoundCondition eq(T value, BindMarkers markers)");
+    assertThat(findMethod(columnFile, "bind").orElseThrow().toString())
+        // values are written as the template writes them, against the resolved property type
+        .contains(".writeValue(value, valueType.get())");
+  }
+
+  @Test
+  void givenCriteriaFeature_whenColumnsAreInherited_thenTheirConstantsTakeAnyValue()
+      throws Exception {
+    mojo.packageName = "com.example.inherited";
+    mojo.features = Set.of("criteria");
+
+    mojo.execute();
+
+    String subEntity = Files.readString(tempDir.resolve("com/example/inherited/SubEntity_.java"));
+    assertThat(subEntity)
+        .contains("public static final Column_<String> SUB_FIELD")
+        .contains("public static final Column_<Object> MIDDLE_FIELD")
+        .contains("public static final Column_<Object> ID");
+  }
+
+  @Test
+  void givenAliasesFeature_whenExecute_thenEachPrefixGetsOneCachedView() throws Exception {
+    mojo.packageName = "com.example.readme";
+    mojo.features = Set.of("aliases");
+
+    mojo.execute();
+
+    File userFile = tempDir.resolve("com/example/readme/User_.java").toFile();
+    assertThat(findMethod(userFile, "as").orElseThrow().toString())
+        .contains("public static Aliased as(String prefix)")
+        .contains("ALIASED_VIEWS.computeIfAbsent(prefix, Aliased::new)");
+    assertThat(Files.readString(userFile.toPath()))
+        .contains("public static final class Aliased")
+        .contains("this.table = StaticR2dbcEntityTemplateAccessor_.getTable(User.class, prefix);")
+        // the view's column shadows the constant, so the constant is qualified
+        .contains("this.NAME = table.column(User_.NAME.name());")
+        .contains("this.columns = List.of(ID, NAME);");
+  }
+
+  @Test
+  void givenNoFeatures_whenExecute_thenNoMapperIsGenerated() throws Exception {
+    mojo.packageName = "com.example.readme";
+
+    mojo.execute();
+
+    File userFile = tempDir.resolve("com/example/readme/User_.java").toFile();
+    assertThat(findMethod(userFile, "map")).isEmpty();
+  }
+
+  @Test
+  void givenUnknownFeature_whenExecute_thenThrowsMojoExecutionException() {
+    mojo.packageName = "com.example.readme";
+    mojo.features = Set.of("no-such-feature");
+
+    MojoExecutionException ex = assertThrows(MojoExecutionException.class, mojo::execute);
+
+    assertThat(ex.getCause())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("no-such-feature")
+        .hasMessageContaining("row-mappers");
+  }
+
+  private static EntityDescriptor shippedMember() {
+    return EntityDescriptor.builder("com.example.library.Member", TypeKind.CLASS)
+        .tableName("members")
+        .attribute(column("joinedAt", "joined_at"))
+        .attribute(AttributeDescriptor.of("notes", TypeRef.of("java.lang.String"), false,
+            List.of()))
+        .superType(SuperTypeContribution.of("com.example.library.Party",
+            List.of(column("displayName", "display_name"))))
+        .build();
+  }
+
+  private static AttributeDescriptor column(String name, String columnName) {
+    return AttributeDescriptor.of(name, TypeRef.of("java.lang.String"), false, List.of(
+        AnnotationFact.of("org.springframework.data.relational.core.mapping.Column",
+            Map.of("value", columnName))));
+  }
+
+  private static Optional<MethodDeclaration> findMethod(File file, String name) throws Exception {
+    ParserConfiguration configuration =
+        new ParserConfiguration().setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_17);
+    return new JavaParser(configuration).parse(file).getResult().orElseThrow()
+        .findAll(MethodDeclaration.class).stream()
+        .filter(method -> method.getNameAsString().equals(name))
+        .findFirst();
+  }
 }
@@ -3,11 +3,15 @@ package io.github.vadimbabich.metadata;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import io.github.vadimbabich.metadata.api.JavaLanguageLevel;
+import io.github.vadimbabich.metadata.generator.r2dbc.R2dbcFeature;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.maven.project.MavenProject;
 import org.junit.jupiter.api.io.TempDir;
@@ -20,6 +24,10 @@ import org.junit.jupiter.params.provider.MethodSource;
  */
 class GenerationReproducibilityTest {
 
+  private static final Set<String> ALL_FEATURES = Arrays.stream(R2dbcFeature.values())
+      .map(R2dbcFeature::id)
+      .collect(Collectors.toSet());
+
   @TempDir
   Path firstRun;
 
@@ -33,6 +41,9 @@ class GenerationReproducibilityTest {
         "com.example.entities",
         "com.example.inherited",
         "com.example.nested",
+        "com.example.mapping",
+        "com.example.pricing",
+        "com.example.upstream",
         "com.example.readme");
   }
 
@@ -40,9 +51,23 @@ class GenerationReproducibilityTest {
   @MethodSource("fixturePackages")
   void givenSameSources_whenGeneratedTwice_thenOutputIsByteIdentical(String packageName)
       throws Exception {
-    execute(firstRun, packageName);
-    execute(secondRun, packageName);
+    execute(firstRun, packageName, Set.of());
+    execute(secondRun, packageName, Set.of());
+
+    assertByteIdentical();
+  }
+
+  @ParameterizedTest(name = "package {0}")
+  @MethodSource("fixturePackages")
+  void givenAllFeatures_whenGeneratedTwice_thenOutputIsByteIdentical(String packageName)
+      throws Exception {
+    execute(firstRun, packageName, ALL_FEATURES);
+    execute(secondRun, packageName, ALL_FEATURES);
 
+    assertByteIdentical();
+  }
+
+  private void assertByteIdentical() throws IOException {
     List<Path> firstFiles = collectGeneratedFiles(firstRun);
     assertThat(firstFiles).isNotEmpty();
 
@@ -59,7 +84,7 @@ class GenerationReproducibilityTest {
   @MethodSource("fixturePackages")
   void givenGeneratedFile_thenHeaderIsDateFreeAndCarriesCorrectToolName(String packageName)
       throws Exception {
-    execute(firstRun, packageName);
+    execute(firstRun, packageName, Set.of());
 
     for (Path file : collectGeneratedFiles(firstRun)) {
       String content = Files.readString(file);
@@ -72,7 +97,8 @@ class GenerationReproducibilityTest {
     }
   }
 
-  private void execute(Path outputDirectory, String packageName) throws Exception {
+  private void execute(Path outputDirectory, String packageName, Set<String> features)
+      throws Exception {
     GenerateEntityMetadataMojo mojo = new GenerateEntityMetadataMojo();
 
     MavenProject project = new MavenProject();
@@ -84,6 +110,7 @@ class GenerationReproducibilityTest {
     mojo.outputDirectory = outputDirectory.toFile();
     mojo.entityMetadataGenerator = "r2dbc";
     mojo.packageName = packageName;
+    mojo.features = features;
 
     mojo.execute();
   }
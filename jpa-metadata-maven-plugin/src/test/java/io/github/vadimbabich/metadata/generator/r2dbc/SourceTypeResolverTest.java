@@ -0,0 +1,39 @@
+package io.github.vadimbabich.metadata.generator.r2dbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+class SourceTypeResolverTest {
+
+  private static final Path PRICE = Path.of(
+      "src/test/resources/projects/simple-project/src/main/java/com/example/pricing/Price.java");
+
+  @Test
+  void givenSamePackageType_whenResolved_thenItHidesJavaLangAndOnDemandImports() throws Exception {
+    CompilationUnit unit = new JavaParser().parse(PRICE).getResult().orElseThrow();
+    ClassOrInterfaceDeclaration price = unit.getClassByName("Price").orElseThrow();
+    SourceTypeResolver resolver =
+        new SourceTypeResolver(price, ClassName.get("com.example.pricing", "Price"));
+
+    assertThat(resolve(resolver, price, "currency"))
+        .isEqualTo(ClassName.get("com.example.pricing", "Currency"));
+    assertThat(resolve(resolver, price, "module"))
+        .isEqualTo(ClassName.get("com.example.pricing", "Module"));
+    assertThat(resolve(resolver, price, "tags")).isEqualTo(ParameterizedTypeName.get(
+        ClassName.get("java.util", "List"), ClassName.get("java.lang", "String")));
+    assertThat(resolve(resolver, price, "id")).isEqualTo(ClassName.get("java.lang", "Long"));
+  }
+
+  private static TypeName resolve(SourceTypeResolver resolver, ClassOrInterfaceDeclaration entity,
+      String field) {
+    return resolver.resolve(entity.getFieldByName(field).orElseThrow().getElementType());
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.mapping;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Mutable class witness for generated row mappers and binders: one property behind accessors,
+ * a boolean behind {@code is}/{@code set}, and a package-private field reached directly.
+ */
+@Table("ledgers")
+public class Ledger {
+
+  @Id
+  @Column("ledger_id")
+  private Long id;
+
+  @Column("owner")
+  String owner;
+
+  @Column("closed")
+  private boolean closed;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  public void setClosed(boolean closed) {
+    this.closed = closed;
+  }
+}
@@ -0,0 +1,29 @@
+package com.example.mapping;
+
+import java.math.BigDecimal;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Witness for fields Spring maps without {@code @Column}: the id and the region are persistent
+ * under their own names, so output that covers only the {@code @Column} fields would drop them.
+ * The transient label is not persistent and does not count.
+ */
+@Table("tariffs")
+public class Tariff {
+
+  @Id
+  Long id;
+
+  @Column("rate")
+  BigDecimal rate;
+
+  String region;
+
+  @Transient
+  String label;
+
+  static final String DEFAULT_REGION = "EU";
+}
@@ -0,0 +1,7 @@
+package com.example.pricing;
+
+/** Shares its simple name with {@code java.util.Currency}, which {@code Price} imports on demand. */
+public enum Currency {
+  EUR,
+  USD
+}
@@ -0,0 +1,7 @@
+package com.example.pricing;
+
+/** Shares its simple name with {@code java.lang.Module}. */
+public enum Module {
+  BILLING,
+  SHIPPING
+}
@@ -0,0 +1,27 @@
+package com.example.pricing;
+
+import java.util.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Shadowing witness: {@code Currency} and {@code Module} are types of this package, which hide
+ * {@code java.util.Currency} from the on-demand import and {@code java.lang.Module}.
+ */
+@Table("prices")
+public class Price {
+
+  @Id
+  @Column("price_id")
+  Long id;
+
+  @Column("currency")
+  Currency currency;
+
+  @Column("module")
+  Module module;
+
+  @Column("tags")
+  List<String> tags;
+}
@@ -0,0 +1,16 @@
+package com.example.upstream;
+
+import com.example.library.Member;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Extends an entity of another artifact, whose source is not available here: its columns are
+ * known only from the entity model that artifact ships.
+ */
+@Table("subscribers")
+public class Subscriber extends Member {
+
+  @Column("newsletter")
+  private String newsletter;
+}